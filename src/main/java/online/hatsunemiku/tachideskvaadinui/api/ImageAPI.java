@@ -0,0 +1,170 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.api;
+
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import online.hatsunemiku.tachideskvaadinui.services.cache.ImageCache;
+import online.hatsunemiku.tachideskvaadinui.services.cache.ImageCache.CachedImage;
+import online.hatsunemiku.tachideskvaadinui.services.cache.ThumbnailCache;
+import online.hatsunemiku.tachideskvaadinui.utils.ImageUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Serves the images of the Suwayomi Server from the {@link ImageCache}, so browsers don't download
+ * them from the server directly. Responses carry a strong ETag, so browsers revalidate their copy
+ * with a conditional request instead of downloading it again.
+ *
+ * <p>Only manga thumbnails, chapter pages and extension icons are served, so other endpoints of the
+ * server can't be requested through the application.
+ */
+@Slf4j
+@RestController
+@RequestMapping("images")
+public class ImageAPI {
+
+  private final ImageCache imageCache;
+  private final ThumbnailCache thumbnailCache;
+  private final CacheControl cacheControl;
+
+  /**
+   * Creates a new instance of the {@link ImageAPI} class.
+   *
+   * @param imageCache the {@link ImageCache} the images are served from
+   * @param thumbnailCache the {@link ThumbnailCache} the thumbnails are served from
+   * @param clientMaxAge how long browsers may use an image without revalidating it
+   */
+  public ImageAPI(
+      ImageCache imageCache,
+      ThumbnailCache thumbnailCache,
+      @Value("${vaaui.image-cache.client-max-age:1d}") Duration clientMaxAge) {
+    this.imageCache = imageCache;
+    this.thumbnailCache = thumbnailCache;
+    this.cacheControl = CacheControl.maxAge(clientMaxAge).cachePrivate();
+  }
+
+  /**
+   * Serves an image of the Suwayomi Server.
+   *
+   * @param path the path of the image on the server, e.g. {@code /api/v1/manga/1/thumbnail}
+   * @param request the request, used to answer conditional requests
+   * @param response the response to write the image to
+   * @throws IOException if the image couldn't be written to the response
+   */
+  @GetMapping
+  public void getImage(
+      @RequestParam String path, ServletWebRequest request, HttpServletResponse response)
+      throws IOException {
+    if (!isServerImage(path)) {
+      response.sendError(HttpStatus.BAD_REQUEST.value());
+      return;
+    }
+
+    serve(() -> imageCache.get(path), path, request, response);
+  }
+
+  /**
+   * Serves a downscaled thumbnail of an image of the Suwayomi Server.
+   *
+   * @param path the path of the image on the server, e.g. {@code /api/v1/manga/1/thumbnail}
+   * @param width the width of the thumbnail, one of {@link ImageUtils#THUMBNAIL_WIDTHS}
+   * @param request the request, used to answer conditional requests
+   * @param response the response to write the thumbnail to
+   * @throws IOException if the thumbnail couldn't be written to the response
+   */
+  @GetMapping("thumbnail")
+  public void getThumbnail(
+      @RequestParam String path,
+      @RequestParam int width,
+      ServletWebRequest request,
+      HttpServletResponse response)
+      throws IOException {
+    if (!isServerImage(path) || !ImageUtils.THUMBNAIL_WIDTHS.contains(width)) {
+      response.sendError(HttpStatus.BAD_REQUEST.value());
+      return;
+    }
+
+    serve(() -> thumbnailCache.get(path, width), path, request, response);
+  }
+
+  /** Only images of the server are proxied. */
+  private static boolean isServerImage(String path) {
+    return ImageUtils.getImageTemplate(path) != null;
+  }
+
+  /**
+   * Writes a stored image to the response. If the image is evicted from the cache before it's
+   * opened, it's retrieved once more.
+   */
+  private void serve(
+      Supplier<Mono<CachedImage>> retrieval,
+      String path,
+      ServletWebRequest request,
+      HttpServletResponse response)
+      throws IOException {
+    try {
+      serve(retrieval.get(), path, request, response);
+    } catch (NoSuchFileException e) {
+      log.debug("Image {} was evicted while it was served, retrieving it again", path);
+      serve(retrieval.get(), path, request, response);
+    }
+  }
+
+  private void serve(
+      Mono<CachedImage> retrieval,
+      String path,
+      ServletWebRequest request,
+      HttpServletResponse response)
+      throws IOException {
+    CachedImage image;
+
+    try {
+      image = retrieval.block();
+    } catch (WebClientResponseException e) {
+      response.sendError(e.getStatusCode().value());
+      return;
+    } catch (RuntimeException e) {
+      log.debug("Couldn't retrieve image {}", path, e);
+      response.sendError(HttpStatus.BAD_GATEWAY.value());
+      return;
+    }
+
+    if (image == null) {
+      response.sendError(HttpStatus.NOT_FOUND.value());
+      return;
+    }
+
+    response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+
+    if (request.checkNotModified(image.etag(), image.lastModified())) {
+      return;
+    }
+
+    // opened before the response is started, so a missing file can still be retried
+    try (InputStream in = Files.newInputStream(image.file())) {
+      response.setContentType(image.contentType());
+      response.setContentLengthLong(image.size());
+      in.transferTo(response.getOutputStream());
+    }
+  }
+}
@@ -17,6 +17,7 @@ import lombok.Getter;
 public class Card extends Anchor {
 
   private final Paragraph textComponent;
+  private final Image imageComponent;
 
   public Card(String title, String imageUrl) {
     setClassName("card");
@@ -31,5 +32,6 @@ public class Card extends Anchor {
     add(img, p);
 
     this.textComponent = p;
+    this.imageComponent = img;
   }
 }
@@ -6,15 +6,32 @@
 
 package online.hatsunemiku.tachideskvaadinui.component.card;
 
+import com.vaadin.flow.dom.Element;
 import lombok.extern.slf4j.Slf4j;
 import online.hatsunemiku.tachideskvaadinui.data.settings.Settings;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Manga;
+import online.hatsunemiku.tachideskvaadinui.utils.ImageUtils;
 
 @Slf4j
 public class MangaCard extends Card {
 
+  /** The width of the cards in the grids, used by the browser to pick a thumbnail. */
+  private static final String THUMBNAIL_SIZES =
+      "(max-width: 500px) 50vw, (max-width: 720px) 34vw, 20vw";
+
+  /** The thumbnail used by browsers not supporting {@code srcset}. */
+  private static final int DEFAULT_THUMBNAIL_WIDTH = 300;
+
   public MangaCard(Settings settings, Manga manga) {
-    super(manga.getTitle(), settings.getUrl() + manga.getThumbnailUrl());
+    super(
+        manga.getTitle(),
+        ImageUtils.getThumbnailUrl(manga.getThumbnailUrl(), DEFAULT_THUMBNAIL_WIDTH));
+
+    Element img = getImageComponent().getElement();
+    img.setAttribute("srcset", ImageUtils.getThumbnailSrcset(manga.getThumbnailUrl()));
+    img.setAttribute("sizes", THUMBNAIL_SIZES);
+    img.setAttribute("loading", "lazy");
+    img.setAttribute("decoding", "async");
 
     String link = "/manga/" + manga.getId();
     setHref(link);
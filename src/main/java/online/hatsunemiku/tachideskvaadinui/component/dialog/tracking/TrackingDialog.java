@@ -166,9 +166,9 @@ public class TrackingDialog extends Dialog {
     Button aniListBtn = new Button("AniList");
     Button malBtn = new Button("MyAnimeList");
 
-    var version = suwayomiService.getServerVersion();
+    var capabilities = suwayomiService.getCapabilities();
 
-    if (version.orElseThrow().getRevisionNumber() < 1510) {
+    if (!capabilities.orElseThrow().supportsServerTracking()) {
       malBtn.setEnabled(false);
     }
 
@@ -336,16 +336,16 @@ public class TrackingDialog extends Dialog {
     var nukeBtn = new Button(nukeBtnText, VaadinIcon.BOMB.create());
     nukeBtn.addClickListener(
         e -> {
-          var version = suwayomiService.getServerVersion();
+          var capabilities = suwayomiService.getCapabilities();
 
-          if (version.isEmpty()) {
+          if (capabilities.isEmpty()) {
             throw new RuntimeException("Failed to get server version");
           }
 
           if (tracker.hasAniListId()) {
             suwayomiTrackingService.stopTracking(tracker, true);
 
-            if (version.get().getRevisionNumber() < 1510) {
+            if (!capabilities.get().supportsServerTracking()) {
               aniListAPI.removeMangaFromList(tracker.getAniListId());
             }
 
@@ -353,7 +353,7 @@ public class TrackingDialog extends Dialog {
           } else if (tracker.hasMalId()) {
             suwayomiTrackingService.stopTracking(tracker, true);
 
-            if (version.get().getRevisionNumber() < 1510) {
+            if (!capabilities.get().supportsServerTracking()) {
               malAPI.removeMangaFromList(tracker.getMalId());
             }
 
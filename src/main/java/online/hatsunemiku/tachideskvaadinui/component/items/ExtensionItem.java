@@ -15,16 +15,24 @@ import com.vaadin.flow.component.notification.NotificationVariant;
 import online.hatsunemiku.tachideskvaadinui.data.settings.Settings;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Extension;
 import online.hatsunemiku.tachideskvaadinui.services.ExtensionService;
+import online.hatsunemiku.tachideskvaadinui.utils.ImageUtils;
 import org.jetbrains.annotations.NotNull;
 
 @CssImport("./css/components/extension-item.css")
 public class ExtensionItem extends BlurryItem {
 
+  /**
+   * The state of the extension shown by this item. It's shared with the snapshot of the {@link
+   * ExtensionService}, so changes are applied to copies.
+   */
+  private Extension extension;
+
   public ExtensionItem(Extension extension, Settings settings, ExtensionService service) {
     super();
     addClassName("extension-item");
+    this.extension = extension;
 
-    Div extensionData = getExtensionStructure(extension, settings);
+    Div extensionData = getExtensionStructure(extension);
 
     Div buttons = new Div();
     buttons.setClassName("extension-buttons");
@@ -32,8 +40,8 @@ public class ExtensionItem extends BlurryItem {
     Button installBtn = new Button("Install");
     Button uninstallBtn = new Button("Uninstall");
 
-    configureInstallBtn(extension, service, uninstallBtn, installBtn);
-    configureUninstallBtn(extension, service, installBtn, uninstallBtn);
+    configureInstallBtn(service, uninstallBtn, installBtn);
+    configureUninstallBtn(service, installBtn, uninstallBtn);
 
     buttons.add(uninstallBtn);
     buttons.add(installBtn);
@@ -42,14 +50,14 @@ public class ExtensionItem extends BlurryItem {
   }
 
   @NotNull
-  private static Div getExtensionStructure(Extension extension, Settings settings) {
+  private static Div getExtensionStructure(Extension extension) {
     Div extensionData = new Div();
     extensionData.setClassName("extension-data");
 
     Div icon = new Div();
     icon.setClassName("extension-icon");
 
-    String iconUrl = settings.getUrl() + extension.getIconUrl();
+    String iconUrl = ImageUtils.getImageUrl(extension.getIconUrl());
     Image image = new Image();
 
     image.setSrc(iconUrl);
@@ -70,7 +78,7 @@ public class ExtensionItem extends BlurryItem {
   }
 
   private void configureUninstallBtn(
-      Extension extension, ExtensionService service, Button installBtn, Button uninstallBtn) {
+      ExtensionService service, Button installBtn, Button uninstallBtn) {
     uninstallBtn.setClassName("extension-uninstall-btn");
 
     uninstallBtn.addClickListener(
@@ -87,7 +95,7 @@ public class ExtensionItem extends BlurryItem {
           } else {
             notification.addThemeVariants(NotificationVariant.LUMO_SUCCESS);
             notification.setText("Extension uninstalled successfully");
-            extension.setInstalled(false);
+            extension = extension.withInstalled(false);
           }
 
           notification.setDuration(3000);
@@ -97,10 +105,10 @@ public class ExtensionItem extends BlurryItem {
   }
 
   private void configureInstallBtn(
-      Extension extension, ExtensionService service, Button uninstallBtn, Button installBtn) {
+      ExtensionService service, Button uninstallBtn, Button installBtn) {
     installBtn.setClassName("extension-install-btn");
 
-    updateStatus(extension, installBtn, uninstallBtn);
+    updateStatus(installBtn, uninstallBtn);
 
     installBtn.addClickListener(
         event -> {
@@ -108,15 +116,15 @@ public class ExtensionItem extends BlurryItem {
 
           if (extension.isObsolete()) {
             service.uninstallExtension(extension.getPkgName());
-            extension.setInstalled(false);
-            updateStatus(extension, installBtn, uninstallBtn);
+            extension = extension.withInstalled(false);
+            updateStatus(installBtn, uninstallBtn);
             return;
           }
 
           if (extension.isHasUpdate()) {
             service.updateExtension(extension.getPkgName());
-            extension.setHasUpdate(false);
-            updateStatus(extension, installBtn, uninstallBtn);
+            extension = extension.withHasUpdate(false);
+            updateStatus(installBtn, uninstallBtn);
             return;
           }
 
@@ -130,17 +138,17 @@ public class ExtensionItem extends BlurryItem {
           } else {
             notification.addThemeVariants(NotificationVariant.LUMO_SUCCESS);
             notification.setText("Extension installed successfully");
-            extension.setInstalled(true);
+            extension = extension.withInstalled(true);
           }
 
           notification.setDuration(3000);
           notification.open();
 
-          updateStatus(extension, installBtn, uninstallBtn);
+          updateStatus(installBtn, uninstallBtn);
         });
   }
 
-  private void updateStatus(Extension extension, Button installBtn, Button uninstallBtn) {
+  private void updateStatus(Button installBtn, Button uninstallBtn) {
     if (!extension.isInstalled()) {
       setBtnUninstalled(installBtn, uninstallBtn);
       return;
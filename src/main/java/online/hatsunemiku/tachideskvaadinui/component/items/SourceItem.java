@@ -12,6 +12,7 @@ import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.Image;
 import online.hatsunemiku.tachideskvaadinui.data.settings.Settings;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Source;
+import online.hatsunemiku.tachideskvaadinui.utils.ImageUtils;
 
 @CssImport("./css/components/items/source-item.css")
 public class SourceItem extends BlurryItem {
@@ -29,7 +30,7 @@ public class SourceItem extends BlurryItem {
 
     Image iconImg = new Image();
     iconImg.setClassName("source-item-icon-img");
-    iconImg.setSrc(settings.getUrl() + source.getIconUrl());
+    iconImg.setSrc(ImageUtils.getImageUrl(source.getIconUrl()));
 
     icon.add(iconImg);
 
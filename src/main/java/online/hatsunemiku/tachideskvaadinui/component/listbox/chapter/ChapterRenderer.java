@@ -207,20 +207,24 @@ public class ChapterRenderer extends ComponentRenderer<HorizontalLayout, Chapter
 
   private static void trackChapterDownload(
       Chapter chapter, MangaService mangaService, Div rightSide, UI ui, Button downloadBtn) {
-    mangaService.addDownloadTrackListener(
-        chapter.getId(),
-        () -> {
-          if (!ui.isAttached()) {
-            return;
-          }
-
-          ui.access(
-              () -> {
-                Chapter chapterCopy = chapter.withDownloaded(true);
-                Button deleteBtn = getDownloadBtn(chapterCopy, mangaService, rightSide);
-                rightSide.replace(downloadBtn, deleteBtn);
-              });
-        });
+    var listener =
+        mangaService.addDownloadTrackListener(
+            chapter.getId(),
+            () -> {
+              if (!ui.isAttached()) {
+                return;
+              }
+
+              ui.access(
+                  () -> {
+                    Chapter chapterCopy = chapter.withDownloaded(true);
+                    Button deleteBtn = getDownloadBtn(chapterCopy, mangaService, rightSide);
+                    rightSide.replace(downloadBtn, deleteBtn);
+                  });
+            });
+
+    // stop listening if the chapter isn't shown anymore before the download finished
+    downloadBtn.addDetachListener(e -> listener.dispose());
   }
 
   @NotNull
@@ -286,7 +290,7 @@ public class ChapterRenderer extends ComponentRenderer<HorizontalLayout, Chapter
     unreadButton.setId("unread-button");
     unreadButton.addClickListener(
         e -> {
-          if (!mangaService.setChapterUnread(chapter.getId())) {
+          if (!mangaService.setChapterUnread(chapter.getId(), chapter.getMangaId())) {
             log.error("Failed to set chapter unread");
             Notification notification = new Notification("Failed to set chapter unread", 5000);
             notification.setPosition(Notification.Position.MIDDLE);
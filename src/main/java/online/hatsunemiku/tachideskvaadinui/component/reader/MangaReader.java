@@ -31,8 +31,10 @@ import online.hatsunemiku.tachideskvaadinui.data.settings.Settings;
 import online.hatsunemiku.tachideskvaadinui.data.settings.event.ReaderSettingsChangeEvent;
 import online.hatsunemiku.tachideskvaadinui.data.settings.reader.ReaderDirection;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Chapter;
+import online.hatsunemiku.tachideskvaadinui.services.ChapterPrefetchService;
 import online.hatsunemiku.tachideskvaadinui.services.MangaService;
 import online.hatsunemiku.tachideskvaadinui.services.SettingsService;
+import online.hatsunemiku.tachideskvaadinui.services.client.ChapterProjection;
 import online.hatsunemiku.tachideskvaadinui.utils.NavigationUtils;
 import online.hatsunemiku.tachideskvaadinui.view.RootView;
 import org.jetbrains.annotations.NotNull;
@@ -48,6 +50,7 @@ public class MangaReader extends Div {
 
   private final SettingsService settingsService;
   private final MangaService mangaService;
+  private final ChapterPrefetchService prefetchService;
   private final int chapterIndex;
   private final List<Chapter> chapters;
 
@@ -57,17 +60,21 @@ public class MangaReader extends Div {
    * @param chapter The Chapter object representing the chapter being read.
    * @param settingsService The SettingsService object used for managing reader settings.
    * @param mangaService The MangaService object used for manga-related operations.
+   * @param prefetchService The ChapterPrefetchService object used for loading the next chapter in
+   *     advance.
    * @param chapters The list of chapters in the manga
    */
   public MangaReader(
       Chapter chapter,
       SettingsService settingsService,
       MangaService mangaService,
+      ChapterPrefetchService prefetchService,
       List<Chapter> chapters) {
     addClassName("manga-reader");
 
     this.settingsService = settingsService;
     this.mangaService = mangaService;
+    this.prefetchService = prefetchService;
     this.chapterIndex = chapters.stream().map(Chapter::getId).toList().indexOf(chapter.getId());
     this.chapters = List.copyOf(chapters);
 
@@ -156,6 +163,17 @@ public class MangaReader extends Div {
           e.unregisterListener();
         });
 
+    reader.addReaderPageIndexChangeListener(
+        e -> {
+          if (chapterIndex < 0 || chapterIndex >= chapters.size() - 1) {
+            return;
+          }
+
+          if (prefetchService.isPastThreshold(e.getPageIndex(), controls.pageCount)) {
+            prefetchService.prefetch(chapters.get(chapterIndex + 1).getId());
+          }
+        });
+
     add(sidebar, reader, controls);
   }
 
@@ -172,10 +190,11 @@ public class MangaReader extends Div {
 
       Div navigationButtons = getNavigationButtons(chapter);
 
-      List<Chapter> chapters = mangaService.getChapterList(chapter.getMangaId());
+      int mangaId = chapter.getMangaId();
+      List<Chapter> chapters = mangaService.getChapterList(mangaId, ChapterProjection.NAVIGATION);
 
       if (chapters.isEmpty()) {
-        chapters = mangaService.fetchChapterList(chapter.getMangaId());
+        chapters = mangaService.fetchChapterList(mangaId, ChapterProjection.NAVIGATION);
       }
 
       Div chapterSelect = new Div();
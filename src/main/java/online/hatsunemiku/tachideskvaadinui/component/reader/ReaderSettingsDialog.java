@@ -15,6 +15,7 @@ import com.vaadin.flow.component.dialog.Dialog;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.notification.NotificationVariant;
+import com.vaadin.flow.component.textfield.IntegerField;
 import com.vaadin.flow.data.binder.Binder;
 import online.hatsunemiku.tachideskvaadinui.data.settings.Settings;
 import online.hatsunemiku.tachideskvaadinui.data.settings.event.ReaderSettingsChangeEvent;
@@ -39,6 +40,18 @@ public class ReaderSettingsDialog extends Dialog {
         .forField(directionComboBox)
         .bind(ReaderSettings::getDirection, ReaderSettings::setDirection);
 
+    IntegerField preloadedPagesField = new IntegerField("Preloaded pages");
+    preloadedPagesField.setHelperText("Pages loaded around the current page of the paged reader");
+    preloadedPagesField.setMin(0);
+    preloadedPagesField.setMax(10);
+    preloadedPagesField.setStepButtonsVisible(true);
+
+    binder
+        .forField(preloadedPagesField)
+        .asRequired("Preloaded pages cannot be empty")
+        .withValidator(pages -> pages >= 0 && pages <= 10, "Must be between 0 and 10")
+        .bind(ReaderSettings::getPreloadedPages, ReaderSettings::setPreloadedPages);
+
     binder.readBean(readerSettings);
 
     Div buttonContainer = new Div();
@@ -100,6 +113,6 @@ public class ReaderSettingsDialog extends Dialog {
 
     buttonContainer.add(saveBtn, saveForMangaBtn, cancelBtn);
 
-    add(directionComboBox, buttonContainer);
+    add(directionComboBox, preloadedPagesField, buttonContainer);
   }
 }
@@ -8,16 +8,23 @@ package online.hatsunemiku.tachideskvaadinui.component.reader.paged;
 
 import com.vaadin.flow.component.ComponentUtil;
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.Image;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 import online.hatsunemiku.tachideskvaadinui.component.reader.Reader;
-import online.hatsunemiku.tachideskvaadinui.data.settings.Settings;
 import online.hatsunemiku.tachideskvaadinui.data.settings.event.ReaderSettingsChangeEvent;
 import online.hatsunemiku.tachideskvaadinui.data.settings.reader.ReaderDirection;
 import online.hatsunemiku.tachideskvaadinui.data.settings.reader.ReaderSettings;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Chapter;
 import online.hatsunemiku.tachideskvaadinui.services.MangaService;
 import online.hatsunemiku.tachideskvaadinui.services.SettingsService;
+import online.hatsunemiku.tachideskvaadinui.utils.ImageUtils;
 import org.vaadin.addons.online.hatsunemiku.diamond.swiper.Swiper;
 import org.vaadin.addons.online.hatsunemiku.diamond.swiper.SwiperConfig;
 import org.vaadin.addons.online.hatsunemiku.diamond.swiper.constants.LanguageDirection;
@@ -26,10 +33,24 @@ import org.vaadin.addons.online.hatsunemiku.diamond.swiper.constants.LanguageDir
  * The PagedReader class is responsible for displaying and controlling the reading of manga chapters
  * in a paged format. It extends the {@link Reader} class and provides additional functionality
  * specific to paged reading.
+ *
+ * <p>Every page has a zoomable slide, but only the slides around the active one contain an image.
+ * The number of these pages is set by {@link ReaderSettings#getPreloadedPages()}. Images leaving
+ * the window are reused for pages entering it, so long chapters don't keep every page in the
+ * browser.
  */
 @Slf4j
 public class PagedReader extends Reader {
   private final Swiper swiper;
+  private final List<Div> slides = new ArrayList<>();
+  private List<String> pageUrls = List.of();
+  private int preloadedPages;
+
+  /** The images shown by the slides by the index of their page. */
+  private final Map<Integer, Image> shownImages = new HashMap<>();
+
+  /** Images removed from their slide, which are reused before new ones are created. */
+  private final Deque<Image> imagePool = new ArrayDeque<>();
 
   /**
    * Constructs a {@link PagedReader} object.
@@ -52,6 +73,9 @@ public class PagedReader extends Reader {
             ui,
             ReaderSettingsChangeEvent.class,
             e -> {
+              preloadedPages = e.getNewSettings().getPreloadedPages();
+              updateWindow(swiper.getActiveIndex());
+
               var direction = e.getNewSettings().getDirection();
 
               switch (direction) {
@@ -66,6 +90,7 @@ public class PagedReader extends Reader {
     addDetachListener(e -> settingsChangeListener.remove());
 
     ReaderSettings settings = settingsService.getSettings().getReaderSettings(chapter.getMangaId());
+    preloadedPages = settings.getPreloadedPages();
 
     switch (settings.getDirection()) {
       case RTL -> swiper.changeLanguageDirection(LanguageDirection.RIGHT_TO_LEFT);
@@ -114,7 +139,11 @@ public class PagedReader extends Reader {
 
     swiper.addReachEndEventListener(e -> sendReachEndEvent());
 
-    swiper.addActiveIndexChangeEventListener(e -> sendPageChangeEvent(e.getActiveIndex()));
+    swiper.addActiveIndexChangeEventListener(
+        e -> {
+          updateWindow(e.getActiveIndex());
+          sendPageChangeEvent(e.getActiveIndex());
+        });
 
     add(swiper);
   }
@@ -124,21 +153,56 @@ public class PagedReader extends Reader {
 
     var urls = mangaService.getChapterPages(chapter.getId());
 
-    Settings settings = settingsService.getSettings();
-    String baseUrl = settings.getUrl();
-
     for (int i = 0; i < urls.size(); i++) {
-      String url = baseUrl + urls.get(i);
+      // the slide stays, so the indices of the swiper don't change when its image is removed
+      Div slide = new Div();
+      slide.addClassName("page-slide");
 
-      Image image = new Image(url, "Page %d".formatted(i + 1));
+      slides.add(slide);
+      swiper.addZoomable(true, slide);
+    }
+
+    pageUrls = List.copyOf(urls);
+    updateWindow(0);
+  }
+
+  /**
+   * Shows the images of the pages around a page and removes the images of the other pages.
+   *
+   * @param pageIndex the index of the page in the middle of the window
+   */
+  private void updateWindow(int pageIndex) {
+    int first = Math.max(0, pageIndex - preloadedPages);
+    int last = Math.min(slides.size() - 1, pageIndex + preloadedPages);
+
+    var iterator = shownImages.entrySet().iterator();
+
+    while (iterator.hasNext()) {
+      var entry = iterator.next();
+      int index = entry.getKey();
+
+      if (index >= first && index <= last) {
+        continue;
+      }
+
+      Image image = entry.getValue();
+      image.removeFromParent();
+      imagePool.push(image);
+      iterator.remove();
+    }
 
-      if (i > 1) {
-        image.getElement().setAttribute("loading", "lazy");
+    for (int i = first; i <= last; i++) {
+      if (shownImages.containsKey(i)) {
+        continue;
       }
 
+      Image image = imagePool.isEmpty() ? new Image() : imagePool.pop();
+      image.setSrc(ImageUtils.getImageUrl(pageUrls.get(i)));
+      image.setAlt("Page %d".formatted(i + 1));
       image.addClassName("manga-page");
 
-      swiper.addZoomable(true, image);
+      slides.get(i).add(image);
+      shownImages.put(i, image);
     }
   }
 
@@ -160,6 +224,7 @@ public class PagedReader extends Reader {
 
   @Override
   protected void moveToPage(int index) {
+    updateWindow(index);
     swiper.slideTo(index);
   }
 
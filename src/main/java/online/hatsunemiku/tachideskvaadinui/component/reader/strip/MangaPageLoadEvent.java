@@ -0,0 +1,45 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.component.reader.strip;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.ComponentEvent;
+import com.vaadin.flow.component.DomEvent;
+import com.vaadin.flow.component.EventData;
+import lombok.Getter;
+
+/** Represents an event that is fired when the image of a manga page has been loaded. */
+@DomEvent("manga-page-load")
+@Getter
+public class MangaPageLoadEvent extends ComponentEvent<Component> {
+  private final int pageIndex;
+  private final int width;
+  private final int height;
+
+  /**
+   * Creates a new event using the given source and indicator whether the event originated from the
+   * client side or the server side.
+   *
+   * @param source the source component
+   * @param fromClient <code>true</code> if the event originated from the client side, <code>false
+   *     </code> otherwise
+   * @param pageIndex the index of the loaded page
+   * @param width the natural width of the image in pixels
+   * @param height the natural height of the image in pixels
+   */
+  public MangaPageLoadEvent(
+      Component source,
+      boolean fromClient,
+      @EventData("event.detail.pageIndex") int pageIndex,
+      @EventData("event.detail.width") int width,
+      @EventData("event.detail.height") int height) {
+    super(source, fromClient);
+    this.pageIndex = pageIndex;
+    this.width = width;
+    this.height = height;
+  }
+}
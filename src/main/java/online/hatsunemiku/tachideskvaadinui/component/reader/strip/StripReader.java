@@ -11,31 +11,65 @@ import com.vaadin.flow.component.ScrollOptions;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.Image;
+import com.vaadin.flow.dom.Element;
 import com.vaadin.flow.shared.Registration;
-import java.awt.image.BufferedImage;
-import java.net.URI;
-import java.net.URL;
+import java.util.ArrayDeque;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
-import javax.imageio.ImageIO;
+import java.util.Map;
 import online.hatsunemiku.tachideskvaadinui.component.reader.Reader;
 import online.hatsunemiku.tachideskvaadinui.component.reader.ReaderPageIndexChangeEvent;
 import online.hatsunemiku.tachideskvaadinui.data.settings.reader.ReaderDirection;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Chapter;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.PageManifest.Page;
 import online.hatsunemiku.tachideskvaadinui.services.MangaService;
 import online.hatsunemiku.tachideskvaadinui.services.SettingsService;
+import online.hatsunemiku.tachideskvaadinui.utils.ImageUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.util.function.Tuple2;
 
 /**
  * StripReader is a class that extends the {@link Reader} class and provides functionality for
  * displaying manga pages in a strip/vertical format.
+ *
+ * <p>Every page has a slot in the strip. Long chapters, e.g. webtoons, are virtualized: only the
+ * slots around the current page contain an image, the others keep the size of their page, so the
+ * scroll position doesn't change. Images leaving the window are reused for pages entering it.
  */
 public class StripReader extends Reader {
 
   private static final Logger log = LoggerFactory.getLogger(StripReader.class);
+
+  /** Chapters with more pages only show the pages around the current page. */
+  private static final int VIRTUALIZATION_THRESHOLD = 40;
+
+  /** The number of pages before and after the current page that show their image. */
+  private static final int WINDOW_RADIUS = 4;
+
+  /** The number of pages whose height decides the threshold of the observer. */
+  private static final int THRESHOLD_PAGES = 2;
+
   private int currentPageIndex = -1;
-  private List<Image> pages = new ArrayList<>();
+  private List<Div> pages = new ArrayList<>();
+  private List<String> pageUrls = List.of();
+  private boolean virtualized;
+  private double observerThreshold;
+
+  /** The images shown by the slots by the index of their page. */
+  private final Map<Integer, Image> shownImages = new HashMap<>();
+
+  /** Images removed from their slot, which are reused before new ones are created. */
+  private final Deque<Image> imagePool = new ArrayDeque<>();
+
+  /** The known sizes of the pages by their index, read from their header or their loaded image. */
+  private final Map<Integer, Page> pageSizes = new HashMap<>();
 
   /**
    * Constructs a {@link StripReader} object.
@@ -47,32 +81,251 @@ public class StripReader extends Reader {
   public StripReader(Chapter chapter, MangaService mangaService, SettingsService settingsService) {
     super(chapter, mangaService, settingsService);
     addClassName("strip-reader");
-    var chapters = mangaService.getChapterPages(chapter.getId());
 
-    // get height of first and second image
+    UI ui = getUI().orElseGet(UI::getCurrent);
+
+    if (ui == null) {
+      throw new IllegalStateException("No UI available");
+    }
+
+    loadChapter();
+
+    // long chapters are mostly webtoons, whose pages are higher than the screen
+    observeStrip(ui, virtualized ? 0.05 : 0.6);
+
+    // the sizes are read from the headers of the pages, so the pages don't have to be downloaded
+    Disposable sizeSubscription =
+        mangaService
+            .getPageSizesAsync(chapter.getId())
+            .onErrorResume(
+                e -> {
+                  log.error("Couldn't read the sizes of the pages", e);
+                  return Flux.empty();
+                })
+            .index()
+            .bufferTimeout(16, Duration.ofMillis(200))
+            .subscribe(sizes -> ui.access(() -> applySizes(ui, sizes)));
+
+    addDetachListener(e -> sizeSubscription.dispose());
+
+    addMangaPageLoadListener(
+        e -> {
+          int index = e.getPageIndex();
+
+          if (virtualized && !pageSizes.containsKey(index) && index < pages.size()) {
+            setSize(index, new Page(pageUrls.get(index), e.getWidth(), e.getHeight()));
+          }
+        });
+
+    addMangaPageViewListener(
+        e -> {
+          currentPageIndex = e.getPageIndex();
+
+          boolean fromClient = e.isFromClient();
+
+          if (virtualized) {
+            updateWindow(currentPageIndex);
+          }
+
+          var event = new ReaderPageIndexChangeEvent(this, fromClient, currentPageIndex);
+          fireEvent(event);
+
+          if (currentPageIndex == pages.size() - 1) {
+            sendReachEndEvent();
+          }
+        });
+  }
+
+  @Override
+  protected void loadChapter() {
+    Div container = new Div();
+    container.addClassName("page-container");
+    int chapterId = chapter.getId();
+
+    var images = mangaService.getChapterPages(chapterId);
+
+    List<Div> pages = new ArrayList<>();
+
+    for (int i = 0; i < images.size(); i++) {
+      Div imgContainer = new Div();
+      imgContainer.addClassName("image-container");
+      imgContainer.getElement().setAttribute("data-page-index", String.valueOf(i));
+
+      pages.add(imgContainer);
+      container.add(imgContainer);
+    }
+
+    this.pages = pages;
+    this.pageUrls = List.copyOf(images);
+    this.virtualized = images.size() > VIRTUALIZATION_THRESHOLD;
+
+    if (virtualized) {
+      addClassName("virtualized");
+    }
+
+    updateWindow(0);
+
+    add(container);
+  }
+
+  /**
+   * Shows the images of the pages around a page and removes the images of the other pages. Chapters
+   * that aren't virtualized show all images.
+   *
+   * @param pageIndex the index of the page in the middle of the window
+   */
+  private void updateWindow(int pageIndex) {
+    int first = 0;
+    int last = pages.size() - 1;
+
+    if (virtualized) {
+      first = Math.max(first, pageIndex - WINDOW_RADIUS);
+      last = Math.min(last, pageIndex + WINDOW_RADIUS);
+    }
+
+    Page placeholder = null;
+    var iterator = shownImages.entrySet().iterator();
+
+    while (iterator.hasNext()) {
+      var entry = iterator.next();
+      int index = entry.getKey();
+
+      if (index >= first && index <= last) {
+        continue;
+      }
+
+      // pages whose image hasn't loaded yet get the size of a typical page of the chapter
+      if (!pageSizes.containsKey(index)) {
+        placeholder = placeholder == null ? getMedianSize() : placeholder;
+
+        if (placeholder != null) {
+          setSlotSize(index, placeholder);
+        }
+      }
+
+      Image image = entry.getValue();
+      image.removeFromParent();
+      imagePool.push(image);
+      iterator.remove();
+    }
+
+    for (int i = first; i <= last; i++) {
+      if (shownImages.containsKey(i)) {
+        continue;
+      }
+
+      Image image = imagePool.isEmpty() ? new Image() : imagePool.pop();
+      image.setSrc(ImageUtils.getImageUrl(pageUrls.get(i)));
+      image.setAlt("Page %d".formatted(i));
+      image.addClassName("manga-page");
+
+      pages.get(i).add(image);
+      shownImages.put(i, image);
+    }
+  }
+
+  /**
+   * Reserves the space of the pages whose size was read. Once the first pages are known, the
+   * threshold of the observer is adjusted to their height.
+   *
+   * @param ui the {@link UI} the reader belongs to
+   * @param sizes the read {@link Page pages} with their index in the chapter
+   */
+  private void applySizes(UI ui, List<Tuple2<Long, Page>> sizes) {
+    if (!isAttached()) {
+      return;
+    }
+
+    boolean thresholdPagesRead = false;
+
+    for (var size : sizes) {
+      int index = size.getT1().intValue();
+      Page page = size.getT2();
+
+      thresholdPagesRead |= index == THRESHOLD_PAGES - 1 || index == pages.size() - 1;
 
-    int imgHeight;
-    var firstImgUrl = chapters.getFirst();
+      if (index >= pages.size() || page.isUnknown()) {
+        continue;
+      }
+
+      // keeps the strip from jumping while the pages load
+      if (virtualized) {
+        setSize(index, page);
+      } else {
+        Element image = shownImages.get(index).getElement();
+        image.setAttribute("width", String.valueOf(page.width()));
+        image.setAttribute("height", String.valueOf(page.height()));
+      }
+    }
+
+    if (thresholdPagesRead) {
+      int higher = getFirstPagesHeight();
+      int imgHeight = higher == -1 ? 10000 : higher;
 
-    if (chapters.size() < 2) {
-      var tempHeight = getImageHeightFromUrl(firstImgUrl);
+      // 60 % for manga pages - typically shorter e.g. less than 2000px in height
+      // 5 % for manhwa pages - typically longer e.g. more than 2000px in height
+      double ratio = imgHeight < 2000 ? 0.6 : 0.05;
 
-      imgHeight = tempHeight == -1 ? 10000 : tempHeight;
-    } else {
-      var secondImgUrl = chapters.get(1);
+      if (ratio != observerThreshold) {
+        observeStrip(ui, ratio);
+      }
+    }
+  }
 
-      var firstHeight = getImageHeightFromUrl(firstImgUrl);
-      var secondHeight = getImageHeightFromUrl(secondImgUrl);
+  /** Retrieves the height of the highest of the first pages, or -1 if none of them is known. */
+  private int getFirstPagesHeight() {
+    int higher = -1;
 
-      int higher = Math.max(firstHeight, secondHeight);
+    for (int i = 0; i < THRESHOLD_PAGES; i++) {
+      Page page = pageSizes.get(i);
 
-      imgHeight = higher == -1 ? 10000 : higher;
+      if (page != null) {
+        higher = Math.max(higher, page.height());
+      }
     }
 
-    // 60 % for manga pages - typically shorter e.g. less than 2000px in height
-    // 5 % for manhwa pages - typically longer e.g. more than 2000px in height
+    return higher;
+  }
+
+  /** Retrieves the size of the page with the median aspect ratio, or null if no size is known. */
+  private Page getMedianSize() {
+    if (pageSizes.isEmpty()) {
+      return null;
+    }
 
-    double ratio = imgHeight < 2000 ? 0.6 : 0.05;
+    List<Page> sorted = new ArrayList<>(pageSizes.values());
+    sorted.sort(Comparator.comparingDouble(page -> (double) page.height() / page.width()));
+
+    return sorted.get(sorted.size() / 2);
+  }
+
+  /**
+   * Stores the size of a page and reserves its space, so its image can be removed without moving
+   * the strip.
+   */
+  private void setSize(int index, Page page) {
+    pageSizes.put(index, page);
+    setSlotSize(index, page);
+  }
+
+  private void setSlotSize(int index, Page page) {
+    // the slot keeps the size of the page while it doesn't show the image, see the CSS
+    pages
+        .get(index)
+        .getStyle()
+        .set("--page-width", String.valueOf(page.width()))
+        .set("--page-height", String.valueOf(page.height()));
+  }
+
+  /**
+   * Starts observing which page is viewed, replacing the previous observer, and reports the size of
+   * pages once their image has loaded.
+   *
+   * @param ui the {@link UI} the reader belongs to
+   * @param ratio the part of a page that has to be visible to count as viewed
+   */
+  private void observeStrip(UI ui, double ratio) {
+    observerThreshold = ratio;
 
     // language=JavaScript
     String jsObserver =
@@ -104,76 +357,40 @@ public class StripReader extends Reader {
                    threshold: $0
                });
 
-               var pages = document.querySelectorAll('.manga-page');
+               if ($1.stripObserver) {
+                   $1.stripObserver.disconnect();
+               } else {
+                   // load events don't bubble, so they are caught on their way down
+                   $1.addEventListener('load', e => {
+                       const page = e.target.closest('.image-container');
+
+                       if (!page || !e.target.naturalWidth) {
+                           return;
+                       }
+
+                       page.dispatchEvent(new CustomEvent('manga-page-load', {
+                           detail: {
+                               pageIndex: page.getAttribute('data-page-index'),
+                               width: e.target.naturalWidth,
+                               height: e.target.naturalHeight
+                           },
+                           bubbles: true
+                       }));
+                   }, true);
+               }
+
+               $1.stripObserver = observer;
+
+               var pages = $1.querySelectorAll('.image-container');
 
                pages.forEach(page => {
                    observer.observe(page);
                });
             """;
 
-    UI ui = getUI().orElseGet(UI::getCurrent);
-
-    if (ui == null) {
-      throw new IllegalStateException("No UI available");
-    }
-
-    var pending = ui.getPage().executeJs(jsObserver, ratio);
-
-    loadChapter();
+    var pending = ui.getPage().executeJs(jsObserver, ratio, getElement());
 
     pending.then(result -> log.info("Strip observer loaded"));
-
-    addMangaPageViewListener(
-        e -> {
-          currentPageIndex = e.getPageIndex();
-
-          boolean fromClient = e.isFromClient();
-
-          var event = new ReaderPageIndexChangeEvent(this, fromClient, currentPageIndex);
-          fireEvent(event);
-
-          if (currentPageIndex == pages.size() - 1) {
-            sendReachEndEvent();
-          }
-        });
-  }
-
-  @Override
-  protected void loadChapter() {
-    Div container = new Div();
-    container.addClassName("page-container");
-    int chapterId = chapter.getId();
-
-    var images = mangaService.getChapterPages(chapterId);
-
-    var baseUrl = settingsService.getSettings().getUrl();
-
-    List<Image> pages = new ArrayList<>();
-
-    for (int i = 0; i < images.size(); i++) {
-      var url = images.get(i);
-      var completeUrl = baseUrl + url;
-
-      String altText = "Page %d".formatted(i);
-
-      Image image = new Image(completeUrl, altText);
-
-      image.getElement().setAttribute("data-page-index", String.valueOf(i));
-
-      image.addClassName("manga-page");
-
-      Div imgContainer = new Div();
-      imgContainer.addClassName("image-container");
-
-      pages.add(image);
-
-      imgContainer.add(image);
-      container.add(imgContainer);
-    }
-
-    this.pages = pages;
-
-    add(container);
   }
 
   @Override
@@ -196,6 +413,10 @@ public class StripReader extends Reader {
       return;
     }
 
+    if (virtualized) {
+      updateWindow(index);
+    }
+
     ScrollOptions options = new ScrollOptions();
     options.setBehavior(ScrollOptions.Behavior.SMOOTH);
     options.setBlock(ScrollOptions.Alignment.START);
@@ -227,29 +448,13 @@ public class StripReader extends Reader {
   }
 
   /**
-   * Reads the Image from a URL and returns its height or -1 if it couldn't be determined.
+   * Adds a listener for the {@link MangaPageLoadEvent}
    *
-   * @param url the partial URL of the image to be read. The base URL will be prepended to this URL.
-   * @return the height of the image or -1 if it couldn't be determined.
+   * @param listener the listener to be added
+   * @return a registration object that can be used to remove the listener
    */
-  private int getImageHeightFromUrl(String url) {
-    var baseUrl = settingsService.getSettings().getUrl();
-
-    var fullUrl = baseUrl + url;
-
-    try {
-      URL imageUrl = new URI(fullUrl).toURL();
-
-      BufferedImage image = ImageIO.read(imageUrl);
-
-      if (image == null) {
-        return -1;
-      }
-
-      return image.getHeight();
-    } catch (Exception e) {
-      log.error("Error getting image height from URL", e);
-      return -1;
-    }
+  public Registration addMangaPageLoadListener(
+      ComponentEventListener<MangaPageLoadEvent> listener) {
+    return addListener(MangaPageLoadEvent.class, listener);
   }
 }
@@ -8,7 +8,6 @@ package online.hatsunemiku.tachideskvaadinui.component.scroller;
 
 import com.vaadin.flow.component.dependency.CssImport;
 import com.vaadin.flow.component.html.Div;
-import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import online.hatsunemiku.tachideskvaadinui.component.items.ExtensionItem;
@@ -28,6 +27,11 @@ public class ExtensionScroller extends EndScroller {
   private String search;
   private final SettingsService settingsService;
 
+  /** The snapshot of the {@link ExtensionService} the sorted extensions were created from. */
+  private List<Extension> snapshot;
+
+  private List<Extension> sortedExtensions;
+
   public ExtensionScroller(ExtensionService service, SettingsService settingsService) {
     super();
     this.service = service;
@@ -38,8 +42,7 @@ public class ExtensionScroller extends EndScroller {
 
     Settings settings = settingsService.getSettings();
 
-    List<Extension> extensions = new ArrayList<>(service.getExtensions());
-    extensions.sort((ext1, ext2) -> getComparator().compare(ext1, ext2));
+    List<Extension> extensions = getSortedExtensions();
 
     maxPage = extensions.size() / LIST_SIZE;
 
@@ -48,7 +51,7 @@ public class ExtensionScroller extends EndScroller {
         e -> {
           if (page < maxPage) {
             page++;
-            addExtensions(extensions, settings);
+            addExtensions(sortedExtensions, settings);
           }
         });
   }
@@ -85,18 +88,34 @@ public class ExtensionScroller extends EndScroller {
     this.search = value;
     content.removeAll();
     page = 0;
-    var extensions = service.getExtensions();
     var settings = settingsService.getSettings();
-    addExtensions(extensions, settings);
+    addExtensions(getSortedExtensions(), settings);
   }
 
   public void reset() {
     content.removeAll();
     page = 0;
     this.search = null;
-    var extensions = service.getExtensions();
     var settings = settingsService.getSettings();
-    addExtensions(extensions, settings);
+    addExtensions(getSortedExtensions(), settings);
+  }
+
+  /**
+   * Retrieves the extensions in the order of this scroller. The extensions are served from the
+   * snapshot of the {@link ExtensionService}, and are only sorted again if the snapshot changed,
+   * e.g. because an extension was installed.
+   *
+   * @return the sorted extensions
+   */
+  private List<Extension> getSortedExtensions() {
+    List<Extension> current = service.getExtensions();
+
+    if (current != snapshot) {
+      snapshot = current;
+      sortedExtensions = current.stream().sorted(getComparator()).toList();
+    }
+
+    return sortedExtensions;
   }
 
   private List<Extension> filterExtensions(String search, List<Extension> extensions) {
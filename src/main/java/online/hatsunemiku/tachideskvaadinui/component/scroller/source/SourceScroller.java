@@ -12,7 +12,6 @@ import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.dependency.CssImport;
 import com.vaadin.flow.component.html.Div;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import online.hatsunemiku.tachideskvaadinui.component.events.source.LanguageListChangeEvent;
 import online.hatsunemiku.tachideskvaadinui.component.events.source.SourceFilterUpdateEvent;
@@ -23,6 +22,7 @@ import online.hatsunemiku.tachideskvaadinui.component.items.SourceItem;
 import online.hatsunemiku.tachideskvaadinui.component.scroller.EndScroller;
 import online.hatsunemiku.tachideskvaadinui.data.settings.Settings;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Source;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.SourceCatalog;
 import online.hatsunemiku.tachideskvaadinui.services.SettingsService;
 import online.hatsunemiku.tachideskvaadinui.services.SourceService;
 import online.hatsunemiku.tachideskvaadinui.view.ServerStartView;
@@ -30,7 +30,7 @@ import online.hatsunemiku.tachideskvaadinui.view.ServerStartView;
 @CssImport("./css/components/source-scroller.css")
 public class SourceScroller extends EndScroller {
 
-  private final SourceService service;
+  private final SourceCatalog catalog;
   private final List<List<Source>> filteredSources;
   private final SettingsService settingsService;
   private List<String> languages;
@@ -46,31 +46,31 @@ public class SourceScroller extends EndScroller {
     super();
     setClassName("source-scroller");
 
-    this.service = service;
     this.settingsService = settingsService;
 
-    List<Source> sourceList;
+    SourceCatalog sourceCatalog;
     try {
-      sourceList = service.getSources();
+      sourceCatalog = service.getCatalog();
     } catch (Exception e) {
       getUI().ifPresent(ui -> ui.access(() -> ui.navigate(ServerStartView.class)));
+      this.catalog = SourceCatalog.EMPTY;
       this.filteredSources = new ArrayList<>();
       this.content = new Div();
       setLanguages(List.of());
       return;
     }
-    List<Source> sources = new ArrayList<>(sourceList);
 
-    setLanguages(getLanguages(sources));
+    // the catalog is filtered in memory, so changing the filters doesn't request the sources again
+    this.catalog = sourceCatalog;
+
+    setLanguages(getLanguages());
 
     this.content = new Div();
     content.setClassName("source-scroller-content");
     this.filteredSources = new ArrayList<>();
 
-    sort(sources);
-
     for (String language : languages) {
-      List<Source> filtered = filterLang(language, sources);
+      List<Source> filtered = catalog.getSources(language);
 
       if (filtered.isEmpty()) {
         continue;
@@ -92,22 +92,6 @@ public class SourceScroller extends EndScroller {
         UI.getCurrent(), SourceLangFilterUpdateEvent.class, this::onComponentEvent);
   }
 
-  private void sort(List<Source> sources) {
-    sources.sort(Comparator.comparing(Source::getName));
-  }
-
-  private Comparator<String> getLangComp() {
-    return (o1, o2) -> {
-      if (o1.equals("localsourcelang")) {
-        return -1;
-      }
-      if (o2.equals("localsourcelang")) {
-        return 1;
-      }
-      return o1.compareTo(o2);
-    };
-  }
-
   private void addNextContent(Settings settings) {
     List<BlurryItem> items = new ArrayList<>();
     getNextContent(settings, items);
@@ -179,17 +163,13 @@ public class SourceScroller extends EndScroller {
     getNextContent(settings, subList);
   }
 
-  private List<String> getLanguages(List<Source> sources) {
+  private List<String> getLanguages() {
 
     if (filterLanguage != null && !filterLanguage.isBlank()) {
       return List.of(filterLanguage);
     }
 
-    return sources.parallelStream().map(Source::getLang).distinct().sorted(getLangComp()).toList();
-  }
-
-  private List<Source> filterLang(String lang, List<Source> sources) {
-    return sources.parallelStream().filter(source -> source.getLang().equals(lang)).toList();
+    return catalog.getLanguages();
   }
 
   private List<Source> filterSources(String search, List<Source> sources) {
@@ -197,8 +177,11 @@ public class SourceScroller extends EndScroller {
       return sources;
     }
 
-    return sources.parallelStream()
-        .filter(source -> source.getName().toLowerCase().contains(search.toLowerCase()))
+    String lowerSearch = search.toLowerCase();
+
+    return sources.stream()
+        .filter(source -> source.getName() != null)
+        .filter(source -> source.getName().toLowerCase().contains(lowerSearch))
         .toList();
   }
 
@@ -222,17 +205,9 @@ public class SourceScroller extends EndScroller {
     languageIndex = 0;
     isDone = false;
 
-    List<Source> sources = new ArrayList<>(service.getSources());
-
-    sort(sources);
-
     this.filterText = event.getFilterText();
 
-    if (!event.getFilterText().isBlank()) {
-      sources = filterSources(event.getFilterText(), sources);
-    }
-
-    updateSources(sources);
+    updateSources();
   }
 
   public void onComponentEvent(SourceLangFilterUpdateEvent event) {
@@ -241,46 +216,37 @@ public class SourceScroller extends EndScroller {
     languageIndex = 0;
     isDone = false;
 
-    List<Source> sources = new ArrayList<>(service.getSources());
-
-    sort(sources);
-
     if (event.getFilterLanguage() == null) {
       return;
     }
 
     this.filterLanguage = event.getFilterLanguage();
 
-    updateSources(sources);
+    updateSources();
 
     Settings settings = settingsService.getSettings();
 
     addNextContent(settings);
   }
 
-  private void updateSources(List<Source> sources) {
-
-    if (!filterText.isBlank()) {
-      sources = filterSources(filterText, sources);
-    }
-
-    this.languages = getLanguages(sources);
+  private void updateSources() {
+    List<String> matchingLanguages = new ArrayList<>();
     filteredSources.clear();
 
-    for (String language : languages) {
-      if (!filterLanguage.isBlank() && !language.equals(filterLanguage)) {
-        continue;
-      }
-
-      List<Source> filtered = filterLang(language, sources);
+    for (String language : getLanguages()) {
+      List<Source> filtered = filterSources(filterText, catalog.getSources(language));
 
       if (filtered.isEmpty()) {
         continue;
       }
 
+      // only languages with matching sources are listed
+      matchingLanguages.add(language);
       filteredSources.add(filtered);
     }
 
+    this.languages = matchingLanguages;
+
     Settings settings = settingsService.getSettings();
 
     addNextContent(settings);
@@ -6,26 +6,293 @@
 
 package online.hatsunemiku.tachideskvaadinui.config;
 
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.Path;
 import java.time.Duration;
-import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Chapter;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Manga;
+import online.hatsunemiku.tachideskvaadinui.services.cache.DiskCacheStore;
+import online.hatsunemiku.tachideskvaadinui.services.cache.TieredCacheManager;
+import online.hatsunemiku.tachideskvaadinui.services.cache.TieredCacheManager.DiskTier;
+import online.hatsunemiku.tachideskvaadinui.services.client.MangaClient;
+import online.hatsunemiku.tachideskvaadinui.utils.PathUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
 
+/**
+ * Configures the Caffeine caches used by {@code @Cacheable}. Every cache can have its own {@link
+ * CaffeineSpec} under {@code vaaui.cache.specs.<name>}, caches without one use {@code
+ * vaaui.cache.default-spec}.
+ *
+ * <ul>
+ *   <li>{@code maximumWeight} is measured in bytes, estimated from the strings, numbers and
+ *       collections of an entry. It's roughly the size of the JSON representation of the entry.
+ *   <li>{@code refreshAfterWrite} reloads stale entries in the background, while the old entry is
+ *       still returned. It's only supported by caches with a reload function.
+ * </ul>
+ *
+ * <p>Statistics are recorded for all caches and published to Micrometer by Spring Boot as {@code
+ * cache.gets}, {@code cache.puts}, {@code cache.evictions} and so on, tagged with the cache name.
+ *
+ * <p>The manga and chapter caches are also written to the disk, if {@code vaaui.cache.disk.enabled}
+ * is set, so they are still filled after a restart. See {@link TieredCacheManager}.
+ */
+@Slf4j
 @Configuration
 @EnableCaching
-public class CacheConfig implements CacheManagerCustomizer<CaffeineCacheManager> {
+public class CacheConfig {
+
+  /** Increase when {@link Manga} or {@link Chapter} change, to discard the values on the disk. */
+  private static final int DISK_CACHE_VERSION = 1;
+
+  private static final Map<String, Class<?>> DISK_CACHE_TYPES =
+      Map.of("manga", Manga.class, "chapter", Chapter.class);
+
+  /** How deep nested objects are weighed, which also stops at cyclic references. */
+  private static final int MAX_WEIGHT_DEPTH = 4;
+
+  /** The instance fields of the weighed classes, so they are only looked up once per class. */
+  private static final ClassValue<List<Field>> WEIGHED_FIELDS =
+      new ClassValue<>() {
+        @Override
+        protected List<Field> computeValue(Class<?> type) {
+          List<Field> fields = new ArrayList<>();
+
+          for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+              if (!Modifier.isStatic(field.getModifiers()) && field.trySetAccessible()) {
+                fields.add(field);
+              }
+            }
+          }
+
+          return List.copyOf(fields);
+        }
+      };
+
+  private final String defaultSpec;
+  private final Map<String, String> specs;
+  private final ObjectMapper mapper;
+  private final Map<String, Function<Object, Mono<?>>> reloaders;
+  private final Environment env;
+
+  /**
+   * Creates a new {@link CacheConfig}.
+   *
+   * @param defaultSpec the spec of caches without their own spec
+   * @param env the {@link Environment} the specs of the caches are read from
+   * @param mapper the {@link ObjectMapper} entries are written to the disk with
+   * @param mangaClient provides the {@link MangaClient} used to refresh entries, lazily to not
+   *     create the client while the cache manager is created
+   */
+  public CacheConfig(
+      @Value("${vaaui.cache.default-spec:maximumSize=1000,expireAfterWrite=10m}")
+          String defaultSpec,
+      Environment env,
+      ObjectMapper mapper,
+      ObjectProvider<MangaClient> mangaClient) {
+    this.defaultSpec = defaultSpec;
+    this.specs =
+        Binder.get(env)
+            .bind("vaaui.cache.specs", Bindable.mapOf(String.class, String.class))
+            .orElse(Map.of());
+    // the cached objects have getters, which fail for fields that weren't requested from the server
+    this.mapper =
+        mapper
+            .copy()
+            .setVisibility(PropertyAccessor.ALL, Visibility.NONE)
+            .setVisibility(PropertyAccessor.FIELD, Visibility.ANY);
+    this.env = env;
+    this.reloaders =
+        Map.of(
+            "manga",
+            // a read of the stored manga, as fetching restored manga hits their sources
+            key -> mangaClient.getObject().getStoredManga(((Number) key).longValue()),
+            "chapter",
+            key ->
+                mangaClient
+                    .getObject()
+                    .getChapter(((Number) key).longValue())
+                    // same condition as the @Cacheable of MangaService#getChapter
+                    .filter(chapter -> chapter.getPageCount() != -1));
+  }
 
-  @Override
-  public void customize(CaffeineCacheManager cacheManager) {
+  /**
+   * Creates the {@link CaffeineCacheManager} used by {@code @Cacheable}.
+   *
+   * @param diskEnabled whether the manga and chapter caches are written to the disk
+   * @param diskMaxSize the maximum size of the file of each cache on the disk
+   * @param diskMaxAge the maximum age of entries restored from the disk
+   * @return the configured {@link CaffeineCacheManager}
+   */
+  @Bean
+  public CaffeineCacheManager cacheManager(
+      @Value("${vaaui.cache.disk.enabled:true}") boolean diskEnabled,
+      @Value("${vaaui.cache.disk.max-size:32MB}") DataSize diskMaxSize,
+      @Value("${vaaui.cache.disk.max-age:30d}") Duration diskMaxAge) {
+    Map<String, DiskTier> diskTiers =
+        diskEnabled ? openDiskTiers(diskMaxSize, diskMaxAge) : Map.of();
+
+    var cacheManager = new TieredCacheManager(diskTiers, mapper);
     cacheManager.setAllowNullValues(false);
+    cacheManager.setCaffeineSpec(CaffeineSpec.parse(withStats(defaultSpec)));
+
+    for (var entry : specs.entrySet()) {
+      String name = entry.getKey();
+      String spec = entry.getValue();
+
+      log.debug("Using spec {} for cache {}", spec, name);
+      cacheManager.registerCustomCache(name, buildCache(name, spec));
+    }
+
+    return cacheManager;
+  }
+
+  private Map<String, DiskTier> openDiskTiers(DataSize maxSize, Duration maxAge) {
+    Path cacheDir = PathUtils.getResolvedProjectPath(env).resolve("cache");
+    Map<String, DiskTier> tiers = new HashMap<>();
+    int size = (int) Math.min(maxSize.toBytes(), Integer.MAX_VALUE);
+
+    for (var entry : DISK_CACHE_TYPES.entrySet()) {
+      String name = entry.getKey();
+      Path file = cacheDir.resolve(name + ".cache");
+
+      try {
+        var store = DiskCacheStore.open(file, size, DISK_CACHE_VERSION);
+        tiers.put(name, new DiskTier(store, entry.getValue(), reloaders.get(name), maxAge));
+      } catch (IOException e) {
+        // the cache still works in memory
+        log.warn("Couldn't open disk cache {}", file, e);
+      }
+    }
+
+    return tiers;
+  }
+
+  private com.github.benmanes.caffeine.cache.Cache<Object, Object> buildCache(
+      String name, String spec) {
+    Caffeine<Object, Object> builder = Caffeine.from(withStats(spec));
+
+    if (spec.contains("maximumWeight")) {
+      builder.weigher(CacheConfig::weigh);
+    }
+
+    if (!spec.contains("refreshAfterWrite")) {
+      return builder.build();
+    }
+
+    var reloader = reloaders.get(name);
+
+    if (reloader == null) {
+      throw new IllegalStateException(
+          "Cache " + name + " uses refreshAfterWrite, but doesn't support reloading entries");
+    }
+
+    return builder.build(new ReloadingLoader(reloader));
+  }
+
+  private static String withStats(String spec) {
+    return spec.contains("recordStats") ? spec : spec + ",recordStats";
+  }
+
+  private static int weigh(Object key, Object value) {
+    return (int) Math.min(Integer.MAX_VALUE, estimateSize(value, 0));
+  }
+
+  /**
+   * Estimates the size of a value in bytes without serializing it. Strings count with their
+   * length, other scalars with a constant, and objects and collections with the sum of their
+   * contents.
+   */
+  private static long estimateSize(Object value, int depth) {
+    if (value == null) {
+      return 4;
+    }
+
+    if (value instanceof CharSequence text) {
+      return text.length() + 2L;
+    }
+
+    if (value instanceof Number || value instanceof Boolean || value instanceof Enum<?>) {
+      return 8;
+    }
+
+    if (depth >= MAX_WEIGHT_DEPTH) {
+      return 16;
+    }
+
+    long size = 2;
+
+    if (value instanceof Collection<?> collection) {
+      for (Object element : collection) {
+        size += estimateSize(element, depth + 1) + 1;
+      }
+    } else if (value instanceof Map<?, ?> map) {
+      for (var entry : map.entrySet()) {
+        size += estimateSize(entry.getKey(), depth + 1) + estimateSize(entry.getValue(), depth + 1);
+      }
+    } else if (value.getClass().isArray()) {
+      int length = Array.getLength(value);
+
+      for (int i = 0; i < length; i++) {
+        size += estimateSize(Array.get(value, i), depth + 1) + 1;
+      }
+    } else {
+      for (Field field : WEIGHED_FIELDS.get(value.getClass())) {
+        try {
+          size += field.getName().length() + estimateSize(field.get(value), depth + 1) + 4;
+        } catch (IllegalAccessException e) {
+          size += 16;
+        }
+      }
+    }
+
+    return size;
+  }
 
-    Duration expiry = Duration.ofMinutes(10);
+  /**
+   * Reloads stale entries without blocking. Missing entries aren't loaded, so that a lookup of the
+   * cache still falls through to the cached method, e.g. to honor its {@code unless} condition.
+   */
+  private record ReloadingLoader(Function<Object, Mono<?>> reloader)
+      implements CacheLoader<Object, Object> {
 
-    Caffeine<Object, Object> cache =
-        Caffeine.newBuilder().maximumSize(1000).expireAfterWrite(expiry);
+    @Override
+    public Object load(Object key) {
+      return null;
+    }
 
-    cacheManager.setCaffeine(cache);
+    @Override
+    public CompletableFuture<Object> asyncReload(Object key, Object oldValue, Executor executor) {
+      // an empty result removes the entry, e.g. a chapter whose pages aren't known anymore
+      return reloader.apply(key).cast(Object.class).toFuture();
+    }
   }
 }
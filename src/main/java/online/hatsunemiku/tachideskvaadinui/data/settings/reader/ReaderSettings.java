@@ -15,7 +15,11 @@ public class ReaderSettings {
 
   private ReaderDirection direction;
 
+  /** The number of pages before and after the current page the paged reader keeps loaded. */
+  private int preloadedPages;
+
   public ReaderSettings() {
     this.direction = ReaderDirection.RTL;
+    this.preloadedPages = 2;
   }
 }
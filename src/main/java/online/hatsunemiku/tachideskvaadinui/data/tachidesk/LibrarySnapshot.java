@@ -0,0 +1,32 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.data.tachidesk;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The categories of the library with their manga at a point in time.
+ *
+ * @param version the version of the library the snapshot was taken of, which increases with every
+ *     change to the library
+ * @param categories the categories, sorted by their order
+ * @param manga the manga of each category by the ID of the category
+ */
+public record LibrarySnapshot(
+    long version, List<Category> categories, Map<Integer, List<Manga>> manga) {
+
+  /**
+   * Retrieves the manga of a category.
+   *
+   * @param categoryId the ID of the category
+   * @return the manga of the category, or an empty list if the category isn't part of the snapshot
+   */
+  public List<Manga> getManga(int categoryId) {
+    return manga.getOrDefault(categoryId, List.of());
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.data.tachidesk;
+
+import java.util.List;
+
+/**
+ * The pages of a chapter with their sizes, read from the headers of the images.
+ *
+ * @param chapterId the ID of the chapter
+ * @param pages the pages in reading order
+ */
+public record PageManifest(int chapterId, List<Page> pages) {
+
+  /**
+   * Checks whether the size of every page is known.
+   *
+   * @return {@code true} if no page is {@link Page#isUnknown() unknown}, {@code false} otherwise
+   */
+  public boolean isComplete() {
+    return pages.stream().noneMatch(Page::isUnknown);
+  }
+
+  /**
+   * A page of a chapter.
+   *
+   * @param url the URL of the image relative to the server
+   * @param width the width of the image in pixels, or {@code -1} if it's unknown
+   * @param height the height of the image in pixels, or {@code -1} if it's unknown
+   */
+  public record Page(String url, int width, int height) {
+
+    /**
+     * Creates a page whose size couldn't be read.
+     *
+     * @param url the URL of the image relative to the server
+     * @return the page with an unknown size
+     */
+    public static Page unknown(String url) {
+      return new Page(url, -1, -1);
+    }
+
+    /**
+     * Checks whether the size of the page couldn't be read.
+     *
+     * @return {@code true} if the size is unknown, {@code false} otherwise
+     */
+    public boolean isUnknown() {
+      return width < 0 || height < 0;
+    }
+  }
+}
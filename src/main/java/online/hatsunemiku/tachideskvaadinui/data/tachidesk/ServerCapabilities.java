@@ -0,0 +1,37 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.data.tachidesk;
+
+/**
+ * The features supported by the Suwayomi Server, derived from its version.
+ *
+ * @param version the {@link ServerVersion} of the server
+ */
+public record ServerCapabilities(ServerVersion version) {
+
+  /** The revision which moved unbinding tracks and MyAnimeList tracking to the server. */
+  private static final int SERVER_TRACKING_REVISION = 1510;
+
+  /**
+   * Checks if the server unbinds tracks itself, optionally deleting the remote track, and supports
+   * tracking on MyAnimeList.
+   *
+   * @return {@code true} if the revision of the server is at least 1510, {@code false} otherwise
+   */
+  public boolean supportsServerTracking() {
+    return version.getRevisionNumber() >= SERVER_TRACKING_REVISION;
+  }
+
+  /**
+   * Checks if the server supports syncing the read progress of a manga to its trackers on demand.
+   *
+   * @return {@code true} if the revision of the server is newer than 1510, {@code false} otherwise
+   */
+  public boolean supportsTrackProgress() {
+    return version.getRevisionNumber() > SERVER_TRACKING_REVISION;
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.data.tachidesk;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * All sources of the server with indexes for looking them up without going through the whole list.
+ *
+ * @param sources the sources, sorted by name ignoring case
+ * @param byId the sources by their ID
+ * @param byLanguage the sources of each language, sorted by name ignoring case. The languages are
+ *     sorted alphabetically, except for the language of the local source, which comes first
+ */
+public record SourceCatalog(
+    List<Source> sources, Map<String, Source> byId, Map<String, List<Source>> byLanguage) {
+
+  /** The language of the local source, which is listed before all other languages. */
+  public static final String LOCAL_SOURCE_LANG = "localsourcelang";
+
+  /** An empty catalog, e.g. for a server without any sources. */
+  public static final SourceCatalog EMPTY = of(List.of());
+
+  /**
+   * Creates a catalog of the given sources. Sources without an ID or language can't be looked up
+   * and are left out, sources without a name come last.
+   *
+   * @param sources the sources in any order
+   * @return the {@link SourceCatalog} of the sources
+   */
+  public static SourceCatalog of(Collection<Source> sources) {
+    List<Source> sorted =
+        sources.stream()
+            .filter(source -> source.getId() != null && source.getLang() != null)
+            .sorted(
+                Comparator.comparing(
+                    Source::getName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)))
+            .toList();
+
+    Map<String, Source> byId =
+        sorted.stream()
+            .collect(Collectors.toUnmodifiableMap(Source::getId, Function.identity(), (a, b) -> a));
+
+    Map<String, List<Source>> byLanguage =
+        sorted.stream()
+            .collect(
+                Collectors.groupingBy(
+                    Source::getLang,
+                    () -> new TreeMap<>(languageComparator()),
+                    Collectors.toUnmodifiableList()));
+
+    return new SourceCatalog(
+        sorted, byId, Collections.unmodifiableMap(new LinkedHashMap<>(byLanguage)));
+  }
+
+  /**
+   * Retrieves a source by its ID.
+   *
+   * @param id the ID of the source
+   * @return the {@link Source}, or {@code null} if there's no source with the ID
+   */
+  public Source getSource(String id) {
+    return byId.get(id);
+  }
+
+  /**
+   * Retrieves the sources of a language.
+   *
+   * @param lang the language of the sources
+   * @return the sources of the language sorted by name ignoring case, or an empty list if there are
+   *     none
+   */
+  public List<Source> getSources(String lang) {
+    return byLanguage.getOrDefault(lang, List.of());
+  }
+
+  /**
+   * Retrieves the languages of all sources.
+   *
+   * @return the languages in the order of {@link #byLanguage()}
+   */
+  public List<String> getLanguages() {
+    return List.copyOf(byLanguage.keySet());
+  }
+
+  private static Comparator<String> languageComparator() {
+    return (o1, o2) -> {
+      if (o1.equals(o2)) {
+        return 0;
+      }
+      if (o1.equals(LOCAL_SOURCE_LANG)) {
+        return -1;
+      }
+      if (o2.equals(LOCAL_SOURCE_LANG)) {
+        return 1;
+      }
+      return o1.compareTo(o2);
+    };
+  }
+}
@@ -0,0 +1,22 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.data.tachidesk.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/** Event that is fired after a category was created or deleted. */
+public class CategoryChangeEvent extends ApplicationEvent {
+
+  /**
+   * Creates a new {@link CategoryChangeEvent}.
+   *
+   * @param source the object that published the event
+   */
+  public CategoryChangeEvent(Object source) {
+    super(source);
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.data.tachidesk.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event that is fired after the state of a chapter changed on the server, e.g. because it was read
+ * or downloaded.
+ */
+@Getter
+public class ChapterChangeEvent extends ApplicationEvent {
+
+  /** The ways a chapter can change. */
+  public enum Change {
+    READ,
+    UNREAD,
+    DOWNLOADED,
+    DELETED
+  }
+
+  private final int chapterId;
+  private final int mangaId;
+  private final Change change;
+
+  /**
+   * Creates a new {@link ChapterChangeEvent}.
+   *
+   * @param source the object that published the event
+   * @param chapterId the ID of the changed chapter
+   * @param mangaId the ID of the manga of the chapter, or {@code -1} if it isn't known
+   * @param change the {@link Change} of the chapter
+   */
+  public ChapterChangeEvent(Object source, int chapterId, int mangaId, Change change) {
+    super(source);
+    this.chapterId = chapterId;
+    this.mangaId = mangaId;
+    this.change = change;
+  }
+}
@@ -0,0 +1,41 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.data.tachidesk.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event that is fired after an extension was installed, updated or uninstalled, which changes the
+ * sources available on the server.
+ */
+@Getter
+public class ExtensionChangeEvent extends ApplicationEvent {
+
+  private final String extensionId;
+  private final Change change;
+
+  /**
+   * Creates a new {@link ExtensionChangeEvent}.
+   *
+   * @param source the object that published the event
+   * @param extensionId the package name of the changed extension
+   * @param change the {@link Change} of the extension
+   */
+  public ExtensionChangeEvent(Object source, String extensionId, Change change) {
+    super(source);
+    this.extensionId = extensionId;
+    this.change = change;
+  }
+
+  /** The ways an extension can change. */
+  public enum Change {
+    INSTALLED,
+    UPDATED,
+    UNINSTALLED
+  }
+}
@@ -0,0 +1,31 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.data.tachidesk.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event that is fired after a manga was changed locally, e.g. added to the library or moved to
+ * another category.
+ */
+@Getter
+public class MangaChangeEvent extends ApplicationEvent {
+
+  private final int mangaId;
+
+  /**
+   * Creates a new {@link MangaChangeEvent}.
+   *
+   * @param source the object that published the event
+   * @param mangaId the ID of the changed manga
+   */
+  public MangaChangeEvent(Object source, int mangaId) {
+    super(source);
+    this.mangaId = mangaId;
+  }
+}
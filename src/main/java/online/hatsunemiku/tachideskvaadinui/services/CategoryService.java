@@ -10,24 +10,30 @@ import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Category;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Manga;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.event.CategoryChangeEvent;
 import online.hatsunemiku.tachideskvaadinui.services.client.CategoryClient;
 import org.jetbrains.annotations.Contract;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 /** This class provides methods for interacting with the Tachidesk Category API. */
 @Slf4j
 @Service
 public class CategoryService {
   private final CategoryClient categoryClient;
+  private final ApplicationEventPublisher eventPublisher;
 
   /**
    * Constructs a new instance of {@link CategoryService} with the specified {@link CategoryClient}.
    *
    * @param categoryClient the client used to perform operations related to categories
+   * @param eventPublisher the {@link ApplicationEventPublisher} used to announce changed categories
    */
   @Contract(pure = true)
-  public CategoryService(CategoryClient categoryClient) {
+  public CategoryService(CategoryClient categoryClient, ApplicationEventPublisher eventPublisher) {
     this.categoryClient = categoryClient;
+    this.eventPublisher = eventPublisher;
   }
 
   /**
@@ -37,7 +43,13 @@ public class CategoryService {
    * @return true if the category was created successfully, false otherwise
    */
   public boolean createCategory(String name) {
-    return categoryClient.createCategory(name);
+    boolean created = categoryClient.createCategory(name).block();
+
+    if (created) {
+      eventPublisher.publishEvent(new CategoryChangeEvent(this));
+    }
+
+    return created;
   }
 
   /**
@@ -47,7 +59,13 @@ public class CategoryService {
    * @return true if the category was deleted successfully, false otherwise
    */
   public boolean deleteCategory(int categoryId) {
-    return categoryClient.deleteCategory(categoryId);
+    boolean deleted = categoryClient.deleteCategory(categoryId).block();
+
+    if (deleted) {
+      eventPublisher.publishEvent(new CategoryChangeEvent(this));
+    }
+
+    return deleted;
   }
 
   /**
@@ -58,6 +76,15 @@ public class CategoryService {
    * @throws RuntimeException if an error occurs while retrieving the categories
    */
   public List<Category> getCategories() {
+    return getCategoriesAsync().block();
+  }
+
+  /**
+   * Retrieves a list of categories from the server without blocking.
+   *
+   * @return a {@link Mono} emitting the categories retrieved from the server
+   */
+  public Mono<List<Category>> getCategoriesAsync() {
     return categoryClient.getCategories();
   }
 
@@ -69,6 +96,16 @@ public class CategoryService {
    *     specified category
    */
   public List<Manga> getMangaFromCategory(int categoryId) {
+    return getMangaFromCategoryAsync(categoryId).block();
+  }
+
+  /**
+   * Retrieves a list of manga belonging to a specific category without blocking.
+   *
+   * @param categoryId the ID of the category to retrieve manga from
+   * @return a {@link Mono} emitting the manga of the specified category
+   */
+  public Mono<List<Manga>> getMangaFromCategoryAsync(int categoryId) {
     return categoryClient.getCategoryManga(categoryId);
   }
 }
@@ -0,0 +1,109 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import online.hatsunemiku.tachideskvaadinui.services.cache.ImageCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Loads the next chapter in the background while the current one is read, so switching chapters
+ * doesn't wait for the server.
+ *
+ * <p>Once the reader passes the threshold of the current chapter, the next chapter, its pages and
+ * their sizes are put into the caches of {@link MangaService}, and the first pages are downloaded
+ * into the {@link ImageCache}.
+ */
+@Slf4j
+@Service
+public class ChapterPrefetchService {
+
+  private final MangaService mangaService;
+  private final ImageCache imageCache;
+
+  /** The part of a chapter that has to be read before the next chapter is prefetched. */
+  private final double threshold;
+
+  private final int pageCount;
+
+  /** The chapters prefetched recently, so a chapter isn't prefetched on every page change. */
+  private final Cache<Integer, Boolean> prefetched =
+      Caffeine.newBuilder().maximumSize(1000).expireAfterWrite(Duration.ofMinutes(10)).build();
+
+  /**
+   * Creates a new {@link ChapterPrefetchService}.
+   *
+   * @param mangaService the {@link MangaService} whose caches are filled
+   * @param imageCache the {@link ImageCache} the first pages are downloaded into
+   * @param threshold the part of a chapter that has to be read before the next one is prefetched
+   * @param pageCount the number of pages downloaded of the next chapter
+   */
+  public ChapterPrefetchService(
+      MangaService mangaService,
+      ImageCache imageCache,
+      @Value("${vaaui.reader.prefetch.threshold:0.7}") double threshold,
+      @Value("${vaaui.reader.prefetch.pages:3}") int pageCount) {
+    this.mangaService = mangaService;
+    this.imageCache = imageCache;
+    this.threshold = threshold;
+    this.pageCount = pageCount;
+  }
+
+  /**
+   * Checks whether the reader has read enough of a chapter to prefetch the next one.
+   *
+   * @param pageIndex the index of the page the reader is on
+   * @param chapterPageCount the number of pages of the chapter
+   * @return {@code true} if the next chapter should be prefetched, {@code false} otherwise
+   */
+  public boolean isPastThreshold(int pageIndex, int chapterPageCount) {
+    if (chapterPageCount <= 0) {
+      return false;
+    }
+
+    return pageIndex + 1 >= Math.ceil(chapterPageCount * threshold);
+  }
+
+  /**
+   * Prefetches a chapter in the background. Chapters prefetched in the last minutes are skipped.
+   *
+   * @param chapterId the ID of the chapter
+   */
+  public void prefetch(int chapterId) {
+    if (prefetched.asMap().putIfAbsent(chapterId, true) != null) {
+      return;
+    }
+
+    log.debug("Prefetching chapter {}", chapterId);
+
+    Mono<Void> pages =
+        mangaService
+            .getChapterPagesAsync(chapterId)
+            .flatMapMany(urls -> Flux.fromIterable(urls).take(pageCount))
+            .flatMapSequential(imageCache::get)
+            .then();
+
+    Mono.when(
+            mangaService.getChapterAsync(chapterId),
+            mangaService.getPageManifestAsync(chapterId),
+            pages)
+        .subscribe(
+            null,
+            e -> {
+              // allows the next page change to try again
+              prefetched.invalidate(chapterId);
+              log.warn("Couldn't prefetch chapter {}", chapterId, e);
+            },
+            () -> log.debug("Prefetched chapter {}", chapterId));
+  }
+}
@@ -6,25 +6,183 @@
 
 package online.hatsunemiku.tachideskvaadinui.services;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.UnaryOperator;
+import lombok.extern.slf4j.Slf4j;
+import online.hatsunemiku.tachideskvaadinui.data.settings.event.UrlChangeEvent;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Extension;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.event.ExtensionChangeEvent;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.event.ExtensionChangeEvent.Change;
 import online.hatsunemiku.tachideskvaadinui.services.client.ExtensionClient;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
+/**
+ * Manages the extensions of the server.
+ *
+ * <p>Fetching the extensions makes the server query the remote extension repositories, so the
+ * extensions are kept as a snapshot, which is served right away. Once the snapshot is older than
+ * the refresh interval, it's still served, but refreshed in the background. Installing, updating
+ * and uninstalling an extension patches the snapshot instead of fetching all extensions again.
+ */
+@Slf4j
 @Service
 public class ExtensionService {
 
   private final ExtensionClient extensionClient;
+  private final ApplicationEventPublisher eventPublisher;
+  private final Duration refreshInterval;
+
+  private Snapshot snapshot;
+
+  /** The number of patches applied, used to discard refreshes that started before a patch. */
+  private long patchCount;
 
+  private boolean refreshing;
+
+  /**
+   * Creates a new {@link ExtensionService}.
+   *
+   * @param extensionClient the {@link ExtensionClient} used to communicate with the server
+   * @param eventPublisher the {@link ApplicationEventPublisher} used to announce changed extensions
+   * @param refreshInterval the age after which the snapshot of the extensions is refreshed
+   */
   @Autowired
-  public ExtensionService(ExtensionClient extensionClient) {
+  public ExtensionService(
+      ExtensionClient extensionClient,
+      ApplicationEventPublisher eventPublisher,
+      @Value("${vaaui.extension.catalog-refresh-interval:5m}") Duration refreshInterval) {
     this.extensionClient = extensionClient;
+    this.eventPublisher = eventPublisher;
+    this.refreshInterval = refreshInterval;
   }
 
   public List<Extension> getExtensions() {
-    var extensions = extensionClient.getExtensions();
+    return getExtensionsAsync().block();
+  }
+
+  /**
+   * Retrieves all extensions without blocking. Installed extensions come first, followed by
+   * extensions with updates, each group in alphabetical order.
+   *
+   * <p>The extensions are only requested from the server if there's no snapshot of them yet. A
+   * stale snapshot is returned right away and refreshed in the background.
+   *
+   * @return a {@link Mono} emitting the sorted, immutable list of extensions
+   */
+  public Mono<List<Extension>> getExtensionsAsync() {
+    Snapshot current;
+
+    synchronized (this) {
+      current = snapshot;
+    }
+
+    if (current == null) {
+      return fetchExtensions();
+    }
+
+    if (current.fetchedAt().plus(refreshInterval).isBefore(Instant.now())) {
+      refreshInBackground();
+    }
+
+    return Mono.just(current.extensions());
+  }
+
+  /**
+   * Discards the snapshot of the extensions of the previous server.
+   *
+   * @param event the {@link UrlChangeEvent} of the new server
+   */
+  @EventListener(UrlChangeEvent.class)
+  public synchronized void onUrlChange(UrlChangeEvent event) {
+    snapshot = null;
+    patchCount++;
+  }
+
+  private Mono<List<Extension>> fetchExtensions() {
+    return Mono.defer(
+        () -> {
+          long patchesBefore = getPatchCount();
+
+          return extensionClient
+              .getExtensions()
+              .map(ExtensionService::toSortedList)
+              .doOnNext(extensions -> store(extensions, patchesBefore));
+        });
+  }
+
+  private void refreshInBackground() {
+    synchronized (this) {
+      if (refreshing) {
+        return;
+      }
+
+      refreshing = true;
+    }
+
+    fetchExtensions()
+        .doFinally(signal -> finishRefresh())
+        .subscribe(
+            extensions -> log.debug("Refreshed {} extensions", extensions.size()),
+            // the stale snapshot is still better than nothing
+            e -> log.warn("Couldn't refresh the extensions", e));
+  }
+
+  private synchronized void finishRefresh() {
+    refreshing = false;
+  }
+
+  private synchronized long getPatchCount() {
+    return patchCount;
+  }
+
+  private synchronized void store(List<Extension> extensions, long patchesBefore) {
+    // the fetched extensions might not contain the changes of the patches applied meanwhile
+    if (patchesBefore != patchCount) {
+      log.debug("Extensions changed while fetching them, not storing the result");
+      return;
+    }
+
+    snapshot = new Snapshot(extensions, Instant.now());
+  }
+
+  /**
+   * Replaces an extension in the snapshot with a changed copy.
+   *
+   * @param pkgName the package name of the extension
+   * @param patch creates the changed extension from the current one
+   */
+  private synchronized void patch(String pkgName, UnaryOperator<Extension> patch) {
+    patchCount++;
+
+    if (snapshot == null) {
+      return;
+    }
+
+    List<Extension> extensions = new ArrayList<>(snapshot.extensions().size());
+
+    for (Extension extension : snapshot.extensions()) {
+      boolean matches = extension.getPkgName().equals(pkgName);
+      extensions.add(matches ? patch.apply(extension) : extension);
+    }
+
+    snapshot = new Snapshot(toSortedList(extensions), snapshot.fetchedAt());
+  }
+
+  private static List<Extension> toSortedList(List<Extension> extensions) {
+    List<Extension> sorted = new ArrayList<>(extensions);
+    sortExtensions(sorted);
+    return List.copyOf(sorted);
+  }
 
+  private static void sortExtensions(List<Extension> extensions) {
     extensions.sort(
         (o1, o2) -> {
           // installed extensions first
@@ -44,19 +202,55 @@ public class ExtensionService {
             }
           }
         });
-
-    return extensions;
   }
 
   public boolean installExtension(String extensionId) {
-    return extensionClient.installExtension(extensionId);
+    return installExtensionAsync(extensionId).block();
+  }
+
+  public Mono<Boolean> installExtensionAsync(String extensionId) {
+    return extensionClient
+        .installExtension(extensionId)
+        .doOnNext(installed -> applyChange(installed, extensionId, Change.INSTALLED));
   }
 
   public boolean uninstallExtension(String extensionId) {
-    return extensionClient.uninstallExtension(extensionId);
+    return uninstallExtensionAsync(extensionId).block();
+  }
+
+  public Mono<Boolean> uninstallExtensionAsync(String extensionId) {
+    return extensionClient
+        .uninstallExtension(extensionId)
+        .doOnNext(uninstalled -> applyChange(uninstalled, extensionId, Change.UNINSTALLED));
   }
 
   public boolean updateExtension(String extensionId) {
-    return extensionClient.updateExtension(extensionId);
+    return updateExtensionAsync(extensionId).block();
+  }
+
+  public Mono<Boolean> updateExtensionAsync(String extensionId) {
+    return extensionClient
+        .updateExtension(extensionId)
+        .doOnNext(updated -> applyChange(updated, extensionId, Change.UPDATED));
+  }
+
+  /**
+   * Patches the snapshot with the result of a change and announces the change, if it succeeded.
+   */
+  private void applyChange(boolean success, String extensionId, Change change) {
+    if (!success) {
+      return;
+    }
+
+    switch (change) {
+      case INSTALLED -> patch(extensionId, extension -> extension.withInstalled(true));
+      case UPDATED -> patch(extensionId, extension -> extension.withHasUpdate(false));
+      case UNINSTALLED -> patch(extensionId, extension -> extension.withInstalled(false));
+    }
+
+    eventPublisher.publishEvent(new ExtensionChangeEvent(this, extensionId, change));
   }
+
+  /** The sorted extensions and the time they were fetched at. */
+  private record Snapshot(List<Extension> extensions, Instant fetchedAt) {}
 }
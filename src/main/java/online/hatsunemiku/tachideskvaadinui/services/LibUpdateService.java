@@ -15,7 +15,6 @@ import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import lombok.extern.slf4j.Slf4j;
 import online.hatsunemiku.tachideskvaadinui.services.client.LibUpdateClient;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
@@ -46,9 +45,6 @@ public class LibUpdateService {
     client.startUpdateTracking();
   }
 
-  @CacheEvict(
-      value = {"manga"},
-      allEntries = true)
   public boolean fetchUpdate(UI ui) {
 
     if (!lock.tryLock()) {
@@ -62,7 +58,7 @@ public class LibUpdateService {
 
     boolean fetchUpdate;
     try {
-      fetchUpdate = client.fetchUpdate();
+      fetchUpdate = client.fetchUpdate().block();
     } catch (Exception e) {
       log.error("Could not fetch update", e);
       lock.unlock();
@@ -78,7 +74,7 @@ public class LibUpdateService {
 
     for (var m : manga) {
       try {
-        mangaService.fetchChapterList(m.getId());
+        mangaService.refreshChapterList(m.getId());
       } catch (RuntimeException e) {
         if (ui == null) {
           log.debug(e.getMessage());
@@ -0,0 +1,189 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.LibrarySnapshot;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.event.CategoryChangeEvent;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.event.ChapterChangeEvent;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.event.ChapterChangeEvent.Change;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.event.MangaChangeEvent;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.event.MangaUpdateEvent;
+import online.hatsunemiku.tachideskvaadinui.services.client.CategoryClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Provides the library as a {@link LibrarySnapshot}, which contains all categories with their manga
+ * and is retrieved from the server in a single request.
+ *
+ * <p>The snapshot is shared by all sessions. Every change to the library increases the version of
+ * the library, which makes the current snapshot stale, so the next request retrieves a new one.
+ * Concurrent requests for the same version share a single request to the server.
+ *
+ * <p>Changes made by other clients or by the server itself, e.g. its scheduled library update,
+ * don't cause an event. So once the snapshot is older than the refresh interval, it's still
+ * served, but refreshed in the background.
+ */
+@Slf4j
+@Service
+public class LibraryService {
+
+  private final CategoryClient categoryClient;
+  private final AtomicLong version = new AtomicLong();
+  private final Duration refreshInterval;
+
+  private volatile LibrarySnapshot snapshot;
+  private volatile Instant storedAt = Instant.MIN;
+  private Mono<LibrarySnapshot> pending;
+  private long pendingVersion = -1;
+
+  /**
+   * Creates a new {@link LibraryService}.
+   *
+   * @param categoryClient the {@link CategoryClient} used to retrieve the library
+   * @param refreshInterval the age after which the snapshot is refreshed in the background
+   */
+  public LibraryService(
+      CategoryClient categoryClient,
+      @Value("${vaaui.library.refresh-interval:1m}") Duration refreshInterval) {
+    this.categoryClient = categoryClient;
+    this.refreshInterval = refreshInterval;
+  }
+
+  /**
+   * Retrieves the current snapshot of the library without blocking. If the library didn't change
+   * since the last snapshot was taken, the snapshot is returned without a request to the server. A
+   * snapshot older than the refresh interval is returned as well, but refreshed in the background.
+   *
+   * @return a {@link Mono} emitting the current {@link LibrarySnapshot}
+   */
+  public Mono<LibrarySnapshot> getLibraryAsync() {
+    LibrarySnapshot current = snapshot;
+
+    if (current == null || current.version() != version.get()) {
+      return load();
+    }
+
+    if (storedAt.plus(refreshInterval).isBefore(Instant.now())) {
+      // concurrent callers share the request of the version
+      load()
+          .subscribe(
+              library -> log.debug("Refreshed library snapshot of version {}", library.version()),
+              // the stale snapshot is still better than nothing
+              e -> log.warn("Couldn't refresh the library", e));
+    }
+
+    return Mono.just(current);
+  }
+
+  /**
+   * Retrieves the current version of the library.
+   *
+   * @return the version, which increases with every change to the library
+   */
+  public long getVersion() {
+    return version.get();
+  }
+
+  /** Marks the current snapshot as stale, so the next request retrieves the library again. */
+  public void invalidate() {
+    long newVersion = version.incrementAndGet();
+    log.debug("Library changed, now at version {}", newVersion);
+  }
+
+  /**
+   * Invalidates the snapshot after a manga was added to or removed from the library or a category.
+   *
+   * @param event the {@link MangaChangeEvent} of the manga
+   */
+  @EventListener(MangaChangeEvent.class)
+  public void onMangaChange(MangaChangeEvent event) {
+    invalidate();
+  }
+
+  /**
+   * Invalidates the snapshot after a category was created or deleted.
+   *
+   * @param event the {@link CategoryChangeEvent} of the category
+   */
+  @EventListener(CategoryChangeEvent.class)
+  public void onCategoryChange(CategoryChangeEvent event) {
+    invalidate();
+  }
+
+  /**
+   * Invalidates the snapshot after a library update changed manga.
+   *
+   * @param event the {@link MangaUpdateEvent} of the update
+   */
+  @EventListener(MangaUpdateEvent.class)
+  public void onMangaUpdate(MangaUpdateEvent event) {
+    if (event.getCompletedJobs() == null || event.getCompletedJobs().isEmpty()) {
+      return;
+    }
+
+    invalidate();
+  }
+
+  /**
+   * Invalidates the snapshot after the read progress of a chapter changed, since the manga of the
+   * library contain their last read chapter.
+   *
+   * @param event the {@link ChapterChangeEvent} of the chapter
+   */
+  @EventListener(ChapterChangeEvent.class)
+  public void onChapterChange(ChapterChangeEvent event) {
+    if (event.getChange() == Change.READ || event.getChange() == Change.UNREAD) {
+      invalidate();
+    }
+  }
+
+  private synchronized Mono<LibrarySnapshot> load() {
+    long requested = version.get();
+
+    if (pending != null && pendingVersion == requested) {
+      return pending;
+    }
+
+    Mono<LibrarySnapshot> request =
+        categoryClient
+            .getLibrary(requested)
+            .doOnNext(this::store)
+            .doOnError(e -> clearPending(requested))
+            .cache();
+
+    pending = request;
+    pendingVersion = requested;
+
+    return request;
+  }
+
+  private synchronized void store(LibrarySnapshot loaded) {
+    // a refresh of the same version replaces the snapshot, as the server may have changed it
+    if (snapshot == null || snapshot.version() <= loaded.version()) {
+      snapshot = loaded;
+      storedAt = Instant.now();
+      log.debug("Stored library snapshot of version {}", loaded.version());
+    }
+
+    clearPending(loaded.version());
+  }
+
+  /** Drops the request of a version, so a failed request isn't served from the cache again. */
+  private synchronized void clearPending(long requested) {
+    if (pendingVersion == requested) {
+      pending = null;
+      pendingVersion = -1;
+    }
+  }
+}
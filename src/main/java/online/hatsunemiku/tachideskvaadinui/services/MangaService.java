@@ -16,16 +16,27 @@ import java.util.concurrent.Executors;
 import lombok.extern.slf4j.Slf4j;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Chapter;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Manga;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.PageManifest;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.PageManifest.Page;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.event.ChapterChangeEvent;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.event.ChapterChangeEvent.Change;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.event.MangaChangeEvent;
+import online.hatsunemiku.tachideskvaadinui.services.cache.ChapterListStore;
+import online.hatsunemiku.tachideskvaadinui.services.client.ChapterProjection;
 import online.hatsunemiku.tachideskvaadinui.services.client.DownloadClient;
-import online.hatsunemiku.tachideskvaadinui.services.client.DownloadClient.DownloadChangeEvent;
+import online.hatsunemiku.tachideskvaadinui.services.client.DownloadProgressHub;
 import online.hatsunemiku.tachideskvaadinui.services.client.MangaClient;
 import online.hatsunemiku.tachideskvaadinui.services.tracker.SuwayomiTrackingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import reactor.core.Disposable;
 import reactor.core.Disposables;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * This class is responsible for handling all operations related to manga. This includes adding and
@@ -37,25 +48,45 @@ public class MangaService {
 
   private final MangaClient mangaClient;
   private final DownloadClient downloadClient;
-  private final Flux<List<DownloadChangeEvent>> downloadChangeEventTracker;
+  private final DownloadProgressHub downloadProgressHub;
   private final SuwayomiTrackingService suwayomiTrackingService;
+  private final CacheManager cacheManager;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ChapterListStore chapterListStore;
+  private final PageManifestService pageManifestService;
 
   /**
    * Creates a new MangaService.
    *
    * @param mangaClient the {@link MangaClient} to use for fetching manga data
    * @param downloadCLient the {@link DownloadClient} to use for downloading chapters
+   * @param downloadProgressHub the {@link DownloadProgressHub} to use for tracking downloads
    * @param suwayomiTrackingService the {@link SuwayomiTrackingService} to use for tracking progress
+   * @param cacheManager the {@link CacheManager} holding the manga and chapter caches, which are
+   *     shared by the blocking and reactive methods
+   * @param eventPublisher the {@link ApplicationEventPublisher} used to announce changed manga and
+   *     chapters
+   * @param chapterListStore the {@link ChapterListStore} holding the chapter lists of the manga
+   * @param pageManifestService the {@link PageManifestService} reading the sizes of the pages
    */
   @Autowired
   public MangaService(
       MangaClient mangaClient,
       DownloadClient downloadCLient,
-      SuwayomiTrackingService suwayomiTrackingService) {
+      DownloadProgressHub downloadProgressHub,
+      SuwayomiTrackingService suwayomiTrackingService,
+      CacheManager cacheManager,
+      ApplicationEventPublisher eventPublisher,
+      ChapterListStore chapterListStore,
+      PageManifestService pageManifestService) {
     this.mangaClient = mangaClient;
     this.downloadClient = downloadCLient;
-    this.downloadChangeEventTracker = downloadCLient.trackDownloads();
+    this.downloadProgressHub = downloadProgressHub;
     this.suwayomiTrackingService = suwayomiTrackingService;
+    this.cacheManager = cacheManager;
+    this.eventPublisher = eventPublisher;
+    this.chapterListStore = chapterListStore;
+    this.pageManifestService = pageManifestService;
   }
 
   /**
@@ -66,7 +97,9 @@ public class MangaService {
    *     otherwise
    */
   public boolean addMangaToLibrary(int mangaId) {
-    return mangaClient.addMangaToLibrary(mangaId);
+    boolean added = mangaClient.addMangaToLibrary(mangaId).block();
+    eventPublisher.publishEvent(new MangaChangeEvent(this, mangaId));
+    return added;
   }
 
   /**
@@ -77,44 +110,149 @@ public class MangaService {
    *     otherwise
    */
   public boolean removeMangaFromLibrary(int mangaId) {
-    return mangaClient.removeMangaFromLibrary(mangaId);
+    boolean removed = mangaClient.removeMangaFromLibrary(mangaId).block();
+    eventPublisher.publishEvent(new MangaChangeEvent(this, mangaId));
+    return removed;
   }
 
   /**
-   * Retrieves the cached list of chapters for a manga. This method does NOT find new chapters. Use
-   * {@link #fetchChapterList(int)} to find new chapters. This method also sorts the chapters by
-   * chapter number in ascending order.
+   * Retrieves the cached list of chapters for a manga with all their fields. This method does NOT
+   * find new chapters. Use {@link #fetchChapterList(int)} to find new chapters. This method also
+   * sorts the chapters by chapter number in ascending order.
    *
    * @param mangaId the ID of the manga for which to get the chapter list
-   * @return the list of Chapter objects representing the chapters of the manga
+   * @return the immutable list of Chapter objects representing the chapters of the manga
    */
   public List<Chapter> getChapterList(int mangaId) {
-    List<Chapter> chapters = mangaClient.getChapters(mangaId);
+    return getChapterList(mangaId, ChapterProjection.DETAIL);
+  }
+
+  /**
+   * Retrieves the cached list of chapters for a manga with the fields of the given projection.
+   *
+   * @param mangaId the ID of the manga for which to get the chapter list
+   * @param projection the {@link ChapterProjection} defining the fields to retrieve
+   * @return the immutable list of Chapter objects representing the chapters of the manga
+   * @see #getChapterList(int)
+   */
+  public List<Chapter> getChapterList(int mangaId, ChapterProjection projection) {
+    return getChapterListAsync(mangaId, projection).block();
+  }
+
+  /**
+   * Retrieves the cached list of chapters for a manga without blocking. The chapters are sorted by
+   * chapter number in ascending order. If the {@link ChapterListStore} holds the chapters with the
+   * fields of the projection, they're returned without a request to the server.
+   *
+   * @param mangaId the ID of the manga for which to get the chapter list
+   * @param projection the {@link ChapterProjection} defining the fields to retrieve
+   * @return a {@link Mono} emitting the sorted, immutable list of chapters
+   * @see #getChapterList(int)
+   */
+  public Mono<List<Chapter>> getChapterListAsync(int mangaId, ChapterProjection projection) {
+    List<Chapter> stored = chapterListStore.get(mangaId, projection);
 
-    chapters.sort(Chapter::compareTo);
+    if (stored != null) {
+      return Mono.just(stored);
+    }
 
-    return chapters;
+    return mangaClient
+        .getChapters(mangaId, projection)
+        .map(chapters -> storeChapterList(mangaId, projection, chapters));
   }
 
   /**
-   * Retrieves the list of chapters for a manga from the server. This method finds new chapters and
-   * updates the cache. Use {@link #getChapterList(int)} to retrieve the cached list of chapters.
-   * This method also sorts the chapters by chapter number in ascending order.
+   * Retrieves the list of chapters for a manga from the server with all their fields. This method
+   * finds new chapters and updates the cache. Use {@link #getChapterList(int)} to retrieve the
+   * cached list of chapters. This method also sorts the chapters by chapter number in ascending
+   * order.
    *
    * @param mangaId the ID of the manga for which to get the chapter list
-   * @return the list of Chapter objects representing the chapters of the manga
+   * @return the immutable list of Chapter objects representing the chapters of the manga
    */
   public List<Chapter> fetchChapterList(int mangaId) {
-    List<Chapter> chapters = mangaClient.fetchChapterList(mangaId);
+    return fetchChapterList(mangaId, ChapterProjection.DETAIL);
+  }
+
+  /**
+   * Retrieves the list of chapters for a manga from the server with the fields of the given
+   * projection.
+   *
+   * @param mangaId the ID of the manga for which to get the chapter list
+   * @param projection the {@link ChapterProjection} defining the fields to retrieve
+   * @return the immutable list of Chapter objects representing the chapters of the manga
+   * @see #fetchChapterList(int)
+   */
+  public List<Chapter> fetchChapterList(int mangaId, ChapterProjection projection) {
+    return fetchChapterListAsync(mangaId, projection).block();
+  }
 
-    chapters.sort(Chapter::compareTo);
+  /**
+   * Fetches the list of chapters for a manga from the server without blocking. The chapters are
+   * sorted by chapter number in ascending order and replace the ones in the {@link
+   * ChapterListStore}.
+   *
+   * @param mangaId the ID of the manga for which to fetch the chapter list
+   * @param projection the {@link ChapterProjection} defining the fields to retrieve
+   * @return a {@link Mono} emitting the sorted, immutable list of chapters
+   * @see #fetchChapterList(int)
+   */
+  public Mono<List<Chapter>> fetchChapterListAsync(int mangaId, ChapterProjection projection) {
+    return mangaClient
+        .fetchChapterList(mangaId, projection)
+        .map(chapters -> storeChapterList(mangaId, projection, chapters));
+  }
+
+  private List<Chapter> storeChapterList(
+      int mangaId, ChapterProjection projection, List<Chapter> chapters) {
+    // an empty list means the chapters haven't been fetched yet, which shouldn't stick
+    if (chapters.isEmpty()) {
+      return List.of();
+    }
+
+    return chapterListStore.replace(mangaId, projection, chapters);
+  }
 
-    return chapters;
+  /**
+   * Finds new chapters of a manga on the server without retrieving the chapters. The stored
+   * chapter list of the manga is discarded, so the next request includes the new chapters.
+   *
+   * @param mangaId the ID of the manga for which to find new chapters
+   * @return the number of chapters of the manga after the update
+   */
+  public int refreshChapterList(int mangaId) {
+    int count = mangaClient.refreshChapterList(mangaId).block();
+    chapterListStore.evict(mangaId);
+    return count;
   }
 
   @Cacheable(value = "chapter", key = "#chapterId", unless = "#result.pageCount == -1")
   public Chapter getChapter(int chapterId) {
-    return mangaClient.getChapter(chapterId);
+    return mangaClient.getChapter(chapterId).block();
+  }
+
+  /**
+   * Retrieves a chapter without blocking. Uses the same cache as {@link #getChapter(int)}.
+   *
+   * @param chapterId the ID of the chapter to retrieve
+   * @return a {@link Mono} emitting the chapter
+   */
+  public Mono<Chapter> getChapterAsync(int chapterId) {
+    Cache cache = cacheManager.getCache("chapter");
+    Chapter cached = cache == null ? null : cache.get(chapterId, Chapter.class);
+
+    if (cached != null) {
+      return Mono.just(cached);
+    }
+
+    return mangaClient
+        .getChapter(chapterId)
+        .doOnNext(
+            chapter -> {
+              if (cache != null && chapter.getPageCount() != -1) {
+                cache.put(chapterId, chapter);
+              }
+            });
   }
 
   /**
@@ -126,12 +264,13 @@ public class MangaService {
   public boolean setChapterRead(int chapterId, int mangaId) {
     try {
 
-      boolean updated = mangaClient.setChapterRead(chapterId);
+      boolean updated = mangaClient.setChapterRead(chapterId).block();
 
       if (!updated) {
         return false;
       }
 
+      eventPublisher.publishEvent(new ChapterChangeEvent(this, chapterId, mangaId, Change.READ));
       suwayomiTrackingService.trackProgress(mangaId);
 
       return true;
@@ -150,9 +289,10 @@ public class MangaService {
    * @return a list of chapter numbers that were successfully set as read
    */
   public List<Float> setChaptersBelowAndEqualRead(int chapterNumber, int mangaId) {
-    var chapters = getChapterList(mangaId);
+    var chapters = getChapterList(mangaId, ChapterProjection.LIST_ROW);
     Set<Float> updated = ConcurrentHashMap.newKeySet();
 
+    // the ServerLoadFilter limits how many of these requests reach the server at once
     try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
       List<Callable<Boolean>> tasks = new ArrayList<>();
 
@@ -196,11 +336,19 @@ public class MangaService {
    * Sets a chapter as unread.
    *
    * @param chapterId the ID of the chapter to be set as unread
+   * @param mangaId the ID of the manga of the chapter
    * @return {@code true} if the chapter was successfully set as unread, {@code false} otherwise
    */
-  public boolean setChapterUnread(int chapterId) {
+  public boolean setChapterUnread(int chapterId, int mangaId) {
     try {
-      return mangaClient.setChapterUnread(chapterId);
+      boolean updated = mangaClient.setChapterUnread(chapterId).block();
+
+      if (updated) {
+        eventPublisher.publishEvent(
+            new ChapterChangeEvent(this, chapterId, mangaId, Change.UNREAD));
+      }
+
+      return updated;
     } catch (Exception e) {
       return false;
     }
@@ -214,7 +362,32 @@ public class MangaService {
    */
   @Cacheable(value = "manga", key = "#mangaId")
   public Manga getManga(long mangaId) {
-    return mangaClient.getManga(mangaId);
+    return mangaClient.getManga(mangaId).block();
+  }
+
+  /**
+   * Retrieves the full information of a manga without blocking. Uses the same cache as {@link
+   * #getManga(long)}.
+   *
+   * @param mangaId the ID of the manga to retrieve
+   * @return a {@link Mono} emitting the manga
+   */
+  public Mono<Manga> getMangaAsync(long mangaId) {
+    Cache cache = cacheManager.getCache("manga");
+    Manga cached = cache == null ? null : cache.get(mangaId, Manga.class);
+
+    if (cached != null) {
+      return Mono.just(cached);
+    }
+
+    return mangaClient
+        .getManga(mangaId)
+        .doOnNext(
+            manga -> {
+              if (cache != null) {
+                cache.put(mangaId, manga);
+              }
+            });
   }
 
   /**
@@ -224,7 +397,8 @@ public class MangaService {
    * @param categoryId the ID of the category to add the manga to
    */
   public void addMangaToCategory(int mangaId, int categoryId) {
-    mangaClient.addMangaToCategories(List.of(categoryId), mangaId);
+    mangaClient.addMangaToCategories(List.of(categoryId), mangaId).block();
+    eventPublisher.publishEvent(new MangaChangeEvent(this, mangaId));
   }
 
   /**
@@ -234,7 +408,8 @@ public class MangaService {
    * @param categoryId the ID of the category to remove the manga from
    */
   public void removeMangaFromCategory(int mangaId, int categoryId) {
-    mangaClient.removeMangaFromCategories(List.of(categoryId), mangaId);
+    mangaClient.removeMangaFromCategories(List.of(categoryId), mangaId).block();
+    eventPublisher.publishEvent(new MangaChangeEvent(this, mangaId));
   }
 
   public void moveMangaToCategory(int mangaId, int newCategoryId, int oldCategoryId) {
@@ -249,7 +424,7 @@ public class MangaService {
    * @return true if the download was successful, false otherwise
    */
   public boolean downloadSingleChapter(int chapterId) {
-    return downloadClient.downloadChapters(List.of(chapterId));
+    return downloadClient.downloadChapters(List.of(chapterId)).block();
   }
 
   /**
@@ -259,7 +434,7 @@ public class MangaService {
    * @return true if downloading was queued, false otherwise
    */
   public boolean downloadMultipleChapter(List<Integer> chapterIds) {
-    return downloadClient.downloadChapters(List.copyOf(chapterIds));
+    return downloadClient.downloadChapters(List.copyOf(chapterIds)).block();
   }
 
   /**
@@ -269,11 +444,66 @@ public class MangaService {
    * @return true if the chapter was successfully deleted, false otherwise
    */
   public boolean deleteSingleChapter(int chapterId) {
-    return downloadClient.deleteChapter(chapterId);
+    boolean deleted = downloadClient.deleteChapter(chapterId).block();
+
+    if (deleted) {
+      eventPublisher.publishEvent(new ChapterChangeEvent(this, chapterId, -1, Change.DELETED));
+    }
+
+    return deleted;
   }
 
   public List<String> getChapterPages(int chapterId) {
-    return mangaClient.getChapterPages(chapterId);
+    return getChapterPagesAsync(chapterId).block();
+  }
+
+  /**
+   * Retrieves the page URLs of a chapter without blocking. The URLs are kept in the {@code
+   * chapterPages} cache, so the reader and the prefetching of chapters share them.
+   *
+   * @param chapterId the ID of the chapter
+   * @return a {@link Mono} emitting the page URLs relative to the server
+   */
+  public Mono<List<String>> getChapterPagesAsync(int chapterId) {
+    Cache cache = cacheManager.getCache("chapterPages");
+
+    @SuppressWarnings("unchecked")
+    List<String> cached = cache == null ? null : cache.get(chapterId, List.class);
+
+    if (cached != null) {
+      return Mono.just(cached);
+    }
+
+    return mangaClient
+        .getChapterPages(chapterId)
+        .doOnNext(
+            pages -> {
+              if (cache != null && !pages.isEmpty()) {
+                cache.put(chapterId, List.copyOf(pages));
+              }
+            });
+  }
+
+  /**
+   * Retrieves the pages of a chapter with their sizes without blocking.
+   *
+   * @param chapterId the ID of the chapter
+   * @return a {@link Mono} emitting the {@link PageManifest} of the chapter
+   */
+  public Mono<PageManifest> getPageManifestAsync(int chapterId) {
+    return getChapterPagesAsync(chapterId)
+        .flatMap(pages -> pageManifestService.getManifestAsync(chapterId, pages));
+  }
+
+  /**
+   * Retrieves the sizes of the pages of a chapter without blocking, each as soon as it is read.
+   *
+   * @param chapterId the ID of the chapter
+   * @return a {@link Flux} emitting the {@link Page pages} of the chapter in their order
+   */
+  public Flux<Page> getPageSizesAsync(int chapterId) {
+    return getChapterPagesAsync(chapterId)
+        .flatMapMany(pages -> pageManifestService.getPagesAsync(chapterId, pages));
   }
 
   /**
@@ -283,35 +513,42 @@ public class MangaService {
    */
   public List<Manga> getLibraryManga() {
     // TODO: make this throw a custom exception when the update fails with Cloudflare
+    return getLibraryMangaAsync().block();
+  }
+
+  /**
+   * Retrieves the list of {@link Manga} in the user's library without blocking.
+   *
+   * @return a {@link Mono} emitting the manga in the library
+   */
+  public Mono<List<Manga>> getLibraryMangaAsync() {
     return mangaClient.getLibraryManga();
   }
 
   /**
-   * Adds a listener to the download change event tracker.
+   * Adds a listener to the download change event tracker. All listeners share a single
+   * subscription to the server, and the listener is removed once the chapter is downloaded.
    *
    * @param chapterId The id of the chapter to listen for
    * @param callback The callback to run when the chapter is downloaded
+   * @return a {@link Disposable} to remove the listener before the download is finished
    */
-  public void addDownloadTrackListener(int chapterId, Runnable callback) {
+  public Disposable addDownloadTrackListener(int chapterId, Runnable callback) {
     Disposable.Composite cancellation = Disposables.composite();
 
-    var subscription =
-        downloadChangeEventTracker.subscribe(
-            events ->
-                events.forEach(
-                    event -> {
-                      if (event.chapter().id() != chapterId) {
-                        return;
-                      }
-
-                      if (event.progress() != 1) {
-                        return;
-                      }
+    var listener =
+        downloadProgressHub.addListener(
+            chapterId,
+            event -> {
+              if (event.progress() != 1) {
+                return;
+              }
 
-                      callback.run();
-                      cancellation.dispose();
-                    }));
+              callback.run();
+              cancellation.dispose();
+            });
 
-    cancellation.add(subscription);
+    cancellation.add(listener);
+    return cancellation;
   }
 }
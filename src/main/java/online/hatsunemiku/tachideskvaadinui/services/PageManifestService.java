@@ -0,0 +1,235 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services;
+
+import java.awt.Dimension;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.PageManifest;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.PageManifest.Page;
+import online.hatsunemiku.tachideskvaadinui.services.cache.ImageCache;
+import online.hatsunemiku.tachideskvaadinui.services.cache.ImageCache.CachedImage;
+import online.hatsunemiku.tachideskvaadinui.services.client.batch.SingleFlight;
+import online.hatsunemiku.tachideskvaadinui.utils.ImageUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Creates {@link PageManifest manifests} of chapters, so readers know the size of every page before
+ * it's loaded.
+ *
+ * <p>The sizes are read from the headers of the images. Pages in the {@link ImageCache} are read
+ * from the disk, all other pages are downloaded only until their header is complete. Manifests with
+ * the size of every page are kept in the {@code pageManifest} cache.
+ */
+@Slf4j
+@Service
+public class PageManifestService {
+
+  private static final String CACHE_NAME = "pageManifest";
+
+  /** The most bytes read of a page, e.g. JPEGs with large EXIF data before their size. */
+  private static final int MAX_HEADER_SIZE = 256 * 1024;
+
+  /** The bytes of a page read before its header is parsed for the first time. */
+  private static final int MIN_HEADER_SIZE = 4 * 1024;
+
+  private final WebClientService clientService;
+  private final ImageCache imageCache;
+  private final CacheManager cacheManager;
+  private final int concurrency;
+  private final SingleFlight<Integer> singleFlight = new SingleFlight<>();
+
+  /**
+   * Creates a new {@link PageManifestService}.
+   *
+   * @param clientService the {@link WebClientService} used to download the headers of the pages
+   * @param imageCache the {@link ImageCache} holding pages that were already downloaded
+   * @param cacheManager the {@link CacheManager} providing the {@code pageManifest} cache
+   * @param concurrency the number of pages read at the same time
+   */
+  public PageManifestService(
+      WebClientService clientService,
+      ImageCache imageCache,
+      CacheManager cacheManager,
+      @Value("${vaaui.page-manifest.concurrency:4}") int concurrency) {
+    this.clientService = clientService;
+    this.imageCache = imageCache;
+    this.cacheManager = cacheManager;
+    this.concurrency = concurrency;
+  }
+
+  /**
+   * Retrieves the manifest of a chapter. Concurrent requests for the same chapter share the reading
+   * of the pages.
+   *
+   * @param chapterId the ID of the chapter
+   * @param pages the URLs of the pages relative to the server
+   * @return a {@link Mono} emitting the {@link PageManifest}, in which pages whose header couldn't
+   *     be read have an unknown size
+   */
+  public Mono<PageManifest> getManifestAsync(int chapterId, List<String> pages) {
+    PageManifest cached = getCache().get(chapterId, PageManifest.class);
+
+    if (cached != null) {
+      return Mono.just(cached);
+    }
+
+    return singleFlight.execute(chapterId, () -> createManifest(chapterId, pages));
+  }
+
+  /**
+   * Retrieves the sizes of the pages of a chapter as soon as each of them is read. The pages aren't
+   * shared with concurrent requests, but complete manifests are cached like by {@link
+   * #getManifestAsync(int, List)}.
+   *
+   * @param chapterId the ID of the chapter
+   * @param pages the URLs of the pages relative to the server
+   * @return a {@link Flux} emitting the {@link Page pages} in their order in the chapter
+   */
+  public Flux<Page> getPagesAsync(int chapterId, List<String> pages) {
+    PageManifest cached = getCache().get(chapterId, PageManifest.class);
+
+    if (cached != null) {
+      return Flux.fromIterable(cached.pages());
+    }
+
+    return readPages(chapterId, pages);
+  }
+
+  private Mono<PageManifest> createManifest(int chapterId, List<String> pages) {
+    return readPages(chapterId, pages)
+        .collectList()
+        .map(sizes -> new PageManifest(chapterId, sizes));
+  }
+
+  private Flux<Page> readPages(int chapterId, List<String> pages) {
+    return Flux.defer(
+        () -> {
+          List<Page> sizes = new ArrayList<>(pages.size());
+
+          return Flux.fromIterable(pages)
+              .flatMapSequential(this::readPage, concurrency)
+              .doOnNext(sizes::add)
+              .doOnComplete(
+                  () -> {
+                    var manifest = new PageManifest(chapterId, List.copyOf(sizes));
+
+                    // pages that failed are read again next time
+                    if (manifest.isComplete()) {
+                      getCache().put(chapterId, manifest);
+                    }
+                  });
+        });
+  }
+
+  private Mono<Page> readPage(String url) {
+    return Mono.fromCallable(() -> readStoredPage(url))
+        .subscribeOn(Schedulers.boundedElastic())
+        .switchIfEmpty(downloadHeader(url))
+        .onErrorResume(
+            e -> {
+              log.debug("Couldn't read the size of page {}", url, e);
+              return Mono.just(Page.unknown(url));
+            });
+  }
+
+  private Page readStoredPage(String url) throws IOException {
+    CachedImage image = imageCache.peek(url);
+
+    if (image == null) {
+      return null;
+    }
+
+    byte[] header;
+
+    try (InputStream in = Files.newInputStream(image.file())) {
+      header = in.readNBytes(MAX_HEADER_SIZE);
+    }
+
+    return toPage(url, ImageUtils.readSize(header));
+  }
+
+  /**
+   * Downloads a page until its size can be read and cancels the rest of the download. The header is
+   * parsed again only after it has doubled, so large headers aren't parsed on every chunk.
+   */
+  private Mono<Page> downloadHeader(String url) {
+    return Mono.defer(
+        () -> {
+          var header = new ByteArrayOutputStream();
+          int[] nextParse = {MIN_HEADER_SIZE};
+
+          Flux<Page> pages =
+              clientService
+                  .getWebClient()
+                  .get()
+                  .uri(url)
+                  .retrieve()
+                  .bodyToFlux(DataBuffer.class)
+                  .concatMap(
+                      buffer -> {
+                        try {
+                          int length =
+                              Math.min(buffer.readableByteCount(), MAX_HEADER_SIZE - header.size());
+                          byte[] bytes = new byte[length];
+                          buffer.read(bytes);
+                          header.writeBytes(bytes);
+                        } finally {
+                          DataBufferUtils.release(buffer);
+                        }
+
+                        boolean full = header.size() >= MAX_HEADER_SIZE;
+
+                        if (header.size() < nextParse[0] && !full) {
+                          return Mono.empty();
+                        }
+
+                        nextParse[0] = header.size() * 2;
+                        Dimension size = ImageUtils.readSize(header.toByteArray());
+
+                        if (size == null && !full) {
+                          return Mono.empty();
+                        }
+
+                        return Mono.just(toPage(url, size));
+                      });
+
+          // pages smaller than the next parse are parsed once they're complete
+          return pages
+              .concatWith(
+                  Mono.fromCallable(() -> toPage(url, ImageUtils.readSize(header.toByteArray()))))
+              .next();
+        });
+  }
+
+  private static Page toPage(String url, Dimension size) {
+    return size == null ? Page.unknown(url) : new Page(url, size.width, size.height);
+  }
+
+  private Cache getCache() {
+    Cache cache = cacheManager.getCache(CACHE_NAME);
+
+    if (cache == null) {
+      throw new IllegalStateException("Cache " + CACHE_NAME + " isn't available");
+    }
+
+    return cache;
+  }
+}
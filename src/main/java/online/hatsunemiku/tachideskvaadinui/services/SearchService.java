@@ -9,6 +9,7 @@ package online.hatsunemiku.tachideskvaadinui.services;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.search.SourceSearchResult;
 import online.hatsunemiku.tachideskvaadinui.services.client.SearchClient;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 @Service
 public class SearchService {
@@ -28,6 +29,18 @@ public class SearchService {
    * @return The search response containing the results.
    */
   public SourceSearchResult search(String query, String sourceId, int pageNum) {
+    return searchAsync(query, sourceId, pageNum).block();
+  }
+
+  /**
+   * Performs a search using the provided query, sourceId, and pageNum without blocking.
+   *
+   * @param query The search query.
+   * @param sourceId The sourceId to search within.
+   * @param pageNum The page number for pagination.
+   * @return A {@link Mono} emitting the search response containing the results.
+   */
+  public Mono<SourceSearchResult> searchAsync(String query, String sourceId, int pageNum) {
     return searchClient.search(query, pageNum, sourceId);
   }
 }
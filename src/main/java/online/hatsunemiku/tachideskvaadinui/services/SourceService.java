@@ -6,48 +6,151 @@
 
 package online.hatsunemiku.tachideskvaadinui.services;
 
+import java.time.Duration;
 import java.util.List;
-import online.hatsunemiku.tachideskvaadinui.data.settings.Settings;
+import lombok.extern.slf4j.Slf4j;
+import online.hatsunemiku.tachideskvaadinui.data.settings.event.UrlChangeEvent;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Source;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.SourceCatalog;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.SourceMangaList;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.event.ExtensionChangeEvent;
 import online.hatsunemiku.tachideskvaadinui.services.client.SourceClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Mono;
 
+@Slf4j
 @Service
 public class SourceService {
 
-  private final RestTemplate client;
+  private final WebClientService clientService;
   private final SourceClient sourceClient;
-  private final SettingsService settingsService;
+  private final Duration catalogTtl;
+  private Mono<SourceCatalog> catalog;
 
+  /**
+   * Creates a new {@link SourceService}.
+   *
+   * @param clientService the {@link WebClientService} used to retrieve the sources
+   * @param sourceClient the {@link SourceClient} used to retrieve the manga of a source
+   * @param catalogTtl how long the {@link SourceCatalog} is kept before it's retrieved again
+   */
   public SourceService(
-      RestTemplate client, SourceClient sourceClient, SettingsService settingsService) {
-    this.client = client;
+      WebClientService clientService,
+      SourceClient sourceClient,
+      @Value("${vaaui.source.catalog-ttl:10m}") Duration catalogTtl) {
+    this.clientService = clientService;
     this.sourceClient = sourceClient;
-    this.settingsService = settingsService;
+    this.catalogTtl = catalogTtl;
   }
 
+  /**
+   * Retrieves all sources, sorted by name. The sources are served from the {@link SourceCatalog}.
+   *
+   * @return the immutable list of sources
+   */
   public List<Source> getSources() {
+    return getCatalog().sources();
+  }
 
-    Settings settings = settingsService.getSettings();
-
-    String url = settings.getUrl() + "/api/v1/source/list";
+  /**
+   * Retrieves all sources without blocking, sorted by name.
+   *
+   * @return a {@link Mono} emitting the immutable list of sources, which is empty if the server
+   *     didn't return any
+   */
+  public Mono<List<Source>> getSourcesAsync() {
+    return getCatalogAsync().map(SourceCatalog::sources);
+  }
 
-    Source[] sources = client.getForObject(url, Source[].class);
+  /**
+   * Retrieves the {@link SourceCatalog}, which is kept in memory until it expires or extensions are
+   * changed.
+   *
+   * @return the {@link SourceCatalog} of all sources
+   */
+  public SourceCatalog getCatalog() {
+    return getCatalogAsync().block();
+  }
 
-    if (sources == null) {
-      return List.of();
+  /**
+   * Retrieves the {@link SourceCatalog} without blocking. The sources are only requested from the
+   * server if the catalog isn't in memory.
+   *
+   * @return a {@link Mono} emitting the {@link SourceCatalog} of all sources
+   */
+  public synchronized Mono<SourceCatalog> getCatalogAsync() {
+    if (catalog == null) {
+      // failed requests aren't kept, so the next call tries again
+      catalog =
+          fetchSources()
+              .map(SourceCatalog::of)
+              .cache(loaded -> catalogTtl, e -> Duration.ZERO, () -> Duration.ZERO);
     }
 
-    return List.of(sources);
+    return catalog;
+  }
+
+  /** Discards the {@link SourceCatalog}, so the next call retrieves the sources again. */
+  public synchronized void invalidateCatalog() {
+    catalog = null;
+  }
+
+  /**
+   * Discards the {@link SourceCatalog} after an extension was changed, since that changes the
+   * available sources.
+   *
+   * @param event the {@link ExtensionChangeEvent} of the extension
+   */
+  @EventListener(ExtensionChangeEvent.class)
+  public void onExtensionChange(ExtensionChangeEvent event) {
+    log.debug("Extension {} changed, discarding the source catalog", event.getExtensionId());
+    invalidateCatalog();
+  }
+
+  /**
+   * Discards the {@link SourceCatalog} of the previous server.
+   *
+   * @param event the {@link UrlChangeEvent} of the new server
+   */
+  @EventListener(UrlChangeEvent.class)
+  public void onUrlChange(UrlChangeEvent event) {
+    invalidateCatalog();
+  }
+
+  private Mono<List<Source>> fetchSources() {
+    var webClient = clientService.getWebClient();
+    String uri = "/api/v1/source/list";
+
+    // concurrent callers share the request and the immutable result
+    return clientService
+        .getSingleFlight()
+        .execute(
+            uri,
+            () ->
+                webClient
+                    .get()
+                    .uri(uri)
+                    .retrieve()
+                    .bodyToMono(Source[].class)
+                    .map(List::of)
+                    .defaultIfEmpty(List.of()));
   }
 
   public SourceMangaList getPopularManga(String sourceId, int page) {
+    return getPopularMangaAsync(sourceId, page).block();
+  }
+
+  public Mono<SourceMangaList> getPopularMangaAsync(String sourceId, int page) {
     return sourceClient.getPopularManga(sourceId, page);
   }
 
   public SourceMangaList getLatestManga(String sourceId, int page) {
+    return getLatestMangaAsync(sourceId, page).block();
+  }
+
+  public Mono<SourceMangaList> getLatestMangaAsync(String sourceId, int page) {
     return sourceClient.getLatestManga(sourceId, page);
   }
 }
@@ -7,19 +7,31 @@
 package online.hatsunemiku.tachideskvaadinui.services;
 
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import online.hatsunemiku.tachideskvaadinui.data.server.event.ServerStartedEvent;
+import online.hatsunemiku.tachideskvaadinui.data.settings.event.UrlChangeEvent;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.ServerCapabilities;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.ServerVersion;
 import online.hatsunemiku.tachideskvaadinui.services.client.suwayomi.SuwayomiMetaClient;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 /**
  * Responsible for retrieving data from the Suwayomi Server. This class is an abstraction over the
  * {@link SuwayomiMetaClient} class and provides methods for retrieving data from the Suwayomi
  * Server.
+ *
+ * <p>The version of the server only changes when the server is restarted or another server is
+ * used, so the {@link ServerCapabilities} derived from it are probed once and kept until a {@link
+ * ServerStartedEvent} or {@link UrlChangeEvent}.
  */
+@Slf4j
 @Service
 public class SuwayomiService {
 
   private final SuwayomiMetaClient metaClient;
+  private final AtomicReference<ServerCapabilities> capabilities = new AtomicReference<>();
 
   /**
    * Creates a new instance of the {@link SuwayomiService} class.
@@ -32,17 +44,72 @@ public class SuwayomiService {
   }
 
   /**
-   * Retrieves the version of the Suwayomi Server. This method will block until the response is
-   * received.
+   * Retrieves the version of the Suwayomi Server. The version is only requested from the server if
+   * it wasn't probed yet, in which case this method will block until the response is received.
    *
    * @return either the version of the Suwayomi Server if successful or an empty {@link Optional} if
    *     an error occurred.
    */
   public Optional<ServerVersion> getServerVersion() {
+    return getCapabilities().map(ServerCapabilities::version);
+  }
+
+  /**
+   * Retrieves the features supported by the Suwayomi Server. The server is only probed if it wasn't
+   * probed yet.
+   *
+   * @return either the {@link ServerCapabilities} of the Suwayomi Server if successful or an empty
+   *     {@link Optional} if an error occurred.
+   */
+  public Optional<ServerCapabilities> getCapabilities() {
+    ServerCapabilities cached = capabilities.get();
+
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+
+    return refreshCapabilities();
+  }
+
+  /**
+   * Probes the Suwayomi Server for its version and replaces the cached {@link ServerCapabilities}.
+   * If the server can't be reached, the cached capabilities are discarded.
+   *
+   * @return either the new {@link ServerCapabilities} of the Suwayomi Server if successful or an
+   *     empty {@link Optional} if an error occurred.
+   */
+  public Optional<ServerCapabilities> refreshCapabilities() {
+    Optional<ServerCapabilities> probed;
+
     try {
-      return Optional.of(metaClient.getServerVersion());
+      probed = Optional.of(new ServerCapabilities(metaClient.getServerVersion()));
     } catch (Exception e) {
-      return Optional.empty();
+      probed = Optional.empty();
     }
+
+    capabilities.set(probed.orElse(null));
+    return probed;
+  }
+
+  /**
+   * Probes the server once it's started, as it may have been upgraded since it was last probed.
+   *
+   * @param event the {@link ServerStartedEvent}
+   */
+  @EventListener(ServerStartedEvent.class)
+  public void onServerStarted(ServerStartedEvent event) {
+    refreshCapabilities();
+  }
+
+  /**
+   * Discards the capabilities of the previous server. The new server is probed once its
+   * capabilities are needed, since it might not be running yet.
+   *
+   * @param event the {@link UrlChangeEvent} of the new server
+   */
+  @EventListener(UrlChangeEvent.class)
+  public void onUrlChange(UrlChangeEvent event) {
+    log.debug("Server changed, discarding its capabilities");
+    capabilities.set(null);
   }
 }
@@ -6,66 +6,181 @@
 
 package online.hatsunemiku.tachideskvaadinui.services;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.netflix.graphql.dgs.client.MonoGraphQLClient;
 import com.netflix.graphql.dgs.client.WebClientGraphQLClient;
 import jakarta.annotation.PreDestroy;
 import java.net.URI;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
+import lombok.AccessLevel;
 import lombok.Getter;
 import online.hatsunemiku.tachideskvaadinui.data.settings.Settings;
 import online.hatsunemiku.tachideskvaadinui.data.settings.event.UrlChangeEvent;
+import online.hatsunemiku.tachideskvaadinui.services.client.batch.SingleFlight;
+import online.hatsunemiku.tachideskvaadinui.services.client.graphql.GraphQlDocumentRegistry;
+import online.hatsunemiku.tachideskvaadinui.services.client.graphql.PersistedQueryInterceptor;
+import online.hatsunemiku.tachideskvaadinui.services.client.graphql.SingleFlightInterceptor;
+import online.hatsunemiku.tachideskvaadinui.services.client.graphql.StreamingGraphQlClient;
+import online.hatsunemiku.tachideskvaadinui.services.client.limit.ServerLoadFilter;
+import online.hatsunemiku.tachideskvaadinui.services.client.metrics.ClientMetrics;
+import online.hatsunemiku.tachideskvaadinui.services.client.metrics.ClientMetricsFilter;
+import online.hatsunemiku.tachideskvaadinui.services.client.metrics.GraphQlMetricsInterceptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.event.EventListener;
 import org.springframework.graphql.client.HttpGraphQlClient;
 import org.springframework.graphql.client.WebSocketGraphQlClient;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.socket.client.StandardWebSocketClient;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
 import org.springframework.web.reactive.socket.client.WebSocketClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.WebsocketClientSpec;
+import reactor.netty.resources.ConnectionProvider;
 
 /**
  * The WebClientService class is responsible for creating and managing clients used by other
- * services to communicate with APIs.
+ * services to communicate with APIs. <br>
+ * All clients share a single Reactor Netty connection pool, so connections to the Suwayomi Server
+ * are reused across the plain, GraphQL and DGS clients as well as across URL changes. <br>
+ * Concurrent identical queries made with the GraphQL clients share a single request.
  */
 @Getter
 @Service
 public class WebClientService {
 
   private static final Logger log = LoggerFactory.getLogger(WebClientService.class);
+
+  /**
+   * 4MB memory limit for buffered responses. Operations with larger results use the {@link
+   * StreamingGraphQlClient}, which isn't affected by this limit.
+   */
+  private static final int MAX_IN_MEMORY_SIZE = 4 * 1024 * 1024;
+
+  @Getter(AccessLevel.NONE)
+  private final ConnectionProvider connectionProvider;
+
+  @Getter(AccessLevel.NONE)
+  private final HttpClient httpClient;
+
+  @Getter(AccessLevel.NONE)
+  private final ReactorClientHttpConnector connector;
+
+  @Getter(AccessLevel.NONE)
+  private final GraphQlDocumentRegistry documentRegistry;
+
+  @Getter(AccessLevel.NONE)
+  private final boolean persistedQueries;
+
+  @Getter(AccessLevel.NONE)
+  private final ObjectMapper objectMapper;
+
+  @Getter(AccessLevel.NONE)
+  private final ServerLoadFilter serverLoadFilter;
+
+  @Getter(AccessLevel.NONE)
+  private final ClientMetrics clientMetrics;
+
+  @Getter(AccessLevel.NONE)
+  private final ClientMetricsFilter clientMetricsFilter;
+
+  /** Shares concurrent identical read requests made with the plain {@link WebClient}. */
+  private final SingleFlight<String> singleFlight = new SingleFlight<>();
+
+  /** Kept across URL changes, so whether the server supports persisted queries is re-probed. */
+  private final PersistedQueryInterceptor persistedQueryInterceptor;
+
   private WebClient webClient;
   private HttpGraphQlClient graphQlClient;
   private WebSocketGraphQlClient webSocketGraphQlClient;
+  private StreamingGraphQlClient streamingGraphQlClient;
   private WebClientGraphQLClient dgsGraphQlClient;
 
   /**
    * Creates a new instance of the {@link WebClientService} class.
    *
    * @param settingsService the {@link SettingsService} used for getting the current settings.
+   * @param maxConnections the maximum number of pooled connections to the server.
+   * @param maxIdleTime the time after which an idle connection is closed.
+   * @param maxLifeTime the time after which a connection is closed, regardless of its usage.
+   * @param pendingAcquireTimeout the maximum time a request waits for a free connection.
+   * @param evictionInterval the interval in which idle and expired connections are evicted.
+   * @param compression whether responses should be requested gzip compressed.
+   * @param h2c whether HTTP/2 with prior knowledge should be used instead of HTTP/1.1.
+   * @param documentRegistry the {@link GraphQlDocumentRegistry} providing the GraphQL documents.
+   * @param persistedQueries whether GraphQL operations should be sent as persisted queries.
+   * @param objectMapper the {@link ObjectMapper} used to decode streamed GraphQL responses.
+   * @param serverLoadFilter the {@link ServerLoadFilter} limiting the requests to the server.
+   * @param clientMetrics the {@link ClientMetrics} recording the GraphQL operations.
+   * @param clientMetricsFilter the {@link ClientMetricsFilter} recording all requests.
    */
-  public WebClientService(SettingsService settingsService) {
+  public WebClientService(
+      SettingsService settingsService,
+      @Value("${vaaui.http.max-connections:50}") int maxConnections,
+      @Value("${vaaui.http.max-idle-time:30s}") Duration maxIdleTime,
+      @Value("${vaaui.http.max-life-time:5m}") Duration maxLifeTime,
+      @Value("${vaaui.http.pending-acquire-timeout:45s}") Duration pendingAcquireTimeout,
+      @Value("${vaaui.http.eviction-interval:60s}") Duration evictionInterval,
+      @Value("${vaaui.http.compression:true}") boolean compression,
+      @Value("${vaaui.http.h2c:false}") boolean h2c,
+      GraphQlDocumentRegistry documentRegistry,
+      @Value("${vaaui.graphql.persisted-queries:true}") boolean persistedQueries,
+      ObjectMapper objectMapper,
+      ServerLoadFilter serverLoadFilter,
+      ClientMetrics clientMetrics,
+      ClientMetricsFilter clientMetricsFilter) {
     Settings settings = settingsService.getSettings();
+    this.documentRegistry = documentRegistry;
+    this.persistedQueries = persistedQueries;
+    this.persistedQueryInterceptor = new PersistedQueryInterceptor(documentRegistry);
+    this.objectMapper = objectMapper;
+    this.serverLoadFilter = serverLoadFilter;
+    this.clientMetrics = clientMetrics;
+    this.clientMetricsFilter = clientMetricsFilter;
 
-    this.webClient = WebClient.create(settings.getUrl());
-    initGraphQlClient(settings.getUrl());
-    initWebSocketGraphQlClient(settings.getUrl());
-    initDgsGraphQlClient(settings.getUrl());
+    this.connectionProvider =
+        ConnectionProvider.builder("suwayomi")
+            .maxConnections(maxConnections)
+            .maxIdleTime(maxIdleTime)
+            .maxLifeTime(maxLifeTime)
+            .pendingAcquireTimeout(pendingAcquireTimeout)
+            .evictInBackground(evictionInterval)
+            .build();
+
+    // Add .wiretap("reactor.netty.http.client.HttpClient", LogLevel.DEBUG,
+    // AdvancedByteBufFormat.TEXTUAL) to enable logs for graphQL in debug.log
+    this.httpClient =
+        HttpClient.create(connectionProvider)
+            .compress(compression)
+            .keepAlive(true)
+            .protocol(h2c ? HttpProtocol.H2C : HttpProtocol.HTTP11);
+    this.connector = new ReactorClientHttpConnector(httpClient);
+
+    log.debug(
+        "Created Suwayomi connection pool with {} connections (h2c={}, compression={})",
+        maxConnections,
+        h2c,
+        compression);
+
+    initClients(settings.getUrl());
   }
 
   /**
    * Handles an {@link UrlChangeEvent} by updating the clients with the new URL of the server
-   * instance. Should only be called by Spring when an {@link UrlChangeEvent} is published.
+   * instance. Should only be called by Spring when an {@link UrlChangeEvent} is published. The
+   * connection pool is kept and the previous WebSocket client is stopped, so no connections are
+   * leaked by rebuilding the clients. The new server is probed for persisted queries again.
    *
    * @param event the {@link UrlChangeEvent} to handle.
    */
   @EventListener(UrlChangeEvent.class)
   protected void onUrlChange(UrlChangeEvent event) {
-    this.webClient = WebClient.create(event.getUrl());
-
-    initGraphQlClient(event.getUrl());
-    initWebSocketGraphQlClient(event.getUrl());
-    initDgsGraphQlClient(event.getUrl());
+    persistedQueryInterceptor.reset();
+    initClients(event.getUrl());
   }
 
   @PreDestroy
@@ -73,26 +188,59 @@ public class WebClientService {
     if (webSocketGraphQlClient != null) {
       webSocketGraphQlClient.stop().block(Duration.ofSeconds(10));
     }
+
+    connectionProvider.disposeLater().block(Duration.ofSeconds(10));
+  }
+
+  /**
+   * Initializes all clients with the given URL.
+   *
+   * @param url the URL of the server without the {@code /api/graphql} path.
+   */
+  private void initClients(String url) {
+    this.webClient = createWebClientBuilder().baseUrl(url).build();
+
+    initGraphQlClient(url);
+    initWebSocketGraphQlClient(url);
+    initDgsGraphQlClient(url);
+  }
+
+  /**
+   * Creates a new {@link WebClient.Builder} which uses the shared connection pool. All requests
+   * pass through the {@link ServerLoadFilter}, so the server isn't flooded with requests. The
+   * {@link ClientMetricsFilter} comes after it, so the time spent waiting for a permit isn't
+   * included in the request metrics.
+   *
+   * @return a new {@link WebClient.Builder} instance.
+   */
+  private WebClient.Builder createWebClientBuilder() {
+    return WebClient.builder()
+        .clientConnector(connector)
+        .filter(serverLoadFilter)
+        .filter(clientMetricsFilter)
+        .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(MAX_IN_MEMORY_SIZE));
   }
 
   private void initGraphQlClient(String url) {
     url = url + "/api/graphql";
     url = url.replace("//api", "/api");
 
-    // Uncomment this and the clientConnector in the WebClient.builder() to enable logs for graphQL
-    // in debug.log
-    /*  HttpClient nettyClient =
-            HttpClient.create().wiretap("reactor.netty.http.client.HttpClient", LogLevel.DEBUG, AdvancedByteBufFormat.TEXTUAL);
-    */
-    // 4MB memory limit
-    WebClient graphClient =
-        WebClient.builder()
-            .baseUrl(url)
-            //          .clientConnector(new ReactorClientHttpConnector(nettyClient))
-            .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(4 * 1024 * 1024))
-            .build();
+    WebClient graphClient = createWebClientBuilder().baseUrl(url).build();
+
+    // single flight comes first, so shared queries are sent and measured only once
+    var builder =
+        HttpGraphQlClient.builder(graphClient)
+            .documentSource(documentRegistry)
+            .interceptor(new SingleFlightInterceptor(documentRegistry))
+            .interceptor(new GraphQlMetricsInterceptor(clientMetrics));
+
+    if (persistedQueries) {
+      builder.interceptor(persistedQueryInterceptor);
+    }
 
-    this.graphQlClient = HttpGraphQlClient.create(graphClient);
+    this.graphQlClient = builder.build();
+    this.streamingGraphQlClient =
+        new StreamingGraphQlClient(graphClient, documentRegistry, objectMapper);
   }
 
   /**
@@ -101,17 +249,31 @@ public class WebClientService {
    * @param url the URL of the GraphQL server without the {@code /api/graphql} path.
    */
   private void initWebSocketGraphQlClient(String url) {
+    // the session of the previous client would stay open otherwise
+    if (webSocketGraphQlClient != null) {
+      webSocketGraphQlClient
+          .stop()
+          .subscribe(null, e -> log.warn("Couldn't stop the previous WebSocket client", e));
+    }
+
     url = url + "/api/graphql";
     url = url.replace("//api", "/api");
     url = url.replace("http", "ws");
     url = url.replace("https", "wss");
 
-    WebSocketClient webSocketClient = new StandardWebSocketClient();
+    // WebSocket upgrades need HTTP/1.1, but can still share the event loop and pool resources
+    HttpClient webSocketHttpClient = httpClient.protocol(HttpProtocol.HTTP11);
+
+    WebSocketClient webSocketClient =
+        new ReactorNettyWebSocketClient(
+            webSocketHttpClient,
+            () -> WebsocketClientSpec.builder().maxFramePayloadLength(MAX_IN_MEMORY_SIZE));
 
     URI uri = URI.create(url);
 
     this.webSocketGraphQlClient =
         WebSocketGraphQlClient.builder(uri, webSocketClient)
+            .documentSource(documentRegistry)
             .keepAlive(Duration.of(10, ChronoUnit.SECONDS))
             .build();
   }
@@ -125,7 +287,7 @@ public class WebClientService {
     url = url + "/api/graphql";
     url = url.replace("//api", "/api");
 
-    WebClient internal = WebClient.create(url);
+    WebClient internal = createWebClientBuilder().baseUrl(url).build();
 
     this.dgsGraphQlClient = MonoGraphQLClient.createWithWebClient(internal);
   }
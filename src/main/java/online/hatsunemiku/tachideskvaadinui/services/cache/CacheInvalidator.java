@@ -0,0 +1,125 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.cache;
+
+import java.util.function.UnaryOperator;
+import lombok.extern.slf4j.Slf4j;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Chapter;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Manga;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.event.ChapterChangeEvent;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.event.MangaChangeEvent;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.event.MangaUpdateEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the {@code manga} and {@code chapter} caches and the {@link ChapterListStore} up to date
+ * by reacting to the events of changed manga and chapters. Only the entries of the changed manga
+ * and chapters are evicted or patched, so the rest of the cache stays warm.
+ */
+@Slf4j
+@Component
+public class CacheInvalidator {
+
+  private final CacheManager cacheManager;
+  private final ChapterListStore chapterListStore;
+
+  /**
+   * Creates a new {@link CacheInvalidator}.
+   *
+   * @param cacheManager the {@link CacheManager} holding the caches to keep up to date
+   * @param chapterListStore the {@link ChapterListStore} holding the chapter lists to patch
+   */
+  public CacheInvalidator(CacheManager cacheManager, ChapterListStore chapterListStore) {
+    this.cacheManager = cacheManager;
+    this.chapterListStore = chapterListStore;
+  }
+
+  /**
+   * Evicts the manga updated by a library update and their chapter lists, which may be missing new
+   * chapters.
+   *
+   * @param event the {@link MangaUpdateEvent} of the finished update
+   */
+  @EventListener(MangaUpdateEvent.class)
+  public void onMangaUpdate(MangaUpdateEvent event) {
+    if (event.getCompletedJobs() == null) {
+      return;
+    }
+
+    for (Manga manga : event.getCompletedJobs()) {
+      evictManga(manga.getId());
+      chapterListStore.evict(manga.getId());
+    }
+
+    log.debug("Evicted {} updated manga from the cache", event.getCompletedJobs().size());
+  }
+
+  /**
+   * Evicts a manga that was changed locally.
+   *
+   * @param event the {@link MangaChangeEvent} of the manga
+   */
+  @EventListener(MangaChangeEvent.class)
+  public void onMangaChange(MangaChangeEvent event) {
+    evictManga(event.getMangaId());
+  }
+
+  /**
+   * Patches the cached chapter and its entry in the chapter list of its manga. Evicts the manga if
+   * the read progress changed.
+   *
+   * @param event the {@link ChapterChangeEvent} of the chapter
+   */
+  @EventListener(ChapterChangeEvent.class)
+  public void onChapterChange(ChapterChangeEvent event) {
+    UnaryOperator<Chapter> patch =
+        switch (event.getChange()) {
+          case READ -> chapter -> chapter.withRead(true);
+          case UNREAD -> chapter -> chapter.withRead(false);
+          case DOWNLOADED -> chapter -> chapter.withDownloaded(true);
+          case DELETED -> chapter -> chapter.withDownloaded(false);
+        };
+
+    patchChapter(event.getChapterId(), patch);
+    chapterListStore.patch(event.getMangaId(), event.getChapterId(), patch);
+
+    boolean progressChanged =
+        event.getChange() == ChapterChangeEvent.Change.READ
+            || event.getChange() == ChapterChangeEvent.Change.UNREAD;
+
+    // the manga contains the last read chapter
+    if (progressChanged && event.getMangaId() != -1) {
+      evictManga(event.getMangaId());
+    }
+  }
+
+  private void evictManga(int mangaId) {
+    Cache cache = cacheManager.getCache("manga");
+
+    if (cache != null) {
+      // the manga cache is keyed by long IDs
+      cache.evict((long) mangaId);
+    }
+  }
+
+  private void patchChapter(int chapterId, UnaryOperator<Chapter> patch) {
+    Cache cache = cacheManager.getCache("chapter");
+
+    if (cache == null) {
+      return;
+    }
+
+    Chapter cached = cache.get(chapterId, Chapter.class);
+
+    if (cached != null) {
+      cache.put(chapterId, patch.apply(cached));
+    }
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import lombok.extern.slf4j.Slf4j;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Chapter;
+import online.hatsunemiku.tachideskvaadinui.services.client.ChapterProjection;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the chapter lists of manga in the {@code chapterList} cache, so navigating between the
+ * manga page and the reader doesn't request the chapters again.
+ *
+ * <p>Every list is an immutable snapshot sorted by chapter number. It's replaced when the chapters
+ * are requested from the server and patched when a single chapter changes.
+ */
+@Slf4j
+@Component
+public class ChapterListStore {
+
+  private static final String CACHE_NAME = "chapterList";
+
+  private final CacheManager cacheManager;
+
+  /**
+   * Creates a new {@link ChapterListStore}.
+   *
+   * @param cacheManager the {@link CacheManager} providing the {@code chapterList} cache
+   */
+  public ChapterListStore(CacheManager cacheManager) {
+    this.cacheManager = cacheManager;
+  }
+
+  /**
+   * Retrieves the stored chapters of a manga.
+   *
+   * @param mangaId the ID of the manga
+   * @param projection the fields the chapters need to contain
+   * @return the sorted, immutable list of chapters, or {@code null} if no list with the fields of
+   *     the projection is stored
+   */
+  public List<Chapter> get(int mangaId, ChapterProjection projection) {
+    Snapshot snapshot = getCache().get(mangaId, Snapshot.class);
+
+    if (snapshot == null || !snapshot.projection().covers(projection)) {
+      return null;
+    }
+
+    return snapshot.chapters();
+  }
+
+  /**
+   * Replaces the stored chapters of a manga. A list with more fields isn't replaced by one with
+   * fewer fields. It's kept if both contain the same chapters and removed otherwise, as it's
+   * outdated.
+   *
+   * @param mangaId the ID of the manga
+   * @param projection the fields the chapters contain
+   * @param chapters the chapters of the manga in any order
+   * @return the sorted, immutable list of chapters
+   */
+  public synchronized List<Chapter> replace(
+      int mangaId, ChapterProjection projection, List<Chapter> chapters) {
+    List<Chapter> sorted = chapters.stream().sorted().toList();
+    Cache cache = getCache();
+    Snapshot existing = cache.get(mangaId, Snapshot.class);
+
+    if (existing == null || projection.covers(existing.projection())) {
+      cache.put(mangaId, new Snapshot(projection, sorted));
+    } else if (!getIds(existing.chapters()).equals(getIds(sorted))) {
+      log.debug("Removing the outdated chapter list of manga {}", mangaId);
+      cache.evict(mangaId);
+    }
+
+    return sorted;
+  }
+
+  /**
+   * Applies a change to a single stored chapter.
+   *
+   * @param mangaId the ID of the manga of the chapter, or {@code -1} to search all stored lists
+   * @param chapterId the ID of the chapter
+   * @param patch creates the changed chapter from the stored one
+   */
+  public synchronized void patch(int mangaId, int chapterId, UnaryOperator<Chapter> patch) {
+    if (mangaId != -1) {
+      patchList(mangaId, chapterId, patch);
+      return;
+    }
+
+    // finished downloads only know the chapter, so the list containing it has to be searched
+    Object nativeCache = getCache().getNativeCache();
+
+    if (!(nativeCache instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> lists)) {
+      return;
+    }
+
+    for (Object key : List.copyOf(lists.asMap().keySet())) {
+      if (key instanceof Integer id && patchList(id, chapterId, patch)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Removes the stored chapters of a manga, e.g. because new chapters were found.
+   *
+   * @param mangaId the ID of the manga
+   */
+  public void evict(int mangaId) {
+    getCache().evict(mangaId);
+  }
+
+  private boolean patchList(int mangaId, int chapterId, UnaryOperator<Chapter> patch) {
+    Cache cache = getCache();
+    Snapshot snapshot = cache.get(mangaId, Snapshot.class);
+
+    if (snapshot == null) {
+      return false;
+    }
+
+    List<Chapter> chapters = new ArrayList<>(snapshot.chapters());
+
+    for (int i = 0; i < chapters.size(); i++) {
+      if (chapters.get(i).getId() == chapterId) {
+        chapters.set(i, patch.apply(chapters.get(i)));
+        cache.put(mangaId, new Snapshot(snapshot.projection(), List.copyOf(chapters)));
+        log.debug("Patched chapter {} in the chapter list of manga {}", chapterId, mangaId);
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private static List<Integer> getIds(List<Chapter> chapters) {
+    return chapters.stream().map(Chapter::getId).toList();
+  }
+
+  private Cache getCache() {
+    Cache cache = cacheManager.getCache(CACHE_NAME);
+
+    if (cache == null) {
+      throw new IllegalStateException("Cache " + CACHE_NAME + " isn't available");
+    }
+
+    return cache;
+  }
+
+  /** The chapters of a manga and the fields they contain. */
+  private record Snapshot(ChapterProjection projection, List<Chapter> chapters) {}
+}
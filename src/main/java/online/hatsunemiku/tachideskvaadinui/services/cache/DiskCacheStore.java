@@ -0,0 +1,388 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A key-value store in a memory-mapped file, used as the second tier behind a cache that should
+ * survive restarts.
+ *
+ * <p>The file starts with a header, followed by a log of records. Every write appends a record and
+ * updates the end of the log in the header afterwards, so a record that was only partially written
+ * is ignored on the next start. Once the file is full, the least recently used entries are evicted
+ * and the remaining ones are compacted to the start of the log.
+ *
+ * <p>The header contains a version, which is compared to the version the store is opened with. If
+ * they differ, e.g. because the format of the cached objects changed, the stored entries are
+ * discarded.
+ *
+ * <p>Every record contains the time it was written, so callers can ignore values that are too old,
+ * e.g. after the application was stopped for a long time.
+ */
+@Slf4j
+public class DiskCacheStore implements Closeable {
+
+  private static final int MAGIC = 0x56414143;
+  private static final int FORMAT_VERSION = 2;
+
+  /** Magic number, format version, entry version and end of the log. */
+  private static final int HEADER_SIZE = 16;
+
+  private static final int END_POSITION = 12;
+
+  /** Length, checksum, record type, key length and write time. */
+  private static final int RECORD_HEADER_SIZE = 19;
+
+  private static final int WRITE_TIME_POSITION = 11;
+
+  private static final byte PUT = 1;
+  private static final byte REMOVE = 2;
+
+  private final Path file;
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  private final int capacity;
+  private final int version;
+
+  /** The live entries in access order, so the first entry is the least recently used one. */
+  private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(16, 0.75f, true);
+
+  private int end;
+  private long liveBytes;
+
+  private DiskCacheStore(Path file, FileChannel channel, int capacity, int version)
+      throws IOException {
+    this.file = file;
+    this.channel = channel;
+    this.capacity = capacity;
+    this.version = version;
+    this.buffer = channel.map(MapMode.READ_WRITE, 0, capacity);
+  }
+
+  /**
+   * Opens the store in the given file and creates the file if it doesn't exist yet.
+   *
+   * @param file the file of the store
+   * @param maxSize the size of the file in bytes, which limits the size of the stored entries
+   * @param version the version of the stored entries, entries of other versions are discarded
+   * @return the opened {@link DiskCacheStore}
+   * @throws IOException if the file can't be created or mapped
+   */
+  public static DiskCacheStore open(Path file, int maxSize, int version) throws IOException {
+    if (maxSize <= HEADER_SIZE) {
+      throw new IllegalArgumentException("The size of a disk cache must exceed " + HEADER_SIZE);
+    }
+
+    Files.createDirectories(file.toAbsolutePath().getParent());
+
+    FileChannel channel =
+        FileChannel.open(
+            file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+    try {
+      var store = new DiskCacheStore(file, channel, maxSize, version);
+      store.load();
+      return store;
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Retrieves the value of a key.
+   *
+   * @param key the key of the value
+   * @return a copy of the stored value, or {@code null} if there's none
+   */
+  public synchronized byte[] get(String key) {
+    Entry entry = index.get(key);
+
+    if (entry == null) {
+      return null;
+    }
+
+    byte[] value = new byte[entry.valueLength()];
+    buffer.get(entry.valueOffset(), value);
+    return value;
+  }
+
+  /**
+   * Retrieves the value of a key, if it was written recently enough. Older values are removed.
+   *
+   * @param key the key of the value
+   * @param maxAge the longest time since the value was written
+   * @return a copy of the stored value, or {@code null} if there's none or it's too old
+   */
+  public synchronized byte[] get(String key, Duration maxAge) {
+    Entry entry = index.get(key);
+
+    if (entry == null) {
+      return null;
+    }
+
+    long age = System.currentTimeMillis() - entry.writeTime();
+
+    if (age > maxAge.toMillis()) {
+      log.debug("Ignoring {} in {}, it was written {} ms ago", key, file, age);
+      remove(key);
+      return null;
+    }
+
+    return get(key);
+  }
+
+  /**
+   * Stores the value of a key, replacing the previous value. Values that would take up more than
+   * half of the file aren't stored.
+   *
+   * @param key the key of the value
+   * @param value the value to store
+   */
+  public synchronized void put(String key, byte[] value) {
+    byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+    int length = RECORD_HEADER_SIZE + keyBytes.length + value.length;
+
+    if (length > (capacity - HEADER_SIZE) / 2) {
+      log.debug("Not storing {} in {}, the value is too large", key, file);
+      remove(key);
+      return;
+    }
+
+    Entry old = index.remove(key);
+
+    if (old != null) {
+      liveBytes -= old.length();
+    }
+
+    ensureSpace(length);
+
+    int offset = end;
+    long writeTime = System.currentTimeMillis();
+    writeRecord(offset, PUT, keyBytes, value, writeTime);
+    index.put(key, new Entry(offset, length, keyBytes.length, writeTime));
+    liveBytes += length;
+    setEnd(offset + length);
+  }
+
+  /**
+   * Removes the value of a key.
+   *
+   * @param key the key of the value to remove
+   */
+  public synchronized void remove(String key) {
+    Entry old = index.remove(key);
+
+    if (old == null) {
+      return;
+    }
+
+    liveBytes -= old.length();
+
+    byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+    int length = RECORD_HEADER_SIZE + keyBytes.length;
+    ensureSpace(length);
+
+    writeRecord(end, REMOVE, keyBytes, new byte[0], System.currentTimeMillis());
+    setEnd(end + length);
+  }
+
+  /** Removes all values. */
+  public synchronized void clear() {
+    index.clear();
+    liveBytes = 0;
+    setEnd(HEADER_SIZE);
+  }
+
+  /**
+   * Returns the number of stored values.
+   *
+   * @return the number of keys with a value
+   */
+  public synchronized int size() {
+    return index.size();
+  }
+
+  /**
+   * Returns the space taken up by the stored values.
+   *
+   * @return the size of the live records in bytes
+   */
+  public synchronized long getLiveBytes() {
+    return liveBytes;
+  }
+
+  /** Writes all changes to the disk and closes the file. */
+  @Override
+  public synchronized void close() throws IOException {
+    buffer.force();
+    channel.close();
+  }
+
+  private void load() {
+    boolean valid =
+        buffer.getInt(0) == MAGIC
+            && buffer.getInt(4) == FORMAT_VERSION
+            && buffer.getInt(8) == version;
+
+    if (!valid) {
+      log.debug("Initializing disk cache {}", file);
+      buffer.putInt(0, MAGIC);
+      buffer.putInt(4, FORMAT_VERSION);
+      buffer.putInt(8, version);
+      setEnd(HEADER_SIZE);
+      return;
+    }
+
+    int storedEnd = Math.clamp(buffer.getInt(END_POSITION), HEADER_SIZE, capacity);
+    int position = HEADER_SIZE;
+
+    while (position + RECORD_HEADER_SIZE <= storedEnd) {
+      int length = buffer.getInt(position);
+
+      if (length < RECORD_HEADER_SIZE || position + length > storedEnd) {
+        break;
+      }
+
+      if (buffer.getInt(position + 4) != checksum(position, length)) {
+        log.warn("Disk cache {} is corrupted at {}, discarding the rest", file, position);
+        break;
+      }
+
+      byte type = buffer.get(position + 8);
+      int keyLength = buffer.getShort(position + 9);
+      byte[] keyBytes = new byte[keyLength];
+      buffer.get(position + RECORD_HEADER_SIZE, keyBytes);
+      String key = new String(keyBytes, StandardCharsets.UTF_8);
+
+      Entry old = index.remove(key);
+
+      if (old != null) {
+        liveBytes -= old.length();
+      }
+
+      if (type == PUT) {
+        long writeTime = buffer.getLong(position + WRITE_TIME_POSITION);
+        index.put(key, new Entry(position, length, keyLength, writeTime));
+        liveBytes += length;
+      }
+
+      position += length;
+    }
+
+    setEnd(position);
+    log.debug("Loaded {} entries from disk cache {}", index.size(), file);
+  }
+
+  /**
+   * Makes room for a record at the end of the log. If the file is full, the least recently used
+   * entries are evicted until at most half of the file is used, so compactions stay rare.
+   */
+  private void ensureSpace(int length) {
+    if (end + length <= capacity) {
+      return;
+    }
+
+    long target = (capacity - HEADER_SIZE) / 2 - length;
+    Iterator<Entry> iterator = index.values().iterator();
+    int evicted = 0;
+
+    while (liveBytes > target && iterator.hasNext()) {
+      liveBytes -= iterator.next().length();
+      iterator.remove();
+      evicted++;
+    }
+
+    log.debug("Compacting disk cache {}, evicted {} entries", file, evicted);
+    compact();
+  }
+
+  /** Moves the live records to the start of the log, keeping their access order. */
+  private void compact() {
+    Map<String, Entry> entries = new LinkedHashMap<>(index);
+    List<byte[]> records = new ArrayList<>(entries.size());
+
+    for (Entry entry : entries.values()) {
+      byte[] record = new byte[entry.length()];
+      buffer.get(entry.offset(), record);
+      records.add(record);
+    }
+
+    // an interrupted compaction loses the entries instead of leaving a corrupted log behind
+    setEnd(HEADER_SIZE);
+    index.clear();
+
+    int position = HEADER_SIZE;
+    int i = 0;
+
+    for (var entry : entries.entrySet()) {
+      byte[] record = records.get(i++);
+      buffer.put(position, record);
+      index.put(entry.getKey(), entry.getValue().moveTo(position));
+      position += record.length;
+    }
+
+    setEnd(position);
+  }
+
+  private void writeRecord(int offset, byte type, byte[] key, byte[] value, long writeTime) {
+    int length = RECORD_HEADER_SIZE + key.length + value.length;
+
+    buffer.putInt(offset, length);
+    buffer.put(offset + 8, type);
+    buffer.putShort(offset + 9, (short) key.length);
+    buffer.putLong(offset + WRITE_TIME_POSITION, writeTime);
+    buffer.put(offset + RECORD_HEADER_SIZE, key);
+    buffer.put(offset + RECORD_HEADER_SIZE + key.length, value);
+    buffer.putInt(offset + 4, checksum(offset, length));
+  }
+
+  /** Calculates the checksum of a record, which covers everything after the checksum itself. */
+  private int checksum(int offset, int length) {
+    CRC32 crc = new CRC32();
+    crc.update(buffer.slice(offset + 8, length - 8));
+    return (int) crc.getValue();
+  }
+
+  private void setEnd(int end) {
+    this.end = end;
+    buffer.putInt(END_POSITION, end);
+  }
+
+  /** The position of a live record in the file. */
+  private record Entry(int offset, int length, int keyLength, long writeTime) {
+
+    private Entry moveTo(int newOffset) {
+      return new Entry(newOffset, length, keyLength, writeTime);
+    }
+
+    private int valueOffset() {
+      return offset + RECORD_HEADER_SIZE + keyLength;
+    }
+
+    private int valueLength() {
+      return length - RECORD_HEADER_SIZE - keyLength;
+    }
+  }
+}
@@ -0,0 +1,372 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import online.hatsunemiku.tachideskvaadinui.services.SettingsService;
+import online.hatsunemiku.tachideskvaadinui.services.WebClientService;
+import online.hatsunemiku.tachideskvaadinui.services.client.batch.SingleFlight;
+import online.hatsunemiku.tachideskvaadinui.utils.PathUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Keeps the images of the Suwayomi Server, e.g. covers and pages, in a directory on the disk, so
+ * every image is only downloaded from the server once, no matter how many browsers show it.
+ *
+ * <p>Every image is stored in its own file. Once the files exceed the maximum size, the least
+ * recently used ones are deleted. Images older than the maximum age are downloaded again, so
+ * changed covers are picked up eventually.
+ */
+@Slf4j
+@Component
+public class ImageCache {
+
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  private final Path directory;
+  private final long maxSize;
+  private final Duration maxAge;
+  private final WebClientService clientService;
+  private final SettingsService settingsService;
+  private final SingleFlight<String> singleFlight = new SingleFlight<>();
+
+  /** The size of the stored images by their key in access order. */
+  private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(16, 0.75f, true);
+
+  private long totalSize;
+
+  /**
+   * Creates a new {@link ImageCache} and loads the images stored by a previous run.
+   *
+   * @param env the {@link Environment} used to resolve the directory of the cache
+   * @param clientService the {@link WebClientService} used to download the images
+   * @param settingsService the {@link SettingsService} providing the URL of the server
+   * @param maxSize the maximum size of all stored images
+   * @param maxAge the age after which an image is downloaded again
+   * @throws IOException if the directory of the cache can't be created
+   */
+  public ImageCache(
+      Environment env,
+      WebClientService clientService,
+      SettingsService settingsService,
+      @Value("${vaaui.image-cache.max-size:512MB}") DataSize maxSize,
+      @Value("${vaaui.image-cache.max-age:7d}") Duration maxAge)
+      throws IOException {
+    this.directory = PathUtils.getResolvedProjectPath(env).resolve("cache").resolve("images");
+    this.maxSize = maxSize.toBytes();
+    this.maxAge = maxAge;
+    this.clientService = clientService;
+    this.settingsService = settingsService;
+
+    Files.createDirectories(directory);
+    load();
+  }
+
+  /**
+   * Retrieves an image of the server, downloading it if it isn't stored yet or too old. Concurrent
+   * requests for the same image share a single download.
+   *
+   * @param path the path of the image on the server, e.g. {@code /api/v1/manga/1/thumbnail}
+   * @return a {@link Mono} emitting the stored {@link CachedImage}
+   */
+  public Mono<CachedImage> get(String path) {
+    String key = toKey(settingsService.getSettings().getUrl() + path);
+
+    return Mono.fromCallable(() -> lookup(key))
+        .subscribeOn(Schedulers.boundedElastic())
+        .switchIfEmpty(singleFlight.execute(key, () -> download(key, path)));
+  }
+
+  /**
+   * Retrieves an image of the server only if it's already stored, without downloading it.
+   *
+   * @param path the path of the image on the server, e.g. {@code /api/v1/manga/1/thumbnail}
+   * @return the stored {@link CachedImage}, or {@code null} if it isn't stored or too old
+   * @throws IOException if the stored image couldn't be read
+   */
+  public CachedImage peek(String path) throws IOException {
+    return lookup(toKey(settingsService.getSettings().getUrl() + path));
+  }
+
+  /**
+   * Retrieves a stored image by its key without downloading it.
+   *
+   * @param key the key the image is stored under
+   * @return the stored {@link CachedImage}, or {@code null} if it isn't stored or too old
+   * @throws IOException if the stored image couldn't be read
+   */
+  CachedImage lookup(String key) throws IOException {
+    synchronized (this) {
+      // get instead of containsKey, as only get updates the access order
+      if (index.get(key) == null) {
+        return null;
+      }
+    }
+
+    Path file = directory.resolve(key);
+    BasicFileAttributes attributes;
+
+    try {
+      attributes = Files.readAttributes(file, BasicFileAttributes.class);
+    } catch (IOException e) {
+      // deleted from outside
+      forget(key);
+      return null;
+    }
+
+    long age = System.currentTimeMillis() - attributes.lastModifiedTime().toMillis();
+
+    if (age > maxAge.toMillis()) {
+      return null;
+    }
+
+    return describe(key, file, attributes);
+  }
+
+  private Mono<CachedImage> download(String key, String path) {
+    return Mono.defer(
+            () -> {
+              Path temp;
+
+              try {
+                temp = Files.createTempFile(directory, key, TEMP_SUFFIX);
+              } catch (IOException e) {
+                return Mono.error(e);
+              }
+
+              var body =
+                  clientService
+                      .getWebClient()
+                      .get()
+                      .uri(path)
+                      .retrieve()
+                      .bodyToFlux(DataBuffer.class);
+
+              return DataBufferUtils.write(body, temp)
+                  .then(Mono.fromCallable(() -> store(key, temp)))
+                  .doOnError(e -> deleteQuietly(temp));
+            })
+        .subscribeOn(Schedulers.boundedElastic());
+  }
+
+  /**
+   * Stores an image created by the application, e.g. a downscaled cover, under its own key.
+   *
+   * @param key the key to store the image under, which mustn't be the key of a server image
+   * @param content the encoded image
+   * @return the stored {@link CachedImage}
+   * @throws IOException if the image couldn't be written
+   */
+  CachedImage put(String key, byte[] content) throws IOException {
+    Path temp = Files.createTempFile(directory, key, TEMP_SUFFIX);
+
+    try {
+      Files.write(temp, content);
+    } catch (IOException e) {
+      deleteQuietly(temp);
+      throw e;
+    }
+
+    return store(key, temp);
+  }
+
+  private CachedImage store(String key, Path temp) throws IOException {
+    Path file = directory.resolve(key);
+
+    try {
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      // e.g. on Windows, where a file being served can't be replaced
+      deleteQuietly(temp);
+
+      if (Files.notExists(file)) {
+        throw e;
+      }
+
+      log.debug("Couldn't replace image {}, serving the stored one", key, e);
+    }
+
+    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+
+    synchronized (this) {
+      Long previous = index.put(key, attributes.size());
+      totalSize += attributes.size() - (previous == null ? 0 : previous);
+      evict(key);
+    }
+
+    return describe(key, file, attributes);
+  }
+
+  /** Deletes the least recently used images until the stored images fit into the maximum size. */
+  private synchronized void evict(String keep) {
+    Iterator<Map.Entry<String, Long>> iterator = index.entrySet().iterator();
+
+    while (totalSize > maxSize && iterator.hasNext()) {
+      var entry = iterator.next();
+
+      if (entry.getKey().equals(keep)) {
+        continue;
+      }
+
+      iterator.remove();
+      totalSize -= entry.getValue();
+      deleteQuietly(directory.resolve(entry.getKey()));
+    }
+  }
+
+  private synchronized void forget(String key) {
+    Long size = index.remove(key);
+
+    if (size != null) {
+      totalSize -= size;
+    }
+  }
+
+  private void load() throws IOException {
+    List<Path> files;
+
+    try (Stream<Path> stream = Files.list(directory)) {
+      files = stream.toList();
+    }
+
+    List<Path> images =
+        files.stream()
+            .filter(file -> !file.getFileName().toString().endsWith(TEMP_SUFFIX))
+            .sorted(Comparator.comparing(ImageCache::lastModified))
+            .toList();
+
+    // downloads interrupted by the last shutdown
+    files.stream()
+        .filter(file -> file.getFileName().toString().endsWith(TEMP_SUFFIX))
+        .forEach(ImageCache::deleteQuietly);
+
+    synchronized (this) {
+      for (Path image : images) {
+        long size = Files.size(image);
+        index.put(image.getFileName().toString(), size);
+        totalSize += size;
+      }
+
+      evict(null);
+    }
+
+    log.debug("Loaded {} images ({} bytes) from {}", index.size(), totalSize, directory);
+  }
+
+  private static CachedImage describe(String key, Path file, BasicFileAttributes attributes)
+      throws IOException {
+    long size = attributes.size();
+    long lastModified = attributes.lastModifiedTime().toMillis();
+
+    // a stored file is never changed, only replaced, which changes its modification time
+    String etag = "\"%s-%x-%x\"".formatted(key.substring(0, 16), size, lastModified);
+
+    return new CachedImage(file, size, lastModified, etag, detectContentType(file));
+  }
+
+  /** Detects the type of the image from its first bytes, as the server's header isn't stored. */
+  private static String detectContentType(Path file) throws IOException {
+    byte[] header = new byte[12];
+    int read;
+
+    try (InputStream in = Files.newInputStream(file)) {
+      read = in.readNBytes(header, 0, header.length);
+    }
+
+    if (read >= 3 && (header[0] & 0xFF) == 0xFF && (header[1] & 0xFF) == 0xD8) {
+      return MediaType.IMAGE_JPEG_VALUE;
+    }
+
+    if (read >= 4 && (header[0] & 0xFF) == 0x89 && header[1] == 'P' && header[2] == 'N') {
+      return MediaType.IMAGE_PNG_VALUE;
+    }
+
+    String text = new String(header, 0, read, StandardCharsets.ISO_8859_1);
+
+    if (text.startsWith("GIF8")) {
+      return MediaType.IMAGE_GIF_VALUE;
+    }
+
+    if (text.startsWith("RIFF") && text.endsWith("WEBP")) {
+      return "image/webp";
+    }
+
+    return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+  }
+
+  private static String toKey(String url) {
+    return sha256(url.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Hashes content with SHA-256.
+   *
+   * @param content the content to hash
+   * @return the hash as a lowercase hex string
+   */
+  static String sha256(byte[] content) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(content));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 isn't available", e);
+    }
+  }
+
+  private static long lastModified(Path file) {
+    try {
+      return Files.getLastModifiedTime(file).toMillis();
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  private static void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      log.debug("Couldn't delete {}", file, e);
+    }
+  }
+
+  /**
+   * An image stored on the disk.
+   *
+   * @param file the file containing the image
+   * @param size the size of the image in bytes
+   * @param lastModified the time the image was downloaded at in milliseconds since the epoch
+   * @param etag the strong entity tag of the image
+   * @param contentType the media type of the image
+   */
+  public record CachedImage(
+      Path file, long size, long lastModified, String etag, String contentType) {}
+}
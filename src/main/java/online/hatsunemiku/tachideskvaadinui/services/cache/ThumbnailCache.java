@@ -0,0 +1,238 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import online.hatsunemiku.tachideskvaadinui.services.cache.ImageCache.CachedImage;
+import online.hatsunemiku.tachideskvaadinui.services.client.batch.SingleFlight;
+import online.hatsunemiku.tachideskvaadinui.utils.ImageUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Creates downscaled variants of the images of the Suwayomi Server, so grids of manga cards don't
+ * load full-resolution covers.
+ *
+ * <p>An image is decoded once and scaled to all {@link ImageUtils#THUMBNAIL_WIDTHS} smaller than
+ * itself. The variants are stored in the {@link ImageCache} under the hash of the original's
+ * content, so manga sharing a cover, e.g. a placeholder of the source, share the thumbnails too.
+ * Images Java can't decode, e.g. WebP, are served unchanged.
+ */
+@Slf4j
+@Component
+public class ThumbnailCache {
+
+  private static final float JPEG_QUALITY = 0.8f;
+
+  private final ImageCache imageCache;
+  private final SingleFlight<String> singleFlight = new SingleFlight<>();
+
+  /** The content hash and width of the stored originals by their ETag. */
+  private final Cache<String, Original> originals =
+      Caffeine.newBuilder().maximumSize(4096).build();
+
+  /**
+   * Creates a new {@link ThumbnailCache}.
+   *
+   * @param imageCache the {@link ImageCache} providing the originals and storing the thumbnails
+   */
+  public ThumbnailCache(ImageCache imageCache) {
+    this.imageCache = imageCache;
+  }
+
+  /**
+   * Retrieves a thumbnail of an image of the server, creating it if it isn't stored yet.
+   *
+   * @param path the path of the image on the server, e.g. {@code /api/v1/manga/1/thumbnail}
+   * @param width the width of the thumbnail, one of {@link ImageUtils#THUMBNAIL_WIDTHS}
+   * @return a {@link Mono} emitting the thumbnail, or the original if it isn't wider than the
+   *     thumbnail or can't be decoded
+   */
+  public Mono<CachedImage> get(String path, int width) {
+    if (!ImageUtils.THUMBNAIL_WIDTHS.contains(width)) {
+      return Mono.error(new IllegalArgumentException("Unsupported thumbnail width " + width));
+    }
+
+    return imageCache.get(path).flatMap(image -> getThumbnail(image, width));
+  }
+
+  private Mono<CachedImage> getThumbnail(CachedImage image, int width) {
+    return Mono.fromCallable(
+            () -> {
+              Original original = describe(image);
+
+              if (original.width() <= width) {
+                return image;
+              }
+
+              return imageCache.lookup(toKey(original, width));
+            })
+        .subscribeOn(Schedulers.boundedElastic())
+        .switchIfEmpty(
+            singleFlight
+                .execute(image.etag(), () -> createThumbnails(image))
+                .map(thumbnails -> thumbnails.getOrDefault(width, image)));
+  }
+
+  private Mono<Map<Integer, CachedImage>> createThumbnails(CachedImage image) {
+    return Mono.fromCallable(
+            () -> {
+              Original original = describe(image);
+              BufferedImage source = ImageIO.read(image.file().toFile());
+
+              if (source == null) {
+                return Map.<Integer, CachedImage>of();
+              }
+
+              boolean alpha = source.getColorModel().hasAlpha();
+              Map<Integer, CachedImage> thumbnails = new HashMap<>();
+
+              for (int width : ImageUtils.THUMBNAIL_WIDTHS) {
+                if (width >= source.getWidth()) {
+                  continue;
+                }
+
+                String key = toKey(original, width);
+                CachedImage thumbnail = imageCache.lookup(key);
+
+                if (thumbnail == null) {
+                  byte[] content = encode(scale(source, width, alpha), alpha);
+                  thumbnail = imageCache.put(key, content);
+                }
+
+                thumbnails.put(width, thumbnail);
+              }
+
+              log.debug("Created {} thumbnails of {}", thumbnails.size(), image.file());
+              return thumbnails;
+            })
+        .subscribeOn(Schedulers.boundedElastic());
+  }
+
+  private Original describe(CachedImage image) {
+    return originals.get(
+        image.etag(),
+        etag -> {
+          try {
+            byte[] content = Files.readAllBytes(image.file());
+            return new Original(ImageCache.sha256(content), readWidth(content));
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+  }
+
+  /** Reads the width of an image from its header without decoding it. */
+  private static int readWidth(byte[] content) throws IOException {
+    try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(content))) {
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+
+      if (!readers.hasNext()) {
+        return 0;
+      }
+
+      ImageReader reader = readers.next();
+
+      try {
+        reader.setInput(in, true, true);
+        return reader.getWidth(0);
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  /**
+   * Scales an image down in steps of at most half its size, as a single bilinear step skips most
+   * pixels of large images and looks grainy.
+   */
+  private static BufferedImage scale(BufferedImage source, int width, boolean alpha) {
+    int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+    BufferedImage current = source;
+
+    do {
+      int stepWidth = Math.max(width, current.getWidth() / 2);
+      int stepHeight =
+          Math.max(1, Math.round((float) source.getHeight() * stepWidth / source.getWidth()));
+
+      BufferedImage step = new BufferedImage(stepWidth, stepHeight, type);
+      Graphics2D graphics = step.createGraphics();
+
+      try {
+        graphics.setRenderingHint(
+            RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.setRenderingHint(
+            RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        graphics.drawImage(current, 0, 0, stepWidth, stepHeight, null);
+      } finally {
+        graphics.dispose();
+      }
+
+      current = step;
+    } while (current.getWidth() > width);
+
+    return current;
+  }
+
+  /** Encodes a thumbnail as JPEG, or as PNG if it's transparent. */
+  private static byte[] encode(BufferedImage image, boolean alpha) throws IOException {
+    var out = new ByteArrayOutputStream();
+
+    if (alpha) {
+      ImageIO.write(image, "png", out);
+      return out.toByteArray();
+    }
+
+    ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+
+    try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+      ImageWriteParam param = writer.getDefaultWriteParam();
+      param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+      param.setCompressionQuality(JPEG_QUALITY);
+
+      writer.setOutput(stream);
+      writer.write(null, new IIOImage(image, null, null), param);
+    } finally {
+      writer.dispose();
+    }
+
+    return out.toByteArray();
+  }
+
+  private static String toKey(Original original, int width) {
+    return original.hash() + "-w" + width;
+  }
+
+  /**
+   * An image of the server the thumbnails are created from.
+   *
+   * @param hash the SHA-256 hash of the content of the image
+   * @param width the width of the image, or {@code 0} if it can't be decoded
+   */
+  private record Original(String hash, int width) {}
+}
@@ -0,0 +1,204 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.caffeine.CaffeineCache;
+import reactor.core.publisher.Mono;
+
+/**
+ * A Caffeine cache backed by a {@link DiskCacheStore}. Every value put into the cache is also
+ * written to the disk. If a key is missing in memory, e.g. after a restart, the value is restored
+ * from the disk and returned right away, while a fresh value is loaded from the server in the
+ * background. Values written to the disk longer ago than the maximum age of the disk tier aren't
+ * restored. The disk tier keeps values longer than the memory, as the refresh keeps them current.
+ *
+ * <p>Extends {@link CaffeineCache}, so the statistics of the in-memory tier are still published
+ * like those of any other Caffeine cache.
+ */
+@Slf4j
+public class TieredCache extends CaffeineCache {
+
+  private final DiskCacheStore store;
+  private final ObjectMapper mapper;
+  private final Class<?> type;
+  private final Function<Object, Mono<?>> reloader;
+
+  /** The longest time since a value was written to the disk for it to be restored. */
+  private final Duration maxAge;
+
+  /**
+   * Creates a new {@link TieredCache}.
+   *
+   * @param name the name of the cache
+   * @param cache the in-memory tier
+   * @param allowNullValues whether to accept and convert {@code null} values for this cache
+   * @param store the disk tier
+   * @param mapper the {@link ObjectMapper} used to write the values to the disk
+   * @param type the type of the values
+   * @param reloader loads a fresh value for a key restored from the disk, may be {@code null}
+   * @param maxAge the longest time since a value was written to the disk for it to be restored
+   */
+  public TieredCache(
+      String name,
+      com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+      boolean allowNullValues,
+      DiskCacheStore store,
+      ObjectMapper mapper,
+      Class<?> type,
+      Function<Object, Mono<?>> reloader,
+      Duration maxAge) {
+    super(name, cache, allowNullValues);
+    this.store = store;
+    this.mapper = mapper;
+    this.type = type;
+    this.reloader = reloader;
+    this.maxAge = maxAge;
+  }
+
+  @Override
+  protected Object lookup(Object key) {
+    Object value = super.lookup(key);
+
+    if (value != null) {
+      return value;
+    }
+
+    return restore(key);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    return super.get(
+        key,
+        () -> {
+          Object restored = readFromDisk(key);
+
+          if (restored != null) {
+            refresh(key);
+            return (T) restored;
+          }
+
+          T value = valueLoader.call();
+          writeToDisk(key, value);
+          return value;
+        });
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    super.put(key, value);
+    writeToDisk(key, value);
+  }
+
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    ValueWrapper existing = super.putIfAbsent(key, value);
+
+    if (existing == null) {
+      writeToDisk(key, value);
+    }
+
+    return existing;
+  }
+
+  @Override
+  public void evict(Object key) {
+    super.evict(key);
+    store.remove(toStoreKey(key));
+  }
+
+  @Override
+  public boolean evictIfPresent(Object key) {
+    boolean present = super.evictIfPresent(key);
+    store.remove(toStoreKey(key));
+    return present;
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    store.clear();
+  }
+
+  @Override
+  public boolean invalidate() {
+    boolean notEmpty = super.invalidate();
+    store.clear();
+    return notEmpty;
+  }
+
+  private Object restore(Object key) {
+    Object restored = readFromDisk(key);
+
+    if (restored == null) {
+      return null;
+    }
+
+    getNativeCache().put(key, restored);
+    refresh(key);
+
+    return restored;
+  }
+
+  private void refresh(Object key) {
+    if (reloader == null) {
+      return;
+    }
+
+    reloader
+        .apply(key)
+        .cast(Object.class)
+        .doOnNext(value -> put(key, value))
+        // the server doesn't know the value anymore
+        .switchIfEmpty(Mono.fromRunnable(() -> evict(key)))
+        .subscribe(
+            value -> log.debug("Refreshed {} {} restored from disk", getName(), key),
+            // keep the restored value, e.g. while the server is still starting
+            e -> log.debug("Couldn't refresh {} {} restored from disk", getName(), key, e));
+  }
+
+  private Object readFromDisk(Object key) {
+    String storeKey = toStoreKey(key);
+    byte[] bytes = store.get(storeKey, maxAge);
+
+    if (bytes == null) {
+      return null;
+    }
+
+    try {
+      return mapper.readValue(bytes, type);
+    } catch (IOException e) {
+      log.warn("Couldn't read {} {} from disk, removing it", getName(), key, e);
+      store.remove(toStoreKey(key));
+      return null;
+    }
+  }
+
+  private void writeToDisk(Object key, Object value) {
+    if (value == null) {
+      return;
+    }
+
+    try {
+      store.put(toStoreKey(key), mapper.writeValueAsBytes(value));
+    } catch (IOException e) {
+      log.warn("Couldn't write {} {} to disk", getName(), key, e);
+    }
+  }
+
+  /** Converts a key to its text, so numeric keys match regardless of their type. */
+  private static String toStoreKey(Object key) {
+    return String.valueOf(key);
+  }
+}
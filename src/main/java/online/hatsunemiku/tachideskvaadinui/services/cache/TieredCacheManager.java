@@ -0,0 +1,86 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * A {@link CaffeineCacheManager}, which backs the caches with a {@link DiskCacheStore} as a {@link
+ * TieredCache}. Caches without a store are created like in any other {@link CaffeineCacheManager}.
+ */
+@Slf4j
+public class TieredCacheManager extends CaffeineCacheManager implements DisposableBean {
+
+  private final Map<String, DiskTier> diskTiers;
+  private final ObjectMapper mapper;
+
+  /**
+   * Creates a new {@link TieredCacheManager}.
+   *
+   * @param diskTiers the disk tiers by the name of their cache
+   * @param mapper the {@link ObjectMapper} used to write the values to the disk
+   */
+  public TieredCacheManager(Map<String, DiskTier> diskTiers, ObjectMapper mapper) {
+    this.diskTiers = diskTiers;
+    this.mapper = mapper;
+  }
+
+  @Override
+  protected Cache adaptCaffeineCache(
+      String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+    DiskTier tier = diskTiers.get(name);
+
+    if (tier == null) {
+      return super.adaptCaffeineCache(name, cache);
+    }
+
+    return new TieredCache(
+        name,
+        cache,
+        isAllowNullValues(),
+        tier.store(),
+        mapper,
+        tier.type(),
+        tier.reloader(),
+        tier.maxAge());
+  }
+
+  /** Closes the disk stores, which writes their pending changes to the disk. */
+  @Override
+  public void destroy() {
+    for (var entry : diskTiers.entrySet()) {
+      try {
+        entry.getValue().store().close();
+      } catch (IOException e) {
+        log.warn("Couldn't close the disk tier of cache {}", entry.getKey(), e);
+      }
+    }
+  }
+
+  /**
+   * The disk tier of a cache.
+   *
+   * @param store the {@link DiskCacheStore} holding the values
+   * @param type the type of the values
+   * @param reloader loads a fresh value for a key restored from the disk, may be {@code null}
+   * @param maxAge the longest time since a value was written to the disk for it to be restored
+   */
+  public record DiskTier(
+      DiskCacheStore store,
+      Class<?> type,
+      Function<Object, Mono<?>> reloader,
+      Duration maxAge) {}
+}
@@ -6,14 +6,24 @@
 
 package online.hatsunemiku.tachideskvaadinui.services.client;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Category;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.LibrarySnapshot;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Manga;
 import online.hatsunemiku.tachideskvaadinui.services.WebClientService;
 import org.springframework.graphql.client.FieldAccessException;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
+/**
+ * Client for category related requests to the Suwayomi server. All methods are non-blocking and
+ * return a {@link Mono} that sends the request once subscribed to.
+ */
 @Component
 public class CategoryClient {
 
@@ -30,38 +40,17 @@ public class CategoryClient {
    * @return true if the category was successfully created, false otherwise
    * @throws RuntimeException if there was an error while creating the category
    */
-  public boolean createCategory(String name) {
-    String query =
-        """
-        mutation CreateCategory($name: String!) {
-          createCategory(input: {name: $name}) {
-            category {
-              id
-            }
-          }
-        }
-        """;
-
+  public Mono<Boolean> createCategory(String name) {
     var graphClient = clientService.getGraphQlClient();
 
-    Integer id;
-    try {
-      id =
-          graphClient
-              .document(query)
-              .variable("name", name)
-              .retrieve("createCategory.category.id")
-              .toEntity(Integer.class)
-              .block();
-    } catch (FieldAccessException e) {
-      return false;
-    }
-
-    if (id == null) {
-      throw new RuntimeException("Error while creating category");
-    }
-
-    return true;
+    return graphClient
+        .documentName("createCategory")
+        .variable("name", name)
+        .retrieve("createCategory.category.id")
+        .toEntity(Integer.class)
+        .map(id -> true)
+        .switchIfEmpty(Mono.error(new RuntimeException("Error while creating category")))
+        .onErrorReturn(FieldAccessException.class, false);
   }
 
   /**
@@ -71,31 +60,18 @@ public class CategoryClient {
    * @return true if the category was successfully deleted, false otherwise
    * @throws RuntimeException if there was an error while deleting the category
    */
-  public boolean deleteCategory(int categoryId) {
-    String query =
-        """
-        mutation DeleteCategory($categoryId: Int!) {
-          deleteCategory(input: {categoryId: $categoryId}) {
-            category {
-              id
-            }
-          }
-        }
-        """;
-
+  public Mono<Boolean> deleteCategory(int categoryId) {
     var graphClient = clientService.getGraphQlClient();
 
-    Integer id =
-        graphClient
-            .document(query)
-            .variable("categoryId", categoryId)
-            .retrieve("deleteCategory.category.id")
-            .toEntity(Integer.class)
-            .block();
-
     // deleteCategory returns null if the category doesn't exist, meaning there was nothing to
     // delete
-    return id != null;
+    return graphClient
+        .documentName("deleteCategory")
+        .variable("categoryId", categoryId)
+        .retrieve("deleteCategory.category.id")
+        .toEntity(Integer.class)
+        .map(id -> true)
+        .defaultIfEmpty(false);
   }
 
   /**
@@ -104,37 +80,15 @@ public class CategoryClient {
    * @return a list of Category objects representing the categories
    * @throws RuntimeException if there was an error while retrieving the categories
    */
-  public List<Category> getCategories() {
-    String query =
-        """
-        query GetCategories {
-          categories {
-            nodes {
-              default
-              id
-              name
-              order
-            }
-          }
-        }
-        """;
-
+  public Mono<List<Category>> getCategories() {
     var graphClient = clientService.getGraphQlClient();
 
-    var categories =
-        graphClient
-            .document(query)
-            .retrieve("categories.nodes")
-            .toEntityList(Category.class)
-            .block();
-
-    if (categories == null) {
-      throw new RuntimeException("Error while getting categories");
-    }
-
-    categories.sort(Comparator.comparingInt(Category::getOrder));
-
-    return categories;
+    return graphClient
+        .documentName("getCategories")
+        .retrieve("categories.nodes")
+        .toEntityList(Category.class)
+        .switchIfEmpty(Mono.error(new RuntimeException("Error while getting categories")))
+        .doOnNext(categories -> categories.sort(Comparator.comparingInt(Category::getOrder)));
   }
 
   /**
@@ -144,40 +98,62 @@ public class CategoryClient {
    * @return a {@link List list} of {@link Manga} objects representing the manga in the category
    * @throws RuntimeException if there was an error while retrieving the category manga
    */
-  public List<Manga> getCategoryManga(int categoryId) {
-    String query =
-        """
-        query GetCategoryManga($categoryId: Int = 10) {
-          category(id: $categoryId) {
-            mangas {
-              nodes {
-                thumbnailUrl
-                title
-                inLibrary
-                id
-                lastReadChapter {
-                  id
-                }
-              }
-            }
-          }
-        }
-        """;
+  public Mono<List<Manga>> getCategoryManga(int categoryId) {
+    var graphClient = clientService.getGraphQlClient();
 
+    return graphClient
+        .documentName("getCategoryManga")
+        .variable("categoryId", categoryId)
+        .retrieve("category.mangas.nodes")
+        .toEntityList(Manga.class)
+        .switchIfEmpty(Mono.error(new RuntimeException("Error while getting category manga")));
+  }
+
+  /**
+   * Retrieves all categories together with their manga in a single request.
+   *
+   * @param version the version to assign to the snapshot
+   * @return a {@link LibrarySnapshot} of the categories, sorted by their order, and their manga
+   * @throws RuntimeException if there was an error while retrieving the library
+   */
+  public Mono<LibrarySnapshot> getLibrary(long version) {
     var graphClient = clientService.getGraphQlClient();
 
-    var categoryManga =
-        graphClient
-            .document(query)
-            .variable("categoryId", categoryId)
-            .retrieve("category.mangas.nodes")
-            .toEntityList(Manga.class)
-            .block();
+    return graphClient
+        .documentName("getLibrary")
+        .retrieve("categories.nodes")
+        .toEntityList(LibraryCategory.class)
+        .switchIfEmpty(Mono.error(new RuntimeException("Error while getting library")))
+        .map(categories -> toSnapshot(version, categories));
+  }
+
+  private static LibrarySnapshot toSnapshot(long version, List<LibraryCategory> nodes) {
+    List<LibraryCategory> sorted =
+        nodes.stream().sorted(Comparator.comparingInt(LibraryCategory::order)).toList();
 
-    if (categoryManga == null) {
-      throw new RuntimeException("Error while getting category manga");
+    Map<Integer, List<Manga>> manga = new LinkedHashMap<>();
+
+    for (LibraryCategory node : sorted) {
+      manga.put(node.id(), List.copyOf(node.mangas().nodes()));
     }
 
-    return categoryManga;
+    List<Category> categories = sorted.stream().map(LibraryCategory::toCategory).toList();
+
+    return new LibrarySnapshot(version, categories, Collections.unmodifiableMap(manga));
   }
+
+  private record LibraryCategory(
+      int id, int order, String name, @JsonAlias("default") boolean def, MangaNodes mangas) {
+
+    private Category toCategory() {
+      Category category = new Category();
+      category.setId(id);
+      category.setOrder(order);
+      category.setName(name);
+      category.setDef(def);
+      return category;
+    }
+  }
+
+  private record MangaNodes(List<Manga> nodes) {}
 }
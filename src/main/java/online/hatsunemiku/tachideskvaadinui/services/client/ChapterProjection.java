@@ -0,0 +1,60 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.client;
+
+import lombok.Getter;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Chapter;
+
+/**
+ * The sets of fields a chapter list can be requested with. Fields that aren't part of a projection
+ * keep their default value in the returned {@link Chapter chapters}, so a caller should only use
+ * the fields of the projection it requested.
+ */
+@Getter
+public enum ChapterProjection {
+
+  /**
+   * The fields shown in a row of the chapter list of a manga: id, manga id, chapter number, upload
+   * date, read and download status. Also contains the fields of {@link #NAVIGATION}, so a chapter
+   * can be opened from the list without requesting the chapters again.
+   */
+  LIST_ROW("getMangaChapters", "fetchChapterList"),
+
+  /**
+   * The fields needed to navigate between chapters in the reader: id, manga id, name, chapter
+   * number and page count.
+   */
+  NAVIGATION("getMangaChapterNavigation", "fetchChapterNavigation"),
+
+  /** All fields of a chapter, except for the nested manga. */
+  DETAIL("getMangaChapterDetails", "fetchChapterDetails");
+
+  /** The name of the document retrieving the stored chapters. */
+  private final String storedDocument;
+
+  /** The name of the document fetching the chapters from the source first. */
+  private final String fetchDocument;
+
+  ChapterProjection(String storedDocument, String fetchDocument) {
+    this.storedDocument = storedDocument;
+    this.fetchDocument = fetchDocument;
+  }
+
+  /**
+   * Checks if chapters requested with this projection contain all fields of another projection.
+   *
+   * @param other the projection to check
+   * @return {@code true} if this projection contains all fields of the other one
+   */
+  public boolean covers(ChapterProjection other) {
+    return switch (this) {
+      case DETAIL -> true;
+      case LIST_ROW -> other != DETAIL;
+      case NAVIGATION -> other == NAVIGATION;
+    };
+  }
+}
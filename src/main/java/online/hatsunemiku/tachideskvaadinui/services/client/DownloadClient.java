@@ -14,7 +14,12 @@ import online.hatsunemiku.tachideskvaadinui.services.WebClientService;
 import online.hatsunemiku.tachideskvaadinui.services.client.DownloadClient.EnqueueChapterDownloadId.EnqueuedChapter;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+/**
+ * Client for download related requests to the Suwayomi server. All methods are non-blocking and
+ * return a {@link Mono} or {@link Flux} that sends the request once subscribed to.
+ */
 @Slf4j
 @Component
 public class DownloadClient {
@@ -31,51 +36,33 @@ public class DownloadClient {
    * @param chapterIds The list of {@link Chapter#getId() chapter IDs} to download.
    * @return True if all chapters were successfully downloaded, false otherwise.
    */
-  public boolean downloadChapters(List<Integer> chapterIds) {
-    String query =
-        """
-        mutation downloadChapters($chapterIds: [Int!]!) {
-          enqueueChapterDownloads(input: {ids: $chapterIds}) {
-            downloadStatus {
-              queue {
-                chapter {
-                  id
+  public Mono<Boolean> downloadChapters(List<Integer> chapterIds) {
+    var graphClient = clientService.getGraphQlClient();
+
+    return graphClient
+        .documentName("downloadChapters")
+        .variable("chapterIds", chapterIds)
+        .retrieve("enqueueChapterDownloads.downloadStatus.queue")
+        .toEntityList(EnqueueChapterDownloadId.class)
+        .switchIfEmpty(Mono.error(new RuntimeException("Error while downloading chapters")))
+        .map(
+            tempChapterIds -> {
+              var newChapterIds =
+                  tempChapterIds.stream()
+                      .filter(Objects::nonNull)
+                      .map(EnqueueChapterDownloadId::chapter)
+                      .map(EnqueuedChapter::id)
+                      .toList();
+
+              // check if newChapterIds contains all chapterIds
+              for (int chapterId : chapterIds) {
+                if (!newChapterIds.contains(chapterId)) {
+                  return false;
                 }
               }
-            }
-          }
-        }
-        """;
-
-    var graphClient = clientService.getGraphQlClient();
 
-    var tempChapterIds =
-        graphClient
-            .document(query)
-            .variable("chapterIds", chapterIds)
-            .retrieve("enqueueChapterDownloads.downloadStatus.queue")
-            .toEntityList(EnqueueChapterDownloadId.class)
-            .block();
-
-    if (tempChapterIds == null) {
-      throw new RuntimeException("Error while downloading chapters");
-    }
-
-    var newChapterIds =
-        tempChapterIds.stream()
-            .filter(Objects::nonNull)
-            .map(EnqueueChapterDownloadId::chapter)
-            .map(EnqueuedChapter::id)
-            .toList();
-
-    // check if newChapterIds contains all chapterIds
-    for (int chapterId : chapterIds) {
-      if (!newChapterIds.contains(chapterId)) {
-        return false;
-      }
-    }
-
-    return true;
+              return true;
+            });
   }
 
   /**
@@ -84,56 +71,23 @@ public class DownloadClient {
    * @param chapterId The {@link Chapter#getId() chapter ID} to delete.
    * @return True if the chapter was successfully deleted, false otherwise.
    */
-  public boolean deleteChapter(int chapterId) {
-    String query =
-        """
-        mutation deleteChapter($id: Int!) {
-          deleteDownloadedChapter(input: {id: $id}) {
-            chapters {
-              isDownloaded
-            }
-          }
-        }
-        """;
-
+  public Mono<Boolean> deleteChapter(int chapterId) {
     var graphClient = clientService.getGraphQlClient();
 
-    var deletionFail =
-        graphClient
-            .document(query)
-            .variable("id", chapterId)
-            .retrieve("deleteDownloadedChapter.chapters.isDownloaded")
-            .toEntity(Boolean.class)
-            .block();
-
-    if (deletionFail == null) {
-      throw new RuntimeException("Error while deleting chapter");
-    }
-
-    return !deletionFail;
+    return graphClient
+        .documentName("deleteChapter")
+        .variable("id", chapterId)
+        .retrieve("deleteDownloadedChapter.chapters.isDownloaded")
+        .toEntity(Boolean.class)
+        .switchIfEmpty(Mono.error(new RuntimeException("Error while deleting chapter")))
+        .map(deletionFail -> !deletionFail);
   }
 
   public Flux<List<DownloadChangeEvent>> trackDownloads() {
-    // language=graphql
-    String query =
-        """
-            subscription trackDownloads {
-                  downloadChanged {
-                    queue {
-                      progress
-                      state
-                      chapter {
-                        id
-                      }
-                    }
-                  }
-                }
-            """;
-
     var graphClient = clientService.getWebSocketGraphQlClient();
 
     return graphClient
-        .document(query)
+        .documentName("trackDownloads")
         .retrieveSubscription("downloadChanged.queue")
         .toEntityList(DownloadChangeEvent.class);
   }
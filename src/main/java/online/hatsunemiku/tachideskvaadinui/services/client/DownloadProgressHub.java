@@ -0,0 +1,195 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.client;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.event.ChapterChangeEvent;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.event.ChapterChangeEvent.Change;
+import online.hatsunemiku.tachideskvaadinui.services.client.DownloadClient.DownloadChangeEvent;
+import online.hatsunemiku.tachideskvaadinui.services.client.graphql.SubscriptionManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+
+/**
+ * Shares a single download subscription between all listeners. Listeners register for a chapter
+ * ID and only receive the events of that chapter, no matter how many chapters are tracked.
+ *
+ * <p>The subscription to the server is opened when the first listener is added and closed when the
+ * last one is removed. While listeners are registered, it's kept alive by the {@link
+ * SubscriptionManager}.
+ *
+ * <p>Finished downloads are announced as a {@link ChapterChangeEvent}, so cached chapters can be
+ * updated. Every update contains the whole queue, including finished chapters, so each chapter is
+ * announced only once while it stays in the queue.
+ */
+@Slf4j
+@Component
+public class DownloadProgressHub {
+
+  private final DownloadClient downloadClient;
+  private final SubscriptionManager subscriptionManager;
+  private final ApplicationEventPublisher eventPublisher;
+  private final Map<Integer, Set<Listener>> listeners = new ConcurrentHashMap<>();
+
+  /** The finished chapters in the queue, which were already announced. */
+  private final Set<Integer> announced = ConcurrentHashMap.newKeySet();
+
+  private int listenerCount;
+  private Disposable subscription;
+
+  /**
+   * Creates a new {@link DownloadProgressHub}.
+   *
+   * @param downloadClient the {@link DownloadClient} providing the download subscription
+   * @param subscriptionManager the {@link SubscriptionManager} keeping the subscription alive
+   * @param eventPublisher the {@link ApplicationEventPublisher} used to announce finished downloads
+   */
+  public DownloadProgressHub(
+      DownloadClient downloadClient,
+      SubscriptionManager subscriptionManager,
+      ApplicationEventPublisher eventPublisher) {
+    this.downloadClient = downloadClient;
+    this.subscriptionManager = subscriptionManager;
+    this.eventPublisher = eventPublisher;
+  }
+
+  /**
+   * Adds a listener for the download events of a chapter.
+   *
+   * @param chapterId the ID of the chapter to listen for
+   * @param consumer called with every download event of the chapter
+   * @return a {@link Disposable} removing the listener, which may be disposed multiple times
+   */
+  public Disposable addListener(int chapterId, Consumer<DownloadChangeEvent> consumer) {
+    Listener listener = new Listener(chapterId, consumer);
+
+    synchronized (this) {
+      listeners.computeIfAbsent(chapterId, id -> ConcurrentHashMap.newKeySet()).add(listener);
+
+      if (listenerCount++ == 0) {
+        connect();
+      }
+    }
+
+    return listener;
+  }
+
+  /**
+   * Returns the number of registered listeners.
+   *
+   * @return the number of listeners across all chapters
+   */
+  public synchronized int getListenerCount() {
+    return listenerCount;
+  }
+
+  private void remove(Listener listener) {
+    synchronized (this) {
+      Set<Listener> chapterListeners = listeners.get(listener.chapterId);
+
+      if (chapterListeners == null || !chapterListeners.remove(listener)) {
+        return;
+      }
+
+      if (chapterListeners.isEmpty()) {
+        listeners.remove(listener.chapterId);
+      }
+
+      if (--listenerCount == 0) {
+        disconnect();
+      }
+    }
+  }
+
+  private void connect() {
+    log.debug("Opening shared download subscription");
+
+    // progress is only shown for running downloads, so there's nothing to resync
+    subscription =
+        subscriptionManager.subscribe(
+            "trackDownloads", downloadClient::trackDownloads, null, this::route);
+  }
+
+  private void disconnect() {
+    log.debug("Closing shared download subscription, no listeners left");
+
+    if (subscription != null) {
+      subscription.dispose();
+      subscription = null;
+    }
+  }
+
+  private void route(List<DownloadChangeEvent> events) {
+    Set<Integer> finished = new HashSet<>();
+
+    for (DownloadChangeEvent event : events) {
+      if (event.chapter() == null) {
+        continue;
+      }
+
+      if (event.progress() == 1) {
+        int chapterId = event.chapter().id();
+        finished.add(chapterId);
+
+        if (announced.add(chapterId)) {
+          var change = new ChapterChangeEvent(this, chapterId, -1, Change.DOWNLOADED);
+          eventPublisher.publishEvent(change);
+        }
+      }
+
+      Set<Listener> chapterListeners = listeners.get(event.chapter().id());
+
+      if (chapterListeners == null) {
+        continue;
+      }
+
+      for (Listener listener : chapterListeners) {
+        try {
+          listener.consumer.accept(event);
+        } catch (RuntimeException e) {
+          log.error("Download listener for chapter {} failed", listener.chapterId, e);
+        }
+      }
+    }
+
+    // chapters downloaded again after leaving the queue are announced again
+    announced.retainAll(finished);
+  }
+
+  /** A registered listener. Compared by identity, so a consumer can be registered twice. */
+  private class Listener implements Disposable {
+
+    private final int chapterId;
+    private final Consumer<DownloadChangeEvent> consumer;
+    private final AtomicBoolean disposed = new AtomicBoolean();
+
+    private Listener(int chapterId, Consumer<DownloadChangeEvent> consumer) {
+      this.chapterId = chapterId;
+      this.consumer = consumer;
+    }
+
+    @Override
+    public void dispose() {
+      if (disposed.compareAndSet(false, true)) {
+        remove(this);
+      }
+    }
+
+    @Override
+    public boolean isDisposed() {
+      return disposed.get();
+    }
+  }
+}
@@ -11,7 +11,13 @@ import lombok.extern.slf4j.Slf4j;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Extension;
 import online.hatsunemiku.tachideskvaadinui.services.WebClientService;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+/**
+ * Client for extension related requests to the Suwayomi server. All methods are non-blocking and
+ * return a {@link Mono} that sends the request once subscribed to.
+ */
 @Component
 @Slf4j
 public class ExtensionClient {
@@ -22,34 +28,16 @@ public class ExtensionClient {
     this.clientService = clientService;
   }
 
-  public boolean updateExtension(String extensionId) {
-    // language=GraphQL
-    String query =
-        """
-        mutation UpdateExtension($extensionId: String!) {
-          updateExtension(input: {id: $extensionId, patch: {update: true}}) {
-            extension {
-              hasUpdate
-            }
-          }
-        }
-        """;
-
+  public Mono<Boolean> updateExtension(String extensionId) {
     var graphClient = clientService.getGraphQlClient();
 
-    Boolean hasUpdate =
-        graphClient
-            .document(query)
-            .variable("extensionId", extensionId)
-            .retrieve("updateExtension.extension.hasUpdate")
-            .toEntity(Boolean.class)
-            .block();
-
-    if (hasUpdate == null) {
-      throw new RuntimeException("Error while updating extension");
-    }
-
-    return !hasUpdate;
+    return graphClient
+        .documentName("updateExtension")
+        .variable("extensionId", extensionId)
+        .retrieve("updateExtension.extension.hasUpdate")
+        .toEntity(Boolean.class)
+        .switchIfEmpty(Mono.error(new RuntimeException("Error while updating extension")))
+        .map(hasUpdate -> !hasUpdate);
   }
 
   /**
@@ -57,42 +45,27 @@ public class ExtensionClient {
    *
    * @return a {@link List list} of {@link Extension} objects
    * @throws RuntimeException if there is an error while retrieving the extensions
+   * @see #streamExtensions()
    */
-  public List<Extension> getExtensions() {
-    // language=GraphQL
-    String query =
-        """
-        mutation GetExtensions {
-            fetchExtensions(input: {clientMutationId: ""}) {
-                extensions {
-                    pkgName
-                    apkName
-                    isInstalled
-                    isNsfw
-                    isObsolete
-                    lang
-                    name
-                    hasUpdate
-                    iconUrl
-                }
-            }
-        }""";
-
-    var graphClient = clientService.getGraphQlClient();
-
-    // can't use toEntityList because there's too much data, so it exceeds the default buffer size
-    var extensions =
-        graphClient
-            .document(query)
-            .retrieve("fetchExtensions.extensions")
-            .toEntityList(Extension.class)
-            .block();
+  public Mono<List<Extension>> getExtensions() {
+    return streamExtensions()
+        .collectList()
+        .filter(extensions -> !extensions.isEmpty())
+        .switchIfEmpty(Mono.error(new RuntimeException("Error while retrieving extensions")));
+  }
 
-    if (extensions == null || extensions.isEmpty()) {
-      throw new RuntimeException("Error while retrieving extensions");
-    }
+  /**
+   * Retrieves all extensions from the GraphQL server and emits them while the response is still
+   * being received. The catalog is too large to be buffered in memory, so it's decoded as a stream.
+   *
+   * @return a {@link Flux} of {@link Extension} objects
+   */
+  public Flux<Extension> streamExtensions() {
+    var graphClient = clientService.getStreamingGraphQlClient();
 
-    return extensions;
+    return graphClient
+        .documentName("getExtensions")
+        .retrieveEach("fetchExtensions.extensions[]", Extension.class);
   }
 
   /**
@@ -102,7 +75,7 @@ public class ExtensionClient {
    * @return {@code true} if the extension is installed successfully, {@code false} otherwise
    * @throws RuntimeException if there is an error while installing the extension
    */
-  public boolean installExtension(String extensionId) {
+  public Mono<Boolean> installExtension(String extensionId) {
     return updateExtensionInstallStatus(extensionId, true);
   }
 
@@ -113,39 +86,21 @@ public class ExtensionClient {
    * @return {@code true} if the extension is uninstalled successfully, {@code false} otherwise
    * @throws RuntimeException if there is an error while uninstalling the extension
    */
-  public boolean uninstallExtension(String extensionId) {
-    return !updateExtensionInstallStatus(extensionId, false);
+  public Mono<Boolean> uninstallExtension(String extensionId) {
+    return updateExtensionInstallStatus(extensionId, false).map(isInstalled -> !isInstalled);
   }
 
-  private boolean updateExtensionInstallStatus(String extensionId, boolean install) {
-    // language=GraphQL
-    String query =
-        """
-            mutation installExtension($extensionId: String!, $install: Boolean!, $uninstall:Boolean!) {
-              updateExtension(input: {id: $extensionId, patch: {install: $install, uninstall: $uninstall}}) {
-                extension {
-                  isInstalled
-                }
-              }
-            }
-            """;
-
+  private Mono<Boolean> updateExtensionInstallStatus(String extensionId, boolean install) {
     var graphClient = clientService.getGraphQlClient();
 
-    Boolean isInstalled =
-        graphClient
-            .document(query)
-            .variable("extensionId", extensionId)
-            .variable("install", install)
-            .variable("uninstall", !install)
-            .retrieve("updateExtension.extension.isInstalled")
-            .toEntity(Boolean.class)
-            .block();
-
-    if (isInstalled == null) {
-      throw new RuntimeException("Error while updating extension install status");
-    }
-
-    return isInstalled;
+    return graphClient
+        .documentName("updateExtensionInstallStatus")
+        .variable("extensionId", extensionId)
+        .variable("install", install)
+        .variable("uninstall", !install)
+        .retrieve("updateExtension.extension.isInstalled")
+        .toEntity(Boolean.class)
+        .switchIfEmpty(
+            Mono.error(new RuntimeException("Error while updating extension install status")));
   }
 }
@@ -10,9 +10,12 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Manga;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.event.MangaUpdateEvent;
 import online.hatsunemiku.tachideskvaadinui.services.WebClientService;
-import org.intellij.lang.annotations.Language;
+import online.hatsunemiku.tachideskvaadinui.services.client.graphql.SubscriptionManager;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.graphql.client.ClientGraphQlResponse;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
 
 /**
  * Client responsible for any server communication related to manga library updates.
@@ -25,158 +28,106 @@ public class LibUpdateClient {
 
   private final WebClientService webClientService;
   private final ApplicationEventPublisher eventPublisher;
+  private final SubscriptionManager subscriptionManager;
 
   /**
    * Creates a new {@link LibUpdateClient} instance.
    *
    * @param webClientService The {@link WebClientService} used to communicate with the server
    * @param eventPublisher The {@link ApplicationEventPublisher} used to publish events
+   * @param subscriptionManager The {@link SubscriptionManager} keeping the update tracking alive
    */
   public LibUpdateClient(
-      WebClientService webClientService, ApplicationEventPublisher eventPublisher) {
+      WebClientService webClientService,
+      ApplicationEventPublisher eventPublisher,
+      SubscriptionManager subscriptionManager) {
     this.webClientService = webClientService;
     this.eventPublisher = eventPublisher;
+    this.subscriptionManager = subscriptionManager;
   }
 
   /**
    * Starts the library update process on the server.
    *
-   * @return {@code true} if the update process has started running, {@code false} otherwise
+   * @return a {@link Mono} emitting {@code true} if the update process has started running, {@code
+   *     false} otherwise
    */
-  public boolean fetchUpdate() {
-    // language=GraphQL
-    String runningQuery =
-        """
-            mutation updateLibraryManga {
-              updateLibraryManga(input: {}) {
-                updateStatus {
-                  isRunning
-                }
-              }
-            }
-            """;
-
+  public Mono<Boolean> fetchUpdate() {
     var graphClient = webClientService.getGraphQlClient();
 
-    Boolean isRunning =
-        graphClient
-            .document(runningQuery)
-            .retrieve("updateLibraryManga.updateStatus.isRunning")
-            .toEntity(Boolean.class)
-            .block();
-
-    if (isRunning == null) {
-      throw new RuntimeException("Error while updating library");
-    }
-
-    if (!isRunning) {
-      // language=GraphQL
-      String hasSkippedQuery =
-          """
-              query hasSkipped {
-                updateStatus {
-                  skippedJobs {
-                    mangas {
-                      nodes {
-                        id
-                      }
-                    }
-                  }
-                }
+    return graphClient
+        .documentName("updateLibraryManga")
+        .retrieve("updateLibraryManga.updateStatus.isRunning")
+        .toEntity(Boolean.class)
+        .switchIfEmpty(Mono.error(new RuntimeException("Error while updating library")))
+        .flatMap(
+            isRunning -> {
+              if (isRunning) {
+                return Mono.just(true);
               }
-              """;
 
-      var skippedManga =
-          graphClient
-              .document(hasSkippedQuery)
-              .retrieve("updateStatus.skippedJobs.mangas.nodes")
-              .toEntityList(SkippedManga.class)
-              .block();
-
-      if (skippedManga == null) {
-        throw new RuntimeException("Error while updating library");
-      }
-
-      isRunning = !skippedManga.isEmpty();
-    }
-
-    return isRunning;
+              return graphClient
+                  .documentName("hasSkipped")
+                  .retrieve("updateStatus.skippedJobs.mangas.nodes")
+                  .toEntityList(SkippedManga.class)
+                  .switchIfEmpty(
+                      Mono.error(new RuntimeException("Error while updating library")))
+                  .map(skippedManga -> !skippedManga.isEmpty());
+            });
   }
 
-  /** Opens a WebSocket connection to the server to track the update status of the manga library. */
+  /**
+   * Opens a WebSocket connection to the server to track the update status of the manga library. The
+   * subscription is kept alive by the {@link SubscriptionManager}. After a reconnect, the current
+   * update status is queried, so an update that finished while disconnected isn't missed.
+   */
   public void startUpdateTracking() {
-    @Language("GraphQL")
-    String query =
-        """
-            subscription TrackMangaUpdate {
-              updateStatusChanged {
-                completeJobs {
-                  mangas {
-                    nodes {
-                      title
-                      chapters {
-                        totalCount
-                      }
-                      id
-                    }
-                  }
-                }
-                isRunning
-              }
-            }
-            """;
-
-    var graphClient = webClientService.getWebSocketGraphQlClient();
-
-    graphClient
-        .document(query)
-        .executeSubscription()
-        .<MangaUpdateEvent>handle(
-            (data, sink) -> {
-              var completedManga =
-                  data.field("updateStatusChanged.completeJobs.mangas.nodes")
-                      .toEntityList(Manga.class);
-
-              Boolean isRunning =
-                  data.field("updateStatusChanged.isRunning").toEntity(Boolean.class);
-
-              if (isRunning == null) {
-                sink.error(new RuntimeException("Couldn't retrieve update run status"));
-                return;
-              }
-
-              sink.next(new MangaUpdateEvent(isRunning, completedManga));
-            })
-        .doOnNext(
-            event -> {
-              if (event.isRunning()) {
-                return;
-              }
-
-              // send event to event bus
-              eventPublisher.publishEvent(event);
-            })
-        .onErrorComplete(
-            e -> {
-              Thread.ofVirtual().start(this::restartUpdateTracking);
-
-              return true;
-            })
-        .subscribe();
+    subscriptionManager.subscribe(
+        "trackMangaUpdate",
+        () ->
+            webClientService
+                .getWebSocketGraphQlClient()
+                .documentName("trackMangaUpdate")
+                .executeSubscription()
+                .<MangaUpdateEvent>handle(
+                    (data, sink) -> toEvent(data, "updateStatusChanged", sink)),
+        this::getUpdateStatus,
+        event -> {
+          if (event.isRunning()) {
+            return;
+          }
+
+          // send event to event bus
+          eventPublisher.publishEvent(event);
+        });
   }
 
   /**
-   * Restarts the update tracking after a delay of 5 seconds. This is used to prevent the client
-   * from spamming the server with requests in case of an error, such as the server not running yet.
+   * Retrieves the current update status of the manga library.
+   *
+   * @return a {@link Mono} emitting the status as a {@link MangaUpdateEvent}
    */
-  private void restartUpdateTracking() {
-    try {
-      Thread.sleep(5000);
-    } catch (InterruptedException e) {
-      throw new RuntimeException(e);
+  public Mono<MangaUpdateEvent> getUpdateStatus() {
+    return webClientService
+        .getGraphQlClient()
+        .documentName("getUpdateStatus")
+        .execute()
+        .<MangaUpdateEvent>handle((response, sink) -> toEvent(response, "updateStatus", sink));
+  }
+
+  private static void toEvent(
+      ClientGraphQlResponse response, String root, SynchronousSink<MangaUpdateEvent> sink) {
+    var completedManga =
+        response.field(root + ".completeJobs.mangas.nodes").toEntityList(Manga.class);
+
+    Boolean isRunning = response.field(root + ".isRunning").toEntity(Boolean.class);
+
+    if (isRunning == null) {
+      sink.error(new RuntimeException("Couldn't retrieve update run status"));
+      return;
     }
 
-    startUpdateTracking();
+    sink.next(new MangaUpdateEvent(isRunning, completedManga));
   }
 
   /** Represents a manga that has been skipped during the update process. */
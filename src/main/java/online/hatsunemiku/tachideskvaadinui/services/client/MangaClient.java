@@ -6,115 +6,147 @@
 
 package online.hatsunemiku.tachideskvaadinui.services.client;
 
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import lombok.extern.slf4j.Slf4j;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Category;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Chapter;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Manga;
 import online.hatsunemiku.tachideskvaadinui.services.WebClientService;
+import online.hatsunemiku.tachideskvaadinui.services.client.batch.BatchLoader;
 import online.hatsunemiku.tachideskvaadinui.services.client.exception.InvalidResponseException;
-import org.springframework.graphql.client.FieldAccessException;
+import online.hatsunemiku.tachideskvaadinui.utils.GraphQLUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.graphql.client.ClientGraphQlResponse;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+/**
+ * Client for manga and chapter related requests to the Suwayomi server. All methods are
+ * non-blocking and return a {@link Mono} that sends the request once subscribed to.
+ */
 @Component
 @Slf4j
 public class MangaClient {
 
-  private final WebClientService clientService;
-
-  public MangaClient(WebClientService clientService) {
-    this.clientService = clientService;
-  }
+  private static final String CHAPTER_FIELD =
+      """
+      chapter(id: %s) {
+          mangaId
+          isDownloaded
+          chapterNumber
+          name
+          id
+          pageCount
+        }""";
 
-  public boolean addMangaToCategories(List<Integer> categoryIds, int mangaId) {
-    String query =
-        """
-        mutation addMangaToCategories($categoryIds: [Int!], $mangaId: Int!) {
-          updateMangaCategories(
-            input: {id: $mangaId, patch: {addToCategories: $categoryIds}}
-          ) {
-            manga {
-              categories {
-                nodes {
-                  id
-                }
-              }
+  private static final String MANGA_FIELD =
+      """
+      manga(id: %s) {
+          thumbnailUrl
+          title
+          inLibrary
+          id
+          lastReadChapter {
+            id
+          }
+          categories {
+            nodes {
+              id
             }
           }
-        }
-        """;
-
-    var graphClient = clientService.getGraphQlClient();
-
-    var tempCategoryIds =
-        graphClient
-            .document(query)
-            .variable("categoryIds", categoryIds)
-            .variable("mangaId", mangaId)
-            .retrieve("updateMangaCategories.manga.categories.nodes")
-            .toEntityList(UpdateMangaCategoryId.class)
-            .block();
-
-    if (tempCategoryIds == null) {
-      throw new RuntimeException("Error while adding manga to categories");
-    }
-
-    var newCategoryIds =
-        tempCategoryIds.stream().filter(Objects::nonNull).map(UpdateMangaCategoryId::id).toList();
+        }""";
 
-    for (int categoryId : newCategoryIds) {
-      if (!categoryIds.contains(categoryId)) {
-        return false;
-      }
-    }
+  private final WebClientService clientService;
+  private final BatchLoader<Long, Chapter> chapterLoader;
+  private final BatchLoader<Long, Manga> mangaLoader;
 
-    return true;
+  /**
+   * Creates a new {@link MangaClient}. Single chapter and manga lookups are collected for a short
+   * window and sent to the server as one aliased GraphQL request.
+   *
+   * @param clientService the {@link WebClientService} used for making API requests
+   * @param batchWindow the maximum time to wait for more lookups before a batch is sent
+   * @param maxBatchSize the maximum number of lookups in one batch
+   */
+  public MangaClient(
+      WebClientService clientService,
+      @Value("${vaaui.graphql.batch.window:10ms}") Duration batchWindow,
+      @Value("${vaaui.graphql.batch.max-size:50}") int maxBatchSize) {
+    this.clientService = clientService;
+    this.chapterLoader =
+        new BatchLoader<>("chapter", maxBatchSize, batchWindow, this::loadChapters);
+    this.mangaLoader = new BatchLoader<>("manga", maxBatchSize, batchWindow, this::loadManga);
   }
 
-  public boolean removeMangaFromCategories(List<Integer> categoryIds, int mangaId) {
-    String query =
-        """
-        mutation removeMangaFromCategories($categoryIds: [Int!], $mangaId: Int!) {
-          updateMangaCategories(
-            input: {id: $mangaId, patch: {removeFromCategories: $categoryIds}}
-          ) {
-            manga {
-              categories {
-                nodes {
-                  id
-                }
-              }
-            }
-          }
-        }
-        """;
+  @PreDestroy
+  public void destroy() {
+    chapterLoader.dispose();
+    mangaLoader.dispose();
+  }
 
+  public Mono<Boolean> addMangaToCategories(List<Integer> categoryIds, int mangaId) {
     var graphClient = clientService.getGraphQlClient();
 
-    var tempCategoryIds =
-        graphClient
-            .document(query)
-            .variable("categoryIds", categoryIds)
-            .variable("mangaId", mangaId)
-            .retrieve("updateMangaCategories.manga.categories.nodes")
-            .toEntityList(UpdateMangaCategoryId.class)
-            .block();
+    return graphClient
+        .documentName("addMangaToCategories")
+        .variable("categoryIds", categoryIds)
+        .variable("mangaId", mangaId)
+        .retrieve("updateMangaCategories.manga.categories.nodes")
+        .toEntityList(UpdateMangaCategoryId.class)
+        .switchIfEmpty(
+            Mono.error(new RuntimeException("Error while adding manga to categories")))
+        .map(
+            tempCategoryIds -> {
+              var newCategoryIds =
+                  tempCategoryIds.stream()
+                      .filter(Objects::nonNull)
+                      .map(UpdateMangaCategoryId::id)
+                      .toList();
+
+              for (int categoryId : newCategoryIds) {
+                if (!categoryIds.contains(categoryId)) {
+                  return false;
+                }
+              }
 
-    if (tempCategoryIds == null) {
-      throw new RuntimeException("Error while removing manga from categories");
-    }
+              return true;
+            });
+  }
 
-    var newCategoryIds =
-        tempCategoryIds.stream().filter(Objects::nonNull).map(UpdateMangaCategoryId::id).toList();
+  public Mono<Boolean> removeMangaFromCategories(List<Integer> categoryIds, int mangaId) {
+    var graphClient = clientService.getGraphQlClient();
 
-    for (int id : newCategoryIds) {
-      if (categoryIds.contains(id)) {
-        return false;
-      }
-    }
+    return graphClient
+        .documentName("removeMangaFromCategories")
+        .variable("categoryIds", categoryIds)
+        .variable("mangaId", mangaId)
+        .retrieve("updateMangaCategories.manga.categories.nodes")
+        .toEntityList(UpdateMangaCategoryId.class)
+        .switchIfEmpty(
+            Mono.error(new RuntimeException("Error while removing manga from categories")))
+        .map(
+            tempCategoryIds -> {
+              var newCategoryIds =
+                  tempCategoryIds.stream()
+                      .filter(Objects::nonNull)
+                      .map(UpdateMangaCategoryId::id)
+                      .toList();
+
+              for (int id : newCategoryIds) {
+                if (categoryIds.contains(id)) {
+                  return false;
+                }
+              }
 
-    return true;
+              return true;
+            });
   }
 
   /**
@@ -123,130 +155,87 @@ public class MangaClient {
    * @param chapterId The ID of the chapter to retrieve.
    * @return The Chapter object representing the retrieved chapter information.
    * @throws RuntimeException if an error occurs while parsing the JSON response.
+   * @see #getChaptersById(List)
    */
-  public Chapter getChapter(long chapterId) {
-    String query =
-        """
-        query MyQuery($id: Int!) {
-          chapter(id: $id) {
-            mangaId
-            isDownloaded
-            chapterNumber
-            name
-            id
-            pageCount
-          }
-        }
-        """;
-
-    var graphClient = clientService.getGraphQlClient();
-
-    return graphClient
-        .document(query)
-        .variable("id", chapterId)
-        .retrieve("chapter")
-        .toEntity(Chapter.class)
-        .block();
+  public Mono<Chapter> getChapter(long chapterId) {
+    return chapterLoader.load(chapterId);
   }
 
-  public List<Chapter> getChapters(int mangaId) {
-    // language=GraphQL
-    String query =
-        """
-        query getMangaChapters($mangaId: Int!) {
-          manga(id: $mangaId) {
-            chapters {
-              nodes {
-                url
-                chapterNumber
-                mangaId
-                name
-                uploadDate
-                isRead
-                isDownloaded
-                id
-                pageCount
-                manga {
-                  chapters {
-                    edges {
-                      cursor
-                    }
-                  }
-                }
-              }
-            }
-          }
-        }
-        """;
+  /**
+   * Retrieves the stored chapters of a manga with the given projection.
+   *
+   * @param mangaId the ID of the manga
+   * @param projection the {@link ChapterProjection} defining the fields to retrieve
+   * @return the list of {@link Chapter chapters} of the manga
+   */
+  public Mono<List<Chapter>> getChapters(int mangaId, ChapterProjection projection) {
+    return streamChapters(mangaId, projection).collectList();
+  }
 
-    var graphClient = clientService.getGraphQlClient();
+  /**
+   * Retrieves the chapters of a manga and emits them while the response is still being received.
+   *
+   * @param mangaId the ID of the manga
+   * @param projection the {@link ChapterProjection} defining the fields to retrieve
+   * @return a {@link Flux} of the {@link Chapter chapters} of the manga
+   */
+  public Flux<Chapter> streamChapters(int mangaId, ChapterProjection projection) {
+    var graphClient = clientService.getStreamingGraphQlClient();
 
     return graphClient
-        .document(query)
+        .documentName(projection.getStoredDocument())
         .variable("mangaId", mangaId)
-        .retrieve("manga.chapters.nodes")
-        .toEntityList(Chapter.class)
-        .block();
+        .retrieveEach("manga.chapters.nodes[]", Chapter.class);
   }
 
   /**
    * Fetches the list of chapters for the given manga ID.
    *
    * @param mangaId The ID of the manga for which to fetch the chapters.
+   * @param projection The {@link ChapterProjection} defining the fields to retrieve.
    * @return The list of {@link Chapter} objects representing the fetched chapters.
    * @throws InvalidResponseException if the response from the server is invalid
    * @throws RuntimeException if there's an error fetching the corresponding manga
    */
-  public List<Chapter> fetchChapterList(int mangaId) {
-    // Fetch Manga to be able to fetch all chapters for it
-    var manga = getManga(mangaId);
+  public Mono<List<Chapter>> fetchChapterList(int mangaId, ChapterProjection projection) {
+    var graphClient = clientService.getStreamingGraphQlClient();
 
-    if (manga == null) {
-      throw new RuntimeException("Error while fetching manga " + mangaId);
-    }
+    var chapters =
+        graphClient
+            .documentName(projection.getFetchDocument())
+            .variable("mangaId", mangaId)
+            .retrieveEach("fetchChapters.chapters[]", Chapter.class)
+            .collectList();
 
-    // language=graphql
-    String query =
-        """
-        mutation fetchChapterList($mangaId: Int!) {
-             fetchChapters(input: { mangaId: $mangaId }) {
-               chapters {
-                 url
-                 chapterNumber
-                 mangaId
-                 name
-                 uploadDate
-                 isRead
-                 isDownloaded
-                 id
-                 pageCount
-                 manga {
-                   chapters {
-                     edges {
-                       cursor
-                     }
-                   }
-                 }
-               }
-             }
-           }
-        """;
+    // Fetch Manga to be able to fetch all chapters for it
+    return getManga(mangaId)
+        .switchIfEmpty(Mono.error(new RuntimeException("Error while fetching manga " + mangaId)))
+        .then(chapters);
+  }
 
+  /**
+   * Fetches the chapters of a manga from its source without retrieving them, e.g. to find new
+   * chapters during a library update.
+   *
+   * @param mangaId The ID of the manga for which to fetch the chapters.
+   * @return The number of chapters the manga has after the fetch.
+   * @throws RuntimeException if there's an error fetching the corresponding manga
+   */
+  public Mono<Integer> refreshChapterList(int mangaId) {
     var graphClient = clientService.getGraphQlClient();
 
-    return graphClient
-        .document(query)
-        .variable("mangaId", mangaId)
-        .retrieve("fetchChapters.chapters")
-        .toEntityList(Chapter.class)
-        .doOnError(
-            throwable -> {
-              if (throwable instanceof FieldAccessException) {
-                throw new InvalidResponseException(
-                    "Invalid response from server for manga " + mangaId, throwable);
-              }
-            })
-        .block();
+    var chapters =
+        graphClient
+            .documentName("refreshChapterList")
+            .variable("mangaId", mangaId)
+            .retrieve("fetchChapters.chapters")
+            .toEntityList(ChapterId.class)
+            .map(List::size);
+
+    // Fetch Manga to be able to fetch all chapters for it
+    return getManga(mangaId)
+        .switchIfEmpty(Mono.error(new RuntimeException("Error while fetching manga " + mangaId)))
+        .then(chapters);
   }
 
   /**
@@ -256,7 +245,7 @@ public class MangaClient {
    * @return true if the manga was successfully added to the library, false otherwise
    * @throws RuntimeException if there is an error while parsing the JSON response
    */
-  public boolean addMangaToLibrary(int mangaId) {
+  public Mono<Boolean> addMangaToLibrary(int mangaId) {
     return updateMangaLibraryStatus(mangaId, true);
   }
 
@@ -267,25 +256,29 @@ public class MangaClient {
    * @return true if the manga was successfully removed from the library and its categories, false
    *     otherwise
    */
-  public boolean removeMangaFromLibrary(int mangaId) {
-
-    var manga = getManga(mangaId);
-
-    if (manga == null) {
-      return false;
-    }
-
-    var categories = manga.getMangaCategories();
+  public Mono<Boolean> removeMangaFromLibrary(int mangaId) {
+    return getStoredManga(mangaId)
+        .flatMap(
+            manga -> {
+              var categories = manga.getMangaCategories();
+
+              if (categories == null) {
+                return Mono.just(true);
+              }
 
-    if (categories != null) {
-      var categoryIds = categories.stream().map(Category::getId).toList();
+              var categoryIds = categories.stream().map(Category::getId).toList();
 
-      if (!removeMangaFromCategories(categoryIds, mangaId)) {
-        return false;
-      }
-    }
+              return removeMangaFromCategories(categoryIds, mangaId);
+            })
+        .flatMap(
+            removed -> {
+              if (!removed) {
+                return Mono.just(false);
+              }
 
-    return !updateMangaLibraryStatus(mangaId, false);
+              return updateMangaLibraryStatus(mangaId, false).map(inLibrary -> !inLibrary);
+            })
+        .defaultIfEmpty(false);
   }
 
   /**
@@ -295,7 +288,7 @@ public class MangaClient {
    * @return {@code true} if the chapter was successfully marked as read, {@code false} otherwise
    * @throws RuntimeException if there is an error while updating the chapter status
    */
-  public boolean setChapterRead(int chapterId) {
+  public Mono<Boolean> setChapterRead(int chapterId) {
     return updateChapterReadStatus(chapterId, true);
   }
 
@@ -306,41 +299,36 @@ public class MangaClient {
    * @return {@code true} if the chapter was successfully marked as unread, {@code false} otherwise
    * @throws RuntimeException if there is an error while updating the chapter status
    */
-  public boolean setChapterUnread(int chapterId) {
-    return !updateChapterReadStatus(chapterId, false);
+  public Mono<Boolean> setChapterUnread(int chapterId) {
+    return updateChapterReadStatus(chapterId, false).map(isRead -> !isRead);
   }
 
-  public Manga getManga(long mangaId) {
-    String query =
-        """
-        mutation FetchManga($id: Int!) {
-          fetchManga(input: {id: $id}) {
-            manga {
-              thumbnailUrl
-              title
-              inLibrary
-              id
-              lastReadChapter {
-                id
-              }
-              categories {
-                nodes {
-                  id
-                }
-              }
-            }
-          }
-        }
-        """;
-
+  /**
+   * Fetches the manga with the given ID from its source.
+   *
+   * @param mangaId the ID of the manga to fetch
+   * @return the fetched {@link Manga}
+   */
+  public Mono<Manga> getManga(long mangaId) {
     var graphClient = clientService.getGraphQlClient();
 
     return graphClient
-        .document(query)
+        .documentName("fetchManga")
         .variable("id", mangaId)
         .retrieve("fetchManga.manga")
-        .toEntity(Manga.class)
-        .block();
+        .toEntity(Manga.class);
+  }
+
+  /**
+   * Retrieves the manga with the given ID as the server stores it, without fetching it from its
+   * source. Concurrent calls are batched into a single request.
+   *
+   * @param mangaId the ID of the manga to retrieve
+   * @return the stored {@link Manga}
+   * @throws InvalidResponseException if the server didn't return the manga
+   */
+  public Mono<Manga> getStoredManga(long mangaId) {
+    return mangaLoader.load(mangaId);
   }
 
   /**
@@ -352,28 +340,15 @@ public class MangaClient {
    *     false}
    * @throws RuntimeException if there is an error while parsing the JSON response
    */
-  private boolean updateChapterReadStatus(int chapterId, boolean read) {
-    String query =
-        """
-        mutation SetChapterReadStatus($id: Int!, $isRead: Boolean!) {
-          updateChapter(input: {patch: {isRead: $isRead}, id: $id}) {
-            chapter {
-              isRead
-            }
-          }
-        }""";
-
+  private Mono<Boolean> updateChapterReadStatus(int chapterId, boolean read) {
     var graphClient = clientService.getGraphQlClient();
-    Boolean readStatus =
-        graphClient
-            .document(query)
-            .variable("id", chapterId)
-            .variable("isRead", read)
-            .retrieve("updateChapter.chapter.isRead")
-            .toEntity(Boolean.class)
-            .block();
-
-    return Objects.requireNonNullElse(readStatus, false);
+    return graphClient
+        .documentName("setChapterReadStatus")
+        .variable("id", chapterId)
+        .variable("isRead", read)
+        .retrieve("updateChapter.chapter.isRead")
+        .toEntity(Boolean.class)
+        .defaultIfEmpty(false);
   }
 
   /**
@@ -384,49 +359,25 @@ public class MangaClient {
    * @return true if the manga is in the library after the update, false otherwise
    * @throws RuntimeException if there is an error while parsing the JSON response
    */
-  private boolean updateMangaLibraryStatus(int mangaId, boolean add) {
-    String query =
-        """
-        mutation UpdateMangaLibraryStatus($id: Int!, $add: Boolean!) {
-          updateManga(input: {id: $id, patch: {inLibrary: $add}}) {
-            manga {
-              inLibrary
-            }
-          }
-        }
-        """;
-
+  private Mono<Boolean> updateMangaLibraryStatus(int mangaId, boolean add) {
     var graphClient = clientService.getGraphQlClient();
-    Boolean success =
-        graphClient
-            .document(query)
-            .variable("id", mangaId)
-            .variable("add", add)
-            .retrieve("updateManga.manga.inLibrary")
-            .toEntity(Boolean.class)
-            .block();
-
-    return Objects.requireNonNullElse(success, false);
+    return graphClient
+        .documentName("updateMangaLibraryStatus")
+        .variable("id", mangaId)
+        .variable("add", add)
+        .retrieve("updateManga.manga.inLibrary")
+        .toEntity(Boolean.class)
+        .defaultIfEmpty(false);
   }
 
-  public List<String> getChapterPages(int chapterId) {
-    String query =
-        """
-        mutation getChapterPages($chapterId: Int!) {
-          fetchChapterPages(input: {chapterId: $chapterId}) {
-            pages
-          }
-        }
-        """;
-
+  public Mono<List<String>> getChapterPages(int chapterId) {
     var graphClient = clientService.getGraphQlClient();
 
     return graphClient
-        .document(query)
+        .documentName("getChapterPages")
         .variable("chapterId", chapterId)
         .retrieve("fetchChapterPages.pages")
-        .toEntityList(String.class)
-        .block();
+        .toEntityList(String.class);
   }
 
   /**
@@ -434,50 +385,92 @@ public class MangaClient {
    *
    * @return the list of manga, which are in the library
    */
-  public List<Manga> getLibraryManga() {
-    // language=GraphQL
-    String query =
-        """
-            query getLibraryManga {
-              categories {
-                nodes {
-                  mangas {
-                    nodes {
-                      thumbnailUrl
-                      title
-                      inLibrary
-                      id
-                      lastReadChapter {
-                        id
-                      }
-                    }
-                  }
-                }
-              }
-            }
-            """;
+  public Mono<List<Manga>> getLibraryManga() {
+    return streamLibraryManga()
+        .collectList()
+        .onErrorMap(
+            InvalidResponseException.class,
+            e -> new RuntimeException("Error while retrieving library manga", e));
+  }
+
+  /**
+   * Retrieves the manga of all library categories and emits them while the response is still
+   * being received. A manga in multiple categories is emitted once per category.
+   *
+   * @return a {@link Flux} of the {@link Manga} in the library
+   */
+  public Flux<Manga> streamLibraryManga() {
+    var graphClient = clientService.getStreamingGraphQlClient();
+
+    return graphClient
+        .documentName("getLibraryManga")
+        .retrieveEach("categories.nodes[].mangas.nodes[]", Manga.class);
+  }
 
+  /**
+   * Retrieves multiple chapters in a single request.
+   *
+   * @param chapterIds the IDs of the chapters to retrieve
+   * @return the chapters in the same order as the given IDs
+   */
+  public Mono<List<Chapter>> getChaptersById(List<Long> chapterIds) {
+    if (chapterIds.isEmpty()) {
+      return Mono.just(List.of());
+    }
+
+    return Mono.zip(chapterIds.stream().map(chapterLoader::load).toList(), this::toChapters);
+  }
+
+  private List<Chapter> toChapters(Object[] chapters) {
+    return Arrays.stream(chapters).map(Chapter.class::cast).toList();
+  }
+
+  private Mono<Map<Long, Chapter>> loadChapters(List<Long> chapterIds) {
+    String document =
+        GraphQLUtils.buildAliasedDocument(
+            "query", "GetChapters", "Int!", CHAPTER_FIELD, chapterIds.size());
+
+    return executeAliased(document, chapterIds, Chapter.class, "");
+  }
+
+  private Mono<Map<Long, Manga>> loadManga(List<Long> mangaIds) {
+    String document =
+        GraphQLUtils.buildAliasedDocument(
+            "query", "GetMangas", "Int!", MANGA_FIELD, mangaIds.size());
+
+    return executeAliased(document, mangaIds, Manga.class, "");
+  }
+
+  private <T> Mono<Map<Long, T>> executeAliased(
+      String document, List<Long> ids, Class<T> type, String path) {
     var graphClient = clientService.getGraphQlClient();
 
-    List<LibraryCategory> mangaLibrary =
-        graphClient
-            .document(query)
-            .retrieve("categories.nodes")
-            .toEntityList(LibraryCategory.class)
-            .block();
+    return graphClient
+        .document(document)
+        .variables(GraphQLUtils.buildAliasedVariables(ids))
+        .execute()
+        .map(response -> mapAliasedFields(response, ids, type, path));
+  }
+
+  private <T> Map<Long, T> mapAliasedFields(
+      ClientGraphQlResponse response, List<Long> ids, Class<T> type, String path) {
+    Map<Long, T> result = new HashMap<>();
 
-    if (mangaLibrary == null) {
-      throw new RuntimeException("Error while retrieving library manga");
+    for (int i = 0; i < ids.size(); i++) {
+      var field = response.field(GraphQLUtils.alias(i) + path);
+
+      if (field.getValue() == null) {
+        log.warn("No data for ID {} in batched request: {}", ids.get(i), field.getErrors());
+        continue;
+      }
+
+      result.put(ids.get(i), field.toEntity(type));
     }
 
-    return mangaLibrary.parallelStream()
-        .flatMap(libraryManga -> libraryManga.mangas().nodes().stream())
-        .toList();
+    return result;
   }
 
   private record UpdateMangaCategoryId(int id) {}
 
-  private record LibraryCategory(LibraryMangaList mangas) {}
-
-  private record LibraryMangaList(List<Manga> nodes) {}
+  private record ChapterId(int id) {}
 }
@@ -10,7 +10,12 @@ import online.hatsunemiku.tachideskvaadinui.data.tachidesk.search.SourceSearchRe
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.search.SourceSearchResult.SearchResponse;
 import online.hatsunemiku.tachideskvaadinui.services.WebClientService;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
+/**
+ * Client for searching the sources of the Suwayomi server. All methods are non-blocking and return
+ * a {@link Mono} that sends the request once subscribed to.
+ */
 @Component
 public class SearchClient {
 
@@ -20,40 +25,17 @@ public class SearchClient {
     this.webClientService = webClientService;
   }
 
-  public SourceSearchResult search(String searchQuery, int page, String sourceId) {
-    // language=GraphQL
-    String query =
-        """
-        mutation searchSource($sourceId: LongString!, $page: Int!, $query: String!) {
-          fetchSourceManga(
-            input: {page: $page, source: $sourceId, type: SEARCH, query: $query}
-          ) {
-            mangas {
-              id
-              thumbnailUrl
-              title
-            }
-            hasNextPage
-          }
-        }
-        """;
-
+  public Mono<SourceSearchResult> search(String searchQuery, int page, String sourceId) {
     var graphClient = webClientService.getGraphQlClient();
 
-    var result =
-        graphClient
-            .document(query)
-            .variable("sourceId", sourceId)
-            .variable("page", page)
-            .variable("query", searchQuery)
-            .retrieve("fetchSourceManga")
-            .toEntity(SearchResponse.class)
-            .block();
-
-    if (result == null) {
-      throw new RuntimeException("Error while searching");
-    }
-
-    return new SourceSearchResult(result.mangas(), result.hasNextPage(), page);
+    return graphClient
+        .documentName("searchSource")
+        .variable("sourceId", sourceId)
+        .variable("page", page)
+        .variable("query", searchQuery)
+        .retrieve("fetchSourceManga")
+        .toEntity(SearchResponse.class)
+        .switchIfEmpty(Mono.error(new RuntimeException("Error while searching")))
+        .map(result -> new SourceSearchResult(result.mangas(), result.hasNextPage(), page));
   }
 }
@@ -9,7 +9,12 @@ package online.hatsunemiku.tachideskvaadinui.services.client;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.SourceMangaList;
 import online.hatsunemiku.tachideskvaadinui.services.WebClientService;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
+/**
+ * Client for browsing the manga of a source. All methods are non-blocking and return a {@link Mono}
+ * that sends the request once subscribed to.
+ */
 @Component
 public class SourceClient {
 
@@ -19,47 +24,25 @@ public class SourceClient {
     this.webClientService = webClientService;
   }
 
-  public SourceMangaList getPopularManga(String sourceId, int page) {
+  public Mono<SourceMangaList> getPopularManga(String sourceId, int page) {
     return getMangaFromSource(sourceId, page, SourceType.POPULAR);
   }
 
-  public SourceMangaList getLatestManga(String sourceId, int page) {
+  public Mono<SourceMangaList> getLatestManga(String sourceId, int page) {
     return getMangaFromSource(sourceId, page, SourceType.LATEST);
   }
 
-  private SourceMangaList getMangaFromSource(String sourceId, int page, SourceType type) {
-    // language=GraphQL
-    String query =
-        """
-        mutation getPopularSourceManga($sourceId: LongString!, $page: Int!, $type: FetchSourceMangaType!) {
-          fetchSourceManga(input: {page: $page, source: $sourceId, type: $type}) {
-            hasNextPage
-            mangas {
-              id
-              thumbnailUrl
-              title
-            }
-          }
-        }
-        """;
-
+  private Mono<SourceMangaList> getMangaFromSource(String sourceId, int page, SourceType type) {
     var graphClient = webClientService.getGraphQlClient();
 
-    var result =
-        graphClient
-            .document(query)
-            .variable("sourceId", sourceId)
-            .variable("page", page)
-            .variable("type", type.name())
-            .retrieve("fetchSourceManga")
-            .toEntity(SourceMangaList.class)
-            .block();
-
-    if (result == null) {
-      throw new RuntimeException("Error while fetching popular manga");
-    }
-
-    return result;
+    return graphClient
+        .documentName("getSourceManga")
+        .variable("sourceId", sourceId)
+        .variable("page", page)
+        .variable("type", type.name())
+        .retrieve("fetchSourceManga")
+        .toEntity(SourceMangaList.class)
+        .switchIfEmpty(Mono.error(new RuntimeException("Error while fetching popular manga")));
   }
 
   private enum SourceType {
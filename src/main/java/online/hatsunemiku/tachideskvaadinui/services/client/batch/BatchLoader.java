@@ -0,0 +1,116 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.client.batch;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import online.hatsunemiku.tachideskvaadinui.services.client.exception.InvalidResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.publisher.Sinks.EmitFailureHandler;
+
+/**
+ * Collects single key lookups that happen within a short time window and resolves them with one
+ * batched call. This works like a DataLoader: callers ask for one value each, the loader groups
+ * the keys, executes the batch function once and hands every caller its own value.
+ *
+ * <p>Keys that are requested multiple times in the same window are only sent once.
+ *
+ * @param <K> the type of the keys, usually an ID
+ * @param <V> the type of the loaded values
+ */
+@Slf4j
+public class BatchLoader<K, V> {
+
+  private static final Duration BUSY_WAIT = Duration.ofMillis(100);
+
+  private final String name;
+  private final Function<List<K>, Mono<Map<K, V>>> batchFunction;
+  private final Sinks.Many<PendingLoad<K, V>> queue;
+  private final Disposable subscription;
+
+  /**
+   * Creates a new {@link BatchLoader}.
+   *
+   * @param name the name of the loader, used for logging
+   * @param maxBatchSize the maximum amount of keys sent in one batch
+   * @param window the maximum time to wait for more keys before a batch is sent
+   * @param batchFunction the function loading all values for a list of distinct keys. Keys missing
+   *     from the returned map are treated as an invalid response.
+   */
+  public BatchLoader(
+      String name,
+      int maxBatchSize,
+      Duration window,
+      Function<List<K>, Mono<Map<K, V>>> batchFunction) {
+    this.name = name;
+    this.batchFunction = batchFunction;
+    this.queue = Sinks.many().unicast().onBackpressureBuffer();
+    this.subscription =
+        queue.asFlux().bufferTimeout(maxBatchSize, window).flatMap(this::dispatch).subscribe();
+  }
+
+  /**
+   * Loads the value for the given key. The request is sent together with all other keys requested
+   * in the same window.
+   *
+   * @param key the key to load the value for
+   * @return a {@link Mono} emitting the value for the key or an {@link InvalidResponseException}
+   *     if the server didn't return a value for it
+   */
+  public Mono<V> load(K key) {
+    return Mono.defer(
+        () -> {
+          Sinks.One<V> result = Sinks.one();
+          queue.emitNext(new PendingLoad<>(key, result), EmitFailureHandler.busyLooping(BUSY_WAIT));
+          return result.asMono();
+        });
+  }
+
+  /** Stops accepting new keys and cancels the batching pipeline. */
+  public void dispose() {
+    queue.tryEmitComplete();
+    subscription.dispose();
+  }
+
+  private Mono<Void> dispatch(List<PendingLoad<K, V>> pending) {
+    var distinctKeys = new LinkedHashSet<K>();
+    pending.forEach(load -> distinctKeys.add(load.key()));
+    List<K> keys = new ArrayList<>(distinctKeys);
+
+    log.debug("Batch loader {} resolving {} keys for {} callers", name, keys.size(), pending.size());
+
+    return Mono.defer(() -> batchFunction.apply(keys))
+        .defaultIfEmpty(Map.of())
+        .doOnNext(values -> complete(pending, values))
+        .doOnError(e -> pending.forEach(load -> load.result().tryEmitError(e)))
+        .onErrorResume(e -> Mono.empty())
+        .then();
+  }
+
+  private void complete(List<PendingLoad<K, V>> pending, Map<K, V> values) {
+    for (PendingLoad<K, V> load : pending) {
+      V value = values.get(load.key());
+
+      if (value == null) {
+        String message = "No result for key " + load.key() + " in batch " + name;
+        load.result().tryEmitError(new InvalidResponseException(message, null));
+        continue;
+      }
+
+      load.result().tryEmitValue(value);
+    }
+  }
+
+  private record PendingLoad<K, V>(K key, Sinks.One<V> result) {}
+}
@@ -0,0 +1,67 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.client.batch;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+
+/**
+ * Shares identical calls that are in flight at the same time. The first caller for a key starts
+ * the call, every caller arriving before it completes subscribes to the same result instead of
+ * starting another one. Once the call completes, the next caller for the key starts a new call, so
+ * nothing is cached beyond the lifetime of a single call.
+ *
+ * <p>The call is cancelled when all callers have cancelled their subscription.
+ *
+ * @param <K> the type of the keys identifying identical calls
+ */
+@Slf4j
+public class SingleFlight<K> {
+
+  private final ConcurrentMap<K, Publisher<?>> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * Executes the call for the given key or joins the call that's already in flight for it.
+   *
+   * @param key the key identifying the call
+   * @param call creates the call, only invoked if no call for the key is in flight
+   * @param <V> the type of the result
+   * @return a {@link Mono} emitting the shared result
+   */
+  @SuppressWarnings("unchecked")
+  public <V> Mono<V> execute(K key, Supplier<Mono<V>> call) {
+    return Mono.defer(() -> (Mono<V>) inFlight.computeIfAbsent(key, k -> share(k, call)));
+  }
+
+  /**
+   * Returns the number of calls currently in flight.
+   *
+   * @return the number of in flight calls
+   */
+  public int size() {
+    return inFlight.size();
+  }
+
+  private <V> Mono<V> share(K key, Supplier<Mono<V>> call) {
+    var shared = new AtomicReference<Mono<V>>();
+
+    shared.set(Mono.defer(call).doFinally(signal -> remove(key, shared.get())).share());
+
+    return shared.get();
+  }
+
+  private void remove(K key, Publisher<?> call) {
+    if (inFlight.remove(key, call)) {
+      log.trace("Single flight call for {} finished", key);
+    }
+  }
+}
@@ -0,0 +1,26 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.client.exception;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+
+/**
+ * Thrown instead of sending a request while the server is considered unavailable. It extends
+ * {@link WebClientRequestException}, so it's handled like a failed connection, e.g. by redirecting
+ * to the {@link online.hatsunemiku.tachideskvaadinui.view.ServerStartView ServerStartView}.
+ */
+public class ServerUnavailableException extends WebClientRequestException {
+
+  public ServerUnavailableException(ClientRequest request) {
+    super(
+        new IllegalStateException("Server is unavailable, request wasn't sent"),
+        request.method(),
+        request.url(),
+        request.headers());
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.client.graphql;
+
+import graphql.language.Document;
+import graphql.language.OperationDefinition;
+import graphql.language.OperationDefinition.Operation;
+import graphql.parser.InvalidSyntaxException;
+import graphql.parser.Parser;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.UnExecutableSchemaGenerator;
+import graphql.validation.ValidationError;
+import graphql.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.graphql.support.DocumentSource;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Holds all GraphQL operations sent to the Suwayomi server. The documents are loaded from {@code
+ * graphql-documents/*.graphql} once at startup, validated against the bundled Suwayomi schema and
+ * stored together with their SHA-256 hash. The hash is used to send the operations as persisted
+ * queries.
+ *
+ * <p>The registry is used as the {@link DocumentSource} of the GraphQL clients, so operations can
+ * be referenced by their file name with {@code documentName(...)}.
+ */
+@Slf4j
+@Component
+public class GraphQlDocumentRegistry implements DocumentSource {
+
+  private static final String DOCUMENT_LOCATION = "classpath*:graphql-documents/*.graphql";
+  private static final String SCHEMA_LOCATION = "classpath:suwayomi/schema.graphql";
+
+  private final Map<String, PersistedDocument> documents;
+
+  /** Hashes by document text, including documents built at runtime like batched lookups. */
+  private final Map<String, String> hashes = new ConcurrentHashMap<>();
+
+  /** Whether a document only contains queries, by document text. */
+  private final Map<String, Boolean> readOnly = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a new {@link GraphQlDocumentRegistry} and loads all documents.
+   *
+   * @param resolver the {@link ResourcePatternResolver} used to find the documents and the schema
+   * @throws IllegalStateException if a document can't be read or isn't valid for the schema
+   */
+  public GraphQlDocumentRegistry(ResourcePatternResolver resolver) {
+    GraphQLSchema schema = loadSchema(resolver);
+    this.documents = loadDocuments(resolver, schema);
+
+    log.info("Loaded {} GraphQL documents", documents.size());
+  }
+
+  @Override
+  public Mono<String> getDocument(String name) {
+    PersistedDocument document = documents.get(name);
+
+    if (document == null) {
+      return Mono.error(new IllegalStateException("No GraphQL document named " + name));
+    }
+
+    return Mono.just(document.text());
+  }
+
+  /**
+   * Returns the SHA-256 hash of a document. Registered documents use their precomputed hash, the
+   * hashes of all other documents are computed once and cached.
+   *
+   * @param text the text of the document
+   * @return the hex encoded SHA-256 hash of the document
+   */
+  public String getHash(String text) {
+    return hashes.computeIfAbsent(text, GraphQlDocumentRegistry::sha256);
+  }
+
+  /**
+   * Checks if a document only contains queries. Documents with mutations or subscriptions, and
+   * documents that can't be parsed, aren't read-only.
+   *
+   * @param text the text of the document
+   * @return {@code true} if all operations of the document are queries, {@code false} otherwise
+   */
+  public boolean isReadOnly(String text) {
+    return readOnly.computeIfAbsent(text, GraphQlDocumentRegistry::containsOnlyQueries);
+  }
+
+  /**
+   * Returns a registered document by its name.
+   *
+   * @param name the name of the document, which is its file name without extension
+   * @return the {@link PersistedDocument} or {@code null} if there's no document with that name
+   */
+  public PersistedDocument get(String name) {
+    return documents.get(name);
+  }
+
+  private Map<String, PersistedDocument> loadDocuments(
+      ResourcePatternResolver resolver, GraphQLSchema schema) {
+    Resource[] resources;
+    try {
+      resources = resolver.getResources(DOCUMENT_LOCATION);
+    } catch (IOException e) {
+      throw new IllegalStateException("Couldn't list GraphQL documents", e);
+    }
+
+    Map<String, PersistedDocument> loaded = new HashMap<>();
+
+    for (Resource resource : resources) {
+      String fileName = Objects.requireNonNull(resource.getFilename());
+      String name = fileName.substring(0, fileName.length() - ".graphql".length());
+      String text = read(resource);
+
+      if (schema != null) {
+        validate(name, text, schema);
+      }
+
+      String hash = sha256(text);
+      hashes.put(text, hash);
+      loaded.put(name, new PersistedDocument(name, text, hash));
+    }
+
+    return Map.copyOf(loaded);
+  }
+
+  private GraphQLSchema loadSchema(ResourcePatternResolver resolver) {
+    Resource resource = resolver.getResource(SCHEMA_LOCATION);
+
+    if (!resource.exists()) {
+      log.warn("Suwayomi schema not found, GraphQL documents won't be validated");
+      return null;
+    }
+
+    var typeRegistry = new SchemaParser().parse(read(resource));
+    return UnExecutableSchemaGenerator.makeUnExecutableSchema(typeRegistry);
+  }
+
+  private void validate(String name, String text, GraphQLSchema schema) {
+    Document document;
+    try {
+      document = Parser.parse(text);
+    } catch (InvalidSyntaxException e) {
+      throw new IllegalStateException("GraphQL document " + name + " has invalid syntax", e);
+    }
+
+    List<ValidationError> errors =
+        new Validator().validateDocument(schema, document, Locale.ENGLISH);
+
+    if (!errors.isEmpty()) {
+      throw new IllegalStateException("GraphQL document " + name + " is invalid: " + errors);
+    }
+  }
+
+  private static boolean containsOnlyQueries(String text) {
+    try {
+      var operations = Parser.parse(text).getDefinitionsOfType(OperationDefinition.class);
+
+      return !operations.isEmpty()
+          && operations.stream().allMatch(op -> op.getOperation() == Operation.QUERY);
+    } catch (InvalidSyntaxException e) {
+      return false;
+    }
+  }
+
+  private static String read(Resource resource) {
+    try (InputStream in = resource.getInputStream()) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new IllegalStateException("Couldn't read " + resource.getDescription(), e);
+    }
+  }
+
+  private static String sha256(String text) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      byte[] hash = digest.digest(text.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(hash);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /**
+   * A GraphQL document loaded by the registry.
+   *
+   * @param name the name of the document
+   * @param text the text of the document, which is sent to the server
+   * @param hash the hex encoded SHA-256 hash of the text
+   */
+  public record PersistedDocument(String name, String text, String hash) {}
+}
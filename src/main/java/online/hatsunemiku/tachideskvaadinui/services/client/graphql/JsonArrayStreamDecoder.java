@@ -0,0 +1,259 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.client.graphql;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import online.hatsunemiku.tachideskvaadinui.services.client.exception.InvalidResponseException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Decodes the elements of a JSON array while the response is still being received. The bytes are
+ * fed into Jackson's non-blocking parser and only the tokens of the element that is currently
+ * decoded are kept in memory, so the size of the whole response doesn't matter.
+ *
+ * <p>The elements are selected with a simple path relative to the GraphQL {@code data} field.
+ * Segments are separated by dots and {@code []} marks an array whose elements should be visited,
+ * e.g. {@code categories.nodes[].mangas.nodes[]} emits the manga of all categories.
+ *
+ * <p>GraphQL errors in the response are reported as an {@link InvalidResponseException} once the
+ * response is complete.
+ *
+ * @param <T> the type of the decoded elements
+ */
+public class JsonArrayStreamDecoder<T> {
+
+  private static final String ARRAY = "[]";
+  private static final String[] ERRORS_PATH = {"errors"};
+  private static final TypeReference<List<Map<String, Object>>> ERROR_LIST =
+      new TypeReference<>() {};
+
+  private final ObjectMapper mapper;
+  private final ObjectReader reader;
+  private final String[] path;
+
+  /**
+   * Creates a new {@link JsonArrayStreamDecoder}.
+   *
+   * @param mapper the {@link ObjectMapper} used to create the parser and map the elements
+   * @param path the path of the array elements relative to the {@code data} field
+   * @param type the type the elements are mapped to
+   */
+  public JsonArrayStreamDecoder(ObjectMapper mapper, String path, Class<T> type) {
+    this.mapper = mapper;
+    this.reader = mapper.readerFor(type);
+    this.path = parsePath(path);
+  }
+
+  /**
+   * Decodes the given response body. Every subscription uses its own parser, so the returned
+   * {@link Flux} can be subscribed to multiple times if the body can be.
+   *
+   * @param body the raw response body
+   * @return a {@link Flux} emitting the elements in the order they appear in the response
+   */
+  public Flux<T> decode(Flux<DataBuffer> body) {
+    return Flux.defer(
+        () -> {
+          State state = new State();
+
+          return body.concatMapIterable(state::feed)
+              .concatWith(Mono.fromCallable(state::finish).flatMapIterable(elements -> elements))
+              .doFinally(signal -> state.close());
+        });
+  }
+
+  private static String[] parsePath(String path) {
+    List<String> segments = new ArrayList<>();
+    segments.add("data");
+
+    for (String segment : path.split("\\.")) {
+      if (segment.endsWith(ARRAY)) {
+        segments.add(segment.substring(0, segment.length() - ARRAY.length()));
+        segments.add(ARRAY);
+      } else {
+        segments.add(segment);
+      }
+    }
+
+    return segments.toArray(String[]::new);
+  }
+
+  /**
+   * Checks if the value the parser is currently at is located at the given path.
+   *
+   * @param parser the parser positioned at the first token of a value
+   * @param expected the segments of the expected path
+   */
+  private static boolean isAt(JsonParser parser, String[] expected) {
+    JsonStreamContext context = parser.getParsingContext();
+
+    // containers open a new context, but their location is defined by the enclosing one
+    if (parser.currentToken().isStructStart()) {
+      context = context.getParent();
+    }
+
+    int index = expected.length - 1;
+
+    while (context != null && !context.inRoot()) {
+      if (index < 0) {
+        return false;
+      }
+
+      String segment = context.inArray() ? ARRAY : context.getCurrentName();
+
+      if (!expected[index].equals(segment)) {
+        return false;
+      }
+
+      index--;
+      context = context.getParent();
+    }
+
+    return index < 0;
+  }
+
+  /** The parsing state of a single response. */
+  private class State {
+
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final List<Map<String, Object>> errors = new ArrayList<>();
+
+    private TokenBuffer capture;
+    private boolean capturingErrors;
+    private int captureDepth;
+
+    private State() {
+      try {
+        this.parser = mapper.getFactory().createNonBlockingByteArrayParser();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    private List<T> feed(DataBuffer buffer) {
+      byte[] bytes = new byte[buffer.readableByteCount()];
+      buffer.read(bytes);
+      DataBufferUtils.release(buffer);
+
+      try {
+        feeder.feedInput(bytes, 0, bytes.length);
+        return parseAvailable();
+      } catch (IOException e) {
+        throw new InvalidResponseException("Couldn't parse response from server", e);
+      }
+    }
+
+    private List<T> finish() {
+      try {
+        feeder.endOfInput();
+        List<T> elements = parseAvailable();
+
+        if (!errors.isEmpty()) {
+          throw new InvalidResponseException("Server returned errors: " + errors, null);
+        }
+
+        return elements;
+      } catch (IOException e) {
+        throw new InvalidResponseException("Couldn't parse response from server", e);
+      }
+    }
+
+    private void close() {
+      try {
+        parser.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    private List<T> parseAvailable() throws IOException {
+      List<T> elements = new ArrayList<>();
+      JsonToken token;
+
+      while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+        if (capture != null) {
+          continueCapture(token, elements);
+          continue;
+        }
+
+        if (token == JsonToken.FIELD_NAME || token.isStructEnd()) {
+          continue;
+        }
+
+        if (isAt(parser, path)) {
+          startCapture(token, false, elements);
+        } else if (isAt(parser, ERRORS_PATH)) {
+          startCapture(token, true, elements);
+        }
+      }
+
+      return elements;
+    }
+
+    private void startCapture(JsonToken token, boolean errorCapture, List<T> elements)
+        throws IOException {
+      capture = new TokenBuffer(parser);
+      capturingErrors = errorCapture;
+      captureDepth = 0;
+      continueCapture(token, elements);
+    }
+
+    private void continueCapture(JsonToken token, List<T> elements) throws IOException {
+      capture.copyCurrentEvent(parser);
+
+      if (token.isStructStart()) {
+        captureDepth++;
+      } else if (token.isStructEnd()) {
+        captureDepth--;
+      }
+
+      if (captureDepth > 0) {
+        return;
+      }
+
+      try (JsonParser captured = capture.asParser(mapper)) {
+        if (capturingErrors) {
+          collectErrors(captured);
+        } else {
+          T element = reader.readValue(captured);
+
+          // null elements can't be emitted by a Flux
+          if (element != null) {
+            elements.add(element);
+          }
+        }
+      } finally {
+        capture = null;
+      }
+    }
+
+    private void collectErrors(JsonParser captured) throws IOException {
+      List<Map<String, Object>> values = mapper.readValue(captured, ERROR_LIST);
+
+      if (values != null) {
+        errors.addAll(values);
+      }
+    }
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.client.graphql;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.graphql.ResponseError;
+import org.springframework.graphql.client.ClientGraphQlRequest;
+import org.springframework.graphql.client.ClientGraphQlResponse;
+import org.springframework.graphql.client.GraphQlClientInterceptor;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Sends GraphQL queries as Automatic Persisted Queries. The first attempt only contains the SHA-256
+ * hash of the document. If the server doesn't know the hash yet, or rejects the attempt in any
+ * other way, the request is repeated with the full document, so the server can store it for the
+ * next time. Mutations are always sent with the full document, as they mustn't be repeated.
+ *
+ * <p>If the server doesn't support persisted queries at all, the interceptor falls back to sending
+ * the full document and stops using hashes until {@link #reset()} is called, e.g. because the URL
+ * of the server changed.
+ */
+@Slf4j
+public class PersistedQueryInterceptor implements GraphQlClientInterceptor {
+
+  private static final String NOT_FOUND = "PERSISTED_QUERY_NOT_FOUND";
+  private static final String NOT_SUPPORTED = "PERSISTED_QUERY_NOT_SUPPORTED";
+
+  private final GraphQlDocumentRegistry registry;
+  private volatile boolean supported = true;
+
+  /**
+   * Creates a new {@link PersistedQueryInterceptor}.
+   *
+   * @param registry the {@link GraphQlDocumentRegistry} used to look up the document hashes and
+   *     operation types
+   */
+  public PersistedQueryInterceptor(GraphQlDocumentRegistry registry) {
+    this.registry = registry;
+  }
+
+  /** Sends hashes again, e.g. because the clients now talk to another server. */
+  public void reset() {
+    supported = true;
+  }
+
+  @Override
+  public Mono<ClientGraphQlResponse> intercept(ClientGraphQlRequest request, Chain chain) {
+    if (!supported || !registry.isReadOnly(request.getDocument())) {
+      return chain.next(request);
+    }
+
+    String hash = registry.getHash(request.getDocument());
+
+    return chain
+        .next(new PersistedQueryRequest(request, hash, false))
+        .flatMap(
+            response -> {
+              if (hasError(response, NOT_FOUND)) {
+                return chain.next(new PersistedQueryRequest(request, hash, true));
+              }
+
+              if (response.getErrors().isEmpty() || response.getData() != null) {
+                return Mono.just(response);
+              }
+
+              return fallback(request, chain, response.getErrors());
+            })
+        .onErrorResume(
+            WebClientResponseException.class, e -> fallback(request, chain, List.of()));
+  }
+
+  /**
+   * Sends the full document after a hash-only request was rejected. If the server said it doesn't
+   * support persisted queries, or the full document succeeds where the hash failed, the hashes
+   * won't be sent anymore.
+   */
+  private Mono<ClientGraphQlResponse> fallback(
+      ClientGraphQlRequest request, Chain chain, List<ResponseError> errors) {
+    return chain
+        .next(request)
+        .doOnNext(
+            response -> {
+              boolean rejected = hasError(errors, NOT_SUPPORTED);
+
+              if (supported && (rejected || response.getErrors().isEmpty())) {
+                log.info("Server doesn't support persisted queries, sending full documents");
+                supported = false;
+              }
+            });
+  }
+
+  private static boolean hasError(ClientGraphQlResponse response, String code) {
+    return hasError(response.getErrors(), code);
+  }
+
+  private static boolean hasError(List<ResponseError> errors, String code) {
+    for (ResponseError error : errors) {
+      Object errorCode = error.getExtensions().get("code");
+
+      if (code.equals(errorCode) || code.equalsIgnoreCase(camelToSnake(error.getMessage()))) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /** Converts messages like {@code PersistedQueryNotFound} to {@code PERSISTED_QUERY_NOT_FOUND}. */
+  private static String camelToSnake(String message) {
+    if (message == null) {
+      return "";
+    }
+
+    return message.replaceAll("([a-z])([A-Z])", "$1_$2");
+  }
+
+  /**
+   * Wraps a request and adds the {@code persistedQuery} extension to it. The document itself is
+   * only included when the server asked for it.
+   */
+  private static class PersistedQueryRequest implements ClientGraphQlRequest {
+
+    private final ClientGraphQlRequest delegate;
+    private final Map<String, Object> extensions;
+    private final boolean includeDocument;
+
+    private PersistedQueryRequest(
+        ClientGraphQlRequest delegate, String hash, boolean includeDocument) {
+      this.delegate = delegate;
+      this.includeDocument = includeDocument;
+      this.extensions = new HashMap<>(delegate.getExtensions());
+      this.extensions.put("persistedQuery", Map.of("version", 1, "sha256Hash", hash));
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+      return delegate.getAttributes();
+    }
+
+    @Override
+    public String getDocument() {
+      return delegate.getDocument();
+    }
+
+    @Override
+    public String getOperationName() {
+      return delegate.getOperationName();
+    }
+
+    @Override
+    public Map<String, Object> getVariables() {
+      return delegate.getVariables();
+    }
+
+    @Override
+    public Map<String, Object> getExtensions() {
+      return extensions;
+    }
+
+    @Override
+    public Map<String, Object> toMap() {
+      Map<String, Object> map = new HashMap<>(delegate.toMap());
+
+      if (!includeDocument) {
+        map.remove("query");
+      }
+
+      map.put("extensions", extensions);
+      return map;
+    }
+  }
+}
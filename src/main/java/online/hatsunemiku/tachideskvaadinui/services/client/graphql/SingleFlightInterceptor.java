@@ -0,0 +1,59 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.client.graphql;
+
+import java.util.HashMap;
+import java.util.Map;
+import online.hatsunemiku.tachideskvaadinui.services.client.batch.SingleFlight;
+import org.springframework.graphql.client.ClientGraphQlRequest;
+import org.springframework.graphql.client.ClientGraphQlResponse;
+import org.springframework.graphql.client.GraphQlClientInterceptor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Lets concurrent identical queries share one request to the server. Two requests are identical if
+ * they have the same document, operation name and variables. Mutations always pass through, as
+ * every one of them has to reach the server.
+ */
+public class SingleFlightInterceptor implements GraphQlClientInterceptor {
+
+  private final GraphQlDocumentRegistry registry;
+  private final SingleFlight<OperationKey> singleFlight = new SingleFlight<>();
+
+  /**
+   * Creates a new {@link SingleFlightInterceptor}.
+   *
+   * @param registry the {@link GraphQlDocumentRegistry} used to check if a document is read-only
+   */
+  public SingleFlightInterceptor(GraphQlDocumentRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  public Mono<ClientGraphQlResponse> intercept(ClientGraphQlRequest request, Chain chain) {
+    if (!registry.isReadOnly(request.getDocument())) {
+      return chain.next(request);
+    }
+
+    var key =
+        new OperationKey(
+            request.getDocument(),
+            request.getOperationName(),
+            new HashMap<>(request.getVariables()));
+
+    return singleFlight.execute(key, () -> chain.next(request));
+  }
+
+  /**
+   * Identifies identical operations.
+   *
+   * @param document the text of the document
+   * @param operationName the name of the operation, may be {@code null}
+   * @param variables the variables of the operation
+   */
+  record OperationKey(String document, String operationName, Map<String, Object> variables) {}
+}
@@ -0,0 +1,118 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.client.graphql;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import online.hatsunemiku.tachideskvaadinui.services.client.metrics.ClientMetrics;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+/**
+ * GraphQL client for operations with large list results. Unlike the {@link
+ * org.springframework.graphql.client.HttpGraphQlClient HttpGraphQlClient}, the response isn't
+ * buffered before it's mapped. Instead the list elements are decoded with a {@link
+ * JsonArrayStreamDecoder} and emitted as soon as their bytes have arrived, so the response isn't
+ * limited by the in-memory buffer size of the {@link WebClient}.
+ *
+ * <p>Identical requests aren't shared, as late callers would need every element emitted so far,
+ * which would keep the whole list in memory again.
+ */
+public class StreamingGraphQlClient {
+
+  private final WebClient webClient;
+  private final GraphQlDocumentRegistry registry;
+  private final ObjectMapper mapper;
+
+  /**
+   * Creates a new {@link StreamingGraphQlClient}.
+   *
+   * @param webClient the {@link WebClient} with the GraphQL endpoint as base URL
+   * @param registry the {@link GraphQlDocumentRegistry} used to resolve document names
+   * @param mapper the {@link ObjectMapper} used to decode the responses
+   */
+  public StreamingGraphQlClient(
+      WebClient webClient, GraphQlDocumentRegistry registry, ObjectMapper mapper) {
+    this.webClient = webClient;
+    this.registry = registry;
+    this.mapper = mapper;
+  }
+
+  /**
+   * Starts a new request for the document with the given name.
+   *
+   * @param name the name of the document in the {@link GraphQlDocumentRegistry}
+   * @return a {@link RequestSpec} to add variables and retrieve the result
+   */
+  public RequestSpec documentName(String name) {
+    return new RequestSpec(name);
+  }
+
+  /** A single request of the {@link StreamingGraphQlClient}. */
+  public class RequestSpec {
+
+    private final String documentName;
+    private final Map<String, Object> variables = new LinkedHashMap<>();
+
+    private RequestSpec(String documentName) {
+      this.documentName = documentName;
+    }
+
+    /**
+     * Adds a variable to the request.
+     *
+     * @param name the name of the variable
+     * @param value the value of the variable
+     * @return this {@link RequestSpec}
+     */
+    public RequestSpec variable(String name, Object value) {
+      variables.put(name, value);
+      return this;
+    }
+
+    /**
+     * Sends the request and decodes every element of the list at the given path.
+     *
+     * @param path the path of the list relative to the {@code data} field, see {@link
+     *     JsonArrayStreamDecoder}
+     * @param type the type of the elements
+     * @param <T> the type of the elements
+     * @return a {@link Flux} emitting the elements while the response is received
+     */
+    public <T> Flux<T> retrieveEach(String path, Class<T> type) {
+      var decoder = new JsonArrayStreamDecoder<>(mapper, path, type);
+
+      return registry
+          .getDocument(documentName)
+          .flatMapMany(document -> send(document, decoder));
+    }
+
+    private <T> Flux<T> send(String document, JsonArrayStreamDecoder<T> decoder) {
+      Map<String, Object> body = new LinkedHashMap<>();
+      body.put("query", document);
+
+      if (!variables.isEmpty()) {
+        body.put("variables", variables);
+      }
+
+      Flux<DataBuffer> response =
+          webClient
+              .post()
+              .contentType(MediaType.APPLICATION_JSON)
+              .accept(MediaType.APPLICATION_GRAPHQL_RESPONSE, MediaType.APPLICATION_JSON)
+              .attribute(ClientMetrics.OPERATION_ATTRIBUTE, documentName)
+              .bodyValue(body)
+              .retrieve()
+              .bodyToFlux(DataBuffer.class);
+
+      return decoder.decode(response);
+    }
+  }
+}
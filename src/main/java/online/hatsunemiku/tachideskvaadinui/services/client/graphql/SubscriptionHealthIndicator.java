@@ -0,0 +1,38 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.client.graphql;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the health of the subscriptions kept alive by the {@link SubscriptionManager} as the
+ * {@code subscription} component of {@code /actuator/health}. It's down while a subscription is
+ * reconnecting, and lists the state of every open subscription as details.
+ */
+@Component
+public class SubscriptionHealthIndicator implements HealthIndicator {
+
+  private final SubscriptionManager subscriptionManager;
+
+  /**
+   * Creates a new {@link SubscriptionHealthIndicator}.
+   *
+   * @param subscriptionManager the {@link SubscriptionManager} whose subscriptions are reported
+   */
+  public SubscriptionHealthIndicator(SubscriptionManager subscriptionManager) {
+    this.subscriptionManager = subscriptionManager;
+  }
+
+  @Override
+  public Health health() {
+    Health.Builder builder = subscriptionManager.isHealthy() ? Health.up() : Health.down();
+
+    return builder.withDetails(subscriptionManager.getStates()).build();
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.client.graphql;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Keeps the GraphQL subscriptions to the server alive. If a subscription fails or is ended by the
+ * server, it's reopened with a jittered exponential backoff, which is reset once the subscription
+ * delivers events again. This way a restarting server isn't flooded with reconnects by all
+ * subscriptions at once.
+ *
+ * <p>Events sent while a subscription was disconnected are lost. A subscription can therefore
+ * provide a resync query, which is executed after every reconnect and whose result is handed to
+ * the consumer like a regular event.
+ */
+@Slf4j
+@Component
+public class SubscriptionManager {
+
+  /** The health of a managed subscription. */
+  public enum State {
+    /** The subscription was opened, but hasn't received an event yet. */
+    CONNECTING,
+    /** The subscription has received events since it was last opened. */
+    ACTIVE,
+    /** The subscription failed and waits to be reopened. */
+    RECONNECTING
+  }
+
+  private final Duration minBackoff;
+  private final Duration maxBackoff;
+  private final Map<String, State> states = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a new {@link SubscriptionManager}.
+   *
+   * @param minBackoff the delay before the first reconnect attempt
+   * @param maxBackoff the maximum delay between reconnect attempts
+   */
+  public SubscriptionManager(
+      @Value("${vaaui.graphql.subscription.min-backoff:1s}") Duration minBackoff,
+      @Value("${vaaui.graphql.subscription.max-backoff:60s}") Duration maxBackoff) {
+    this.minBackoff = minBackoff;
+    this.maxBackoff = maxBackoff;
+  }
+
+  /**
+   * Opens a managed subscription.
+   *
+   * @param name the name of the subscription, used for logging and the health state. Must be
+   *     unique among the open subscriptions.
+   * @param source creates the subscription, called again for every reconnect, so a changed server
+   *     URL is picked up
+   * @param resync creates the query run after a reconnect to catch up on missed events, may be
+   *     {@code null}
+   * @param consumer receives the events of the subscription and the resync results
+   * @param <T> the type of the events
+   * @return a {@link Disposable} closing the subscription
+   */
+  public <T> Disposable subscribe(
+      String name, Supplier<Flux<T>> source, Supplier<Mono<T>> resync, Consumer<T> consumer) {
+    AtomicBoolean reconnect = new AtomicBoolean();
+
+    Flux<T> managed =
+        Flux.defer(
+                () -> {
+                  states.put(name, State.CONNECTING);
+                  Flux<T> events = source.get();
+
+                  if (!reconnect.getAndSet(true) || resync == null) {
+                    return events;
+                  }
+
+                  log.info("Subscription {} reconnected, resyncing state", name);
+                  Mono<T> catchUp =
+                      resync
+                          .get()
+                          .onErrorResume(
+                              e -> {
+                                log.warn("Resync of subscription {} failed", name, e);
+                                return Mono.empty();
+                              });
+
+                  return Flux.merge(events, catchUp);
+                })
+            .doOnNext(event -> states.put(name, State.ACTIVE))
+            // the server ends subscriptions e.g. when it restarts, so a completion is an error too
+            .concatWith(Mono.error(new IllegalStateException("Subscription ended by the server")))
+            .retryWhen(
+                Retry.backoff(Long.MAX_VALUE, minBackoff)
+                    .maxBackoff(maxBackoff)
+                    .jitter(0.5)
+                    .transientErrors(true)
+                    .doBeforeRetry(
+                        signal -> {
+                          states.put(name, State.RECONNECTING);
+                          log.warn(
+                              "Subscription {} failed {} times in a row, reconnecting: {}",
+                              name,
+                              signal.totalRetriesInARow() + 1,
+                              signal.failure().getMessage());
+                        }));
+
+    Disposable subscription =
+        managed
+            .doFinally(signal -> states.remove(name))
+            .subscribe(
+                event -> {
+                  try {
+                    consumer.accept(event);
+                  } catch (RuntimeException e) {
+                    log.error("Consumer of subscription {} failed", name, e);
+                  }
+                });
+
+    log.debug("Opened managed subscription {}", name);
+    return subscription;
+  }
+
+  /**
+   * Returns the state of all open subscriptions.
+   *
+   * @return an immutable copy of the states by subscription name
+   */
+  public Map<String, State> getStates() {
+    return Map.copyOf(states);
+  }
+
+  /**
+   * Checks if all open subscriptions are connected.
+   *
+   * @return {@code true} if no subscription is currently reconnecting, {@code false} otherwise
+   */
+  public boolean isHealthy() {
+    return !states.containsValue(State.RECONNECTING);
+  }
+}
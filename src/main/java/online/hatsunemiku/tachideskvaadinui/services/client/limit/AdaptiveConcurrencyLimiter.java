@@ -0,0 +1,255 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.client.limit;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+/**
+ * Limits the number of concurrent requests and adapts the limit to the observed latency (AIMD).
+ * While requests complete close to the lowest latency seen for their operation, the limit grows by
+ * roughly one per round of requests. Once the latency exceeds that lowest latency by the configured
+ * tolerance, or a request is dropped by an overloaded server, the limit is reduced by a constant
+ * factor.
+ *
+ * <p>The lowest latency is tracked per operation, as a fetch from a source takes much longer than a
+ * query of the local database even while the server is idle.
+ *
+ * <p>Requests above the limit wait in FIFO order until a permit is released.
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+  private static final double BACKOFF_RATIO = 0.9;
+
+  /** The lowest latency is reset after this many samples, so it can follow a slower server. */
+  private static final int MIN_LATENCY_WINDOW = 500;
+
+  /** The most operations whose latency is tracked, so unexpected paths can't grow the map. */
+  private static final int MAX_OPERATIONS = 256;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double latencyTolerance;
+  private final Queue<Waiter> waiters = new ArrayDeque<>();
+
+  private final Map<String, Baseline> baselines =
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Baseline> eldest) {
+          return size() > MAX_OPERATIONS;
+        }
+      };
+
+  private double limit;
+  private int inFlight;
+
+  /**
+   * Creates a new {@link AdaptiveConcurrencyLimiter}.
+   *
+   * @param initialLimit the limit used until the first latencies have been measured
+   * @param minLimit the lowest the limit can get
+   * @param maxLimit the highest the limit can get
+   * @param latencyTolerance the factor by which a latency may exceed the lowest latency of its
+   *     operation before the limit is reduced
+   */
+  public AdaptiveConcurrencyLimiter(
+      int initialLimit, int minLimit, int maxLimit, double latencyTolerance) {
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.latencyTolerance = latencyTolerance;
+    this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+  }
+
+  /**
+   * Acquires a permit. The returned {@link Mono} completes once a permit is available. Cancelling
+   * it before that removes the caller from the queue.
+   *
+   * @param operation the operation of the request, whose latencies are compared with each other
+   * @return a {@link Mono} emitting the {@link Permit}, which has to be released exactly once
+   */
+  public Mono<Permit> acquire(String operation) {
+    return Mono.create(
+        sink -> {
+          Waiter waiter = new Waiter(sink, operation);
+          sink.onCancel(() -> cancel(waiter));
+
+          Permit permit;
+          synchronized (this) {
+            if (inFlight >= (int) limit) {
+              waiters.add(waiter);
+              return;
+            }
+
+            inFlight++;
+            permit = new Permit(operation);
+            waiter.permit = permit;
+          }
+
+          sink.success(permit);
+        });
+  }
+
+  /**
+   * Returns the current limit.
+   *
+   * @return the number of requests allowed to run at the same time
+   */
+  public synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  /**
+   * Returns the number of requests currently holding a permit.
+   *
+   * @return the number of running requests
+   */
+  public synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  private void cancel(Waiter waiter) {
+    synchronized (this) {
+      if (waiters.remove(waiter)) {
+        return;
+      }
+    }
+
+    // the permit was granted concurrently, but never reached the caller
+    if (waiter.permit != null) {
+      waiter.permit.release();
+    }
+  }
+
+  private void onSample(String operation, long latency) {
+    synchronized (this) {
+      Baseline baseline = baselines.computeIfAbsent(operation, k -> new Baseline());
+
+      if (baseline.isSlow(latency, latencyTolerance)) {
+        decrease();
+      } else if (inFlight * 2 >= limit) {
+        // only grow while the limit is actually used
+        limit = Math.min(maxLimit, limit + 1 / limit);
+      }
+    }
+
+    release();
+  }
+
+  private void onDropped() {
+    synchronized (this) {
+      decrease();
+    }
+
+    release();
+  }
+
+  private void decrease() {
+    double newLimit = Math.max(minLimit, limit * BACKOFF_RATIO);
+
+    if ((int) newLimit < (int) limit) {
+      log.debug("Reducing concurrency limit to {}", (int) newLimit);
+    }
+
+    limit = newLimit;
+  }
+
+  private void release() {
+    Queue<Waiter> granted = new ArrayDeque<>();
+
+    synchronized (this) {
+      inFlight--;
+
+      while (inFlight < (int) limit && !waiters.isEmpty()) {
+        Waiter waiter = waiters.poll();
+        inFlight++;
+        waiter.permit = new Permit(waiter.operation);
+        granted.add(waiter);
+      }
+    }
+
+    // complete outside the lock, as the callers continue with the request on this thread
+    for (Waiter waiter : granted) {
+      waiter.sink.success(waiter.permit);
+    }
+  }
+
+  /** A caller waiting for a permit. */
+  private static class Waiter {
+
+    private final MonoSink<Permit> sink;
+    private final String operation;
+    private volatile Permit permit;
+
+    private Waiter(MonoSink<Permit> sink, String operation) {
+      this.sink = sink;
+      this.operation = operation;
+    }
+  }
+
+  /** The lowest latency of an operation. Only accessed while holding the limiter's lock. */
+  private static class Baseline {
+
+    private long minLatency = Long.MAX_VALUE;
+    private int samples;
+
+    /** Adds a sample and checks if it exceeds the lowest latency by more than the tolerance. */
+    private boolean isSlow(long latency, double tolerance) {
+      // reset regularly, so it can follow a slower server
+      if (++samples >= MIN_LATENCY_WINDOW) {
+        samples = 0;
+        minLatency = latency;
+      }
+
+      minLatency = Math.min(minLatency, latency);
+
+      return latency > minLatency * tolerance;
+    }
+  }
+
+  /**
+   * Permission to send one request. Only the first call to one of the methods has an effect, so it
+   * can safely be released from multiple signals.
+   */
+  public class Permit {
+
+    private final String operation;
+    private final long start = System.nanoTime();
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Permit(String operation) {
+      this.operation = operation;
+    }
+
+    /** Releases the permit and uses the latency of the request to adjust the limit. */
+    public void success() {
+      if (released.compareAndSet(false, true)) {
+        onSample(operation, System.nanoTime() - start);
+      }
+    }
+
+    /** Releases the permit and reduces the limit, because the server is overloaded. */
+    public void dropped() {
+      if (released.compareAndSet(false, true)) {
+        onDropped();
+      }
+    }
+
+    /** Releases the permit without adjusting the limit, e.g. if the request was cancelled. */
+    public void release() {
+      if (released.compareAndSet(false, true)) {
+        AdaptiveConcurrencyLimiter.this.release();
+      }
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.client.limit;
+
+import java.time.Duration;
+import java.time.Instant;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stops sending requests to a server that is down or overwhelmed. After a number of consecutive
+ * failures the breaker opens and all requests fail fast. Once the open duration has passed, a
+ * single probe request is let through. If it succeeds the breaker closes again, otherwise it stays
+ * open for another period.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+  /** The states of a {@link CircuitBreaker}. */
+  public enum State {
+    /** Requests are sent normally. */
+    CLOSED,
+    /** Requests fail fast without being sent. */
+    OPEN,
+    /** A single probe request is sent to check if the server is available again. */
+    HALF_OPEN
+  }
+
+  private final int failureThreshold;
+  private final Duration openDuration;
+
+  private State state = State.CLOSED;
+  private int failures;
+  private Instant openUntil = Instant.MIN;
+  private boolean probeInFlight;
+
+  /**
+   * Creates a new {@link CircuitBreaker}.
+   *
+   * @param failureThreshold the number of consecutive failures after which the breaker opens
+   * @param openDuration the time the breaker stays open before a probe request is sent
+   */
+  public CircuitBreaker(int failureThreshold, Duration openDuration) {
+    this.failureThreshold = failureThreshold;
+    this.openDuration = openDuration;
+  }
+
+  /**
+   * Checks if a request may be sent. Every permitted request has to report its outcome with {@link
+   * #onSuccess()}, {@link #onFailure()} or {@link #onIgnored()}.
+   *
+   * @return {@code true} if the request may be sent, {@code false} if it should fail fast
+   */
+  public synchronized boolean tryAcquire() {
+    if (state == State.OPEN && !Instant.now().isBefore(openUntil)) {
+      state = State.HALF_OPEN;
+    }
+
+    return switch (state) {
+      case CLOSED -> true;
+      case OPEN -> false;
+      case HALF_OPEN -> {
+        if (probeInFlight) {
+          yield false;
+        }
+
+        probeInFlight = true;
+        yield true;
+      }
+    };
+  }
+
+  /** Reports a successful request, which closes the breaker. */
+  public synchronized void onSuccess() {
+    if (state != State.CLOSED) {
+      log.info("Server is available again, closing circuit breaker");
+    }
+
+    state = State.CLOSED;
+    failures = 0;
+    probeInFlight = false;
+  }
+
+  /** Reports a request that failed because the server is down or overwhelmed. */
+  public synchronized void onFailure() {
+    probeInFlight = false;
+    failures++;
+
+    if (state == State.HALF_OPEN || failures >= failureThreshold) {
+      if (state == State.CLOSED) {
+        log.warn("Server failed {} requests in a row, opening circuit breaker", failures);
+      }
+
+      state = State.OPEN;
+      openUntil = Instant.now().plus(openDuration);
+    }
+  }
+
+  /** Reports a request whose outcome says nothing about the server, e.g. a cancelled request. */
+  public synchronized void onIgnored() {
+    probeInFlight = false;
+  }
+
+  /**
+   * Returns the current state of the breaker.
+   *
+   * @return the {@link State}
+   */
+  public synchronized State getState() {
+    return state;
+  }
+}
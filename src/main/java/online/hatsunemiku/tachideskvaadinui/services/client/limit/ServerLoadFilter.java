@@ -0,0 +1,160 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.client.limit;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import lombok.Getter;
+import online.hatsunemiku.tachideskvaadinui.services.client.exception.ServerUnavailableException;
+import online.hatsunemiku.tachideskvaadinui.services.client.limit.AdaptiveConcurrencyLimiter.Permit;
+import online.hatsunemiku.tachideskvaadinui.services.client.metrics.ClientMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Protects the Suwayomi server from more requests than it can handle. Every request sent by the
+ * clients of the {@link online.hatsunemiku.tachideskvaadinui.services.WebClientService
+ * WebClientService} passes through this filter, so bursts from any part of the UI share the same
+ * {@link AdaptiveConcurrencyLimiter} and {@link CircuitBreaker}.
+ *
+ * <p>A request holds its permit until the response body is completely received or cancelled, so
+ * downloads and streamed responses count against the limit for their whole duration.
+ *
+ * <p>While the breaker is open, requests fail with a {@link ServerUnavailableException}.
+ */
+@Getter
+@Component
+public class ServerLoadFilter implements ExchangeFilterFunction {
+
+  private final AdaptiveConcurrencyLimiter limiter;
+  private final CircuitBreaker circuitBreaker;
+
+  /**
+   * Creates a new {@link ServerLoadFilter}.
+   *
+   * @param initialLimit the number of concurrent requests allowed until latencies are measured
+   * @param minLimit the lowest number of concurrent requests the limit can be reduced to
+   * @param maxLimit the highest number of concurrent requests the limit can grow to
+   * @param latencyTolerance the factor by which a latency may exceed the lowest latency of its
+   *     operation
+   * @param failureThreshold the number of consecutive failures after which the breaker opens
+   * @param openDuration the time the breaker stays open before the server is probed again
+   */
+  public ServerLoadFilter(
+      @Value("${vaaui.http.limit.initial:10}") int initialLimit,
+      @Value("${vaaui.http.limit.min:1}") int minLimit,
+      @Value("${vaaui.http.limit.max:${vaaui.http.max-connections:50}}") int maxLimit,
+      @Value("${vaaui.http.limit.latency-tolerance:2.0}") double latencyTolerance,
+      @Value("${vaaui.http.breaker.failure-threshold:5}") int failureThreshold,
+      @Value("${vaaui.http.breaker.open-duration:30s}") Duration openDuration) {
+    this.limiter =
+        new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, latencyTolerance);
+    this.circuitBreaker = new CircuitBreaker(failureThreshold, openDuration);
+  }
+
+  @Override
+  public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+    return Mono.deferContextual(
+        context -> {
+          if (!circuitBreaker.tryAcquire()) {
+            return Mono.error(new ServerUnavailableException(request));
+          }
+
+          return limiter
+              .acquire(ClientMetrics.getOperation(request, context))
+              .doOnCancel(circuitBreaker::onIgnored)
+              .flatMap(permit -> exchange(request, next, permit));
+        });
+  }
+
+  /**
+   * Checks if the server is currently considered available.
+   *
+   * @return {@code false} if the circuit breaker is open, {@code true} otherwise
+   */
+  public boolean isServerAvailable() {
+    return circuitBreaker.getState() != CircuitBreaker.State.OPEN;
+  }
+
+  private Mono<ClientResponse> exchange(
+      ClientRequest request, ExchangeFunction next, Permit permit) {
+    return next.exchange(request)
+        .map(response -> onResponse(response, permit))
+        .doOnError(e -> onError(e, permit))
+        .doOnCancel(
+            () -> {
+              permit.release();
+              circuitBreaker.onIgnored();
+            });
+  }
+
+  private ClientResponse onResponse(ClientResponse response, Permit permit) {
+    HttpStatusCode status = response.statusCode();
+
+    if (isServerDown(status)) {
+      permit.dropped();
+      circuitBreaker.onFailure();
+      return response;
+    }
+
+    circuitBreaker.onSuccess();
+
+    if (status.value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+      permit.dropped();
+      return response;
+    }
+
+    // the WebClient always consumes or releases the body, so the permit can't leak
+    return response
+        .mutate()
+        .body(body -> body.doFinally(signal -> onBodyFinished(signal, permit)))
+        .build();
+  }
+
+  private static void onBodyFinished(SignalType signal, Permit permit) {
+    switch (signal) {
+      case ON_COMPLETE -> permit.success();
+      case ON_ERROR -> permit.dropped();
+      default -> permit.release();
+    }
+  }
+
+  private void onError(Throwable e, Permit permit) {
+    if (e instanceof WebClientRequestException
+        || e instanceof TimeoutException
+        || e instanceof IOException) {
+      permit.dropped();
+      circuitBreaker.onFailure();
+      return;
+    }
+
+    permit.release();
+    circuitBreaker.onIgnored();
+  }
+
+  /**
+   * Internal server errors are usually caused by a single request, e.g. a broken source, so only
+   * gateway errors and an unavailable server count as the server being down.
+   */
+  private static boolean isServerDown(HttpStatusCode status) {
+    int code = status.value();
+
+    return code == HttpStatus.BAD_GATEWAY.value()
+        || code == HttpStatus.SERVICE_UNAVAILABLE.value()
+        || code == HttpStatus.GATEWAY_TIMEOUT.value();
+  }
+}
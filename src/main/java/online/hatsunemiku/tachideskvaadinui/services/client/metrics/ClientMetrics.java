@@ -0,0 +1,157 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.client.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.Function;
+import online.hatsunemiku.tachideskvaadinui.services.client.limit.CircuitBreaker;
+import online.hatsunemiku.tachideskvaadinui.services.client.limit.ServerLoadFilter;
+import online.hatsunemiku.tachideskvaadinui.utils.GraphQLUtils;
+import online.hatsunemiku.tachideskvaadinui.utils.ImageUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Records metrics for the requests sent to the Suwayomi server. Requests are tagged by the name of
+ * their GraphQL operation, or by the template of their path for REST requests, so slow operations
+ * can be found in the {@code /actuator/metrics} and {@code /actuator/prometheus} endpoints.
+ *
+ * <ul>
+ *   <li>{@value #REQUESTS} - time until the response headers arrived, per HTTP request
+ *   <li>{@value #RESPONSE_SIZE} - size of the response body in bytes, per HTTP request
+ *   <li>{@value #OPERATIONS} - time of a GraphQL operation including the mapping of errors
+ * </ul>
+ */
+@Component
+public class ClientMetrics {
+
+  /** Name of the request attribute and context key holding the operation name of a request. */
+  public static final String OPERATION_ATTRIBUTE = ClientMetrics.class.getName() + ".operation";
+
+  public static final String REQUESTS = "vaaui.client.requests";
+  public static final String RESPONSE_SIZE = "vaaui.client.response.size";
+  public static final String OPERATIONS = "vaaui.client.graphql.operations";
+
+  /** The operation of REST requests whose path isn't known. */
+  public static final String OTHER_OPERATION = "other";
+
+  /** The paths of the REST requests without IDs, which are used as they are. */
+  private static final Set<String> REST_PATHS =
+      Set.of("/api/v1/source/list", "/api/v1/settings/about");
+
+  private final MeterRegistry registry;
+
+  /**
+   * Creates a new {@link ClientMetrics} instance and registers the gauges of the {@link
+   * ServerLoadFilter}.
+   *
+   * @param registry the {@link MeterRegistry} the metrics are recorded in
+   * @param serverLoadFilter the {@link ServerLoadFilter} whose state is published
+   */
+  public ClientMetrics(MeterRegistry registry, ServerLoadFilter serverLoadFilter) {
+    this.registry = registry;
+
+    var limiter = serverLoadFilter.getLimiter();
+    var breaker = serverLoadFilter.getCircuitBreaker();
+
+    Gauge.builder("vaaui.client.concurrency.limit", limiter, l -> l.getLimit())
+        .description("Number of concurrent requests currently allowed")
+        .register(registry);
+    Gauge.builder("vaaui.client.concurrency.in.flight", limiter, l -> l.getInFlight())
+        .description("Number of requests currently sent to the server")
+        .register(registry);
+    Gauge.builder(
+            "vaaui.client.breaker.open",
+            breaker,
+            b -> b.getState() == CircuitBreaker.State.OPEN ? 1 : 0)
+        .description("Whether requests to the server currently fail fast")
+        .register(registry);
+  }
+
+  /**
+   * Creates a context modifier, which tags all requests of the modified publisher with the name of
+   * the operation in the given document. Used for clients that can't set request attributes.
+   *
+   * @param document the GraphQL document sent by the publisher
+   * @return the function to pass to {@code contextWrite}
+   */
+  public static Function<Context, Context> operation(String document) {
+    String name = GraphQLUtils.getOperationName(document);
+    return context -> context.put(OPERATION_ATTRIBUTE, name);
+  }
+
+  /**
+   * Determines the operation of a request. The operation is taken from the {@link
+   * #OPERATION_ATTRIBUTE} request attribute, then from the context set by {@link
+   * #operation(String)} and finally from the request path. Paths are mapped to a fixed set of
+   * templates, so unique names, e.g. of extension icons, don't create an operation each.
+   *
+   * @param request the request sent to the server
+   * @param context the context of the request
+   * @return the name of the operation
+   */
+  public static String getOperation(ClientRequest request, ContextView context) {
+    Object attribute = request.attribute(OPERATION_ATTRIBUTE).orElse(null);
+
+    if (attribute != null) {
+      return attribute.toString();
+    }
+
+    String contextOperation = context.getOrDefault(OPERATION_ATTRIBUTE, null);
+
+    if (contextOperation != null) {
+      return contextOperation;
+    }
+
+    String path = request.url().getPath();
+    String template = ImageUtils.getImageTemplate(path);
+
+    if (template != null) {
+      return template;
+    }
+
+    return REST_PATHS.stream().filter(path::endsWith).findFirst().orElse(OTHER_OPERATION);
+  }
+
+  void recordRequest(String operation, String method, String status, Duration duration) {
+    Timer.builder(REQUESTS)
+        .description("Time until the server sent the response headers")
+        .tag("operation", operation)
+        .tag("method", method)
+        .tag("status", status)
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(duration);
+  }
+
+  void recordResponseSize(String operation, String status, long bytes) {
+    DistributionSummary.builder(RESPONSE_SIZE)
+        .description("Size of the response body")
+        .baseUnit("bytes")
+        .tag("operation", operation)
+        .tag("status", status)
+        .register(registry)
+        .record(bytes);
+  }
+
+  void recordOperation(String operation, String outcome, Duration duration) {
+    Timer.builder(OPERATIONS)
+        .description("Time of a GraphQL operation")
+        .tag("operation", operation)
+        .tag("outcome", outcome)
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(duration);
+  }
+}
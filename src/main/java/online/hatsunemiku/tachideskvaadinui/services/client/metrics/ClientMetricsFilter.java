@@ -0,0 +1,74 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.client.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * Records the latency and response size of every request sent by the clients of the {@link
+ * online.hatsunemiku.tachideskvaadinui.services.WebClientService WebClientService}.
+ *
+ * <p>The operation tag is determined by {@link ClientMetrics#getOperation(ClientRequest,
+ * reactor.util.context.ContextView)}.
+ */
+@Component
+public class ClientMetricsFilter implements ExchangeFilterFunction {
+
+  private final ClientMetrics metrics;
+
+  public ClientMetricsFilter(ClientMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  @Override
+  public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+    return Mono.deferContextual(
+        context -> {
+          String operation = ClientMetrics.getOperation(request, context);
+          String method = request.method().name();
+          long start = System.nanoTime();
+
+          return next.exchange(request)
+              .doOnNext(
+                  response -> {
+                    String status = String.valueOf(response.statusCode().value());
+                    metrics.recordRequest(operation, method, status, since(start));
+                  })
+              .doOnError(
+                  e -> {
+                    String status = e.getClass().getSimpleName();
+                    metrics.recordRequest(operation, method, status, since(start));
+                  })
+              .map(response -> countBody(response, operation));
+        });
+  }
+
+  private ClientResponse countBody(ClientResponse response, String operation) {
+    String status = String.valueOf(response.statusCode().value());
+    AtomicLong bytes = new AtomicLong();
+
+    return response
+        .mutate()
+        .body(
+            body ->
+                body.doOnNext(buffer -> bytes.addAndGet(buffer.readableByteCount()))
+                    .doOnComplete(
+                        () -> metrics.recordResponseSize(operation, status, bytes.get())))
+        .build();
+  }
+
+  private static Duration since(long start) {
+    return Duration.ofNanos(System.nanoTime() - start);
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.client.metrics;
+
+import java.time.Duration;
+import online.hatsunemiku.tachideskvaadinui.utils.GraphQLUtils;
+import org.springframework.graphql.client.ClientGraphQlRequest;
+import org.springframework.graphql.client.ClientGraphQlResponse;
+import org.springframework.graphql.client.GraphQlClientInterceptor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Records the duration and outcome of every GraphQL operation and tags the underlying HTTP
+ * requests with the operation name, so they can be told apart in the {@link ClientMetricsFilter}.
+ *
+ * <p>The outcome is {@code success}, {@code graphql_error} if the server returned errors in the
+ * response, or {@code error} if the request failed.
+ */
+public class GraphQlMetricsInterceptor implements GraphQlClientInterceptor {
+
+  private final ClientMetrics metrics;
+
+  public GraphQlMetricsInterceptor(ClientMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  @Override
+  public Mono<ClientGraphQlResponse> intercept(ClientGraphQlRequest request, Chain chain) {
+    String operation =
+        request.getOperationName() != null
+            ? request.getOperationName()
+            : GraphQLUtils.getOperationName(request.getDocument());
+
+    request.getAttributes().put(ClientMetrics.OPERATION_ATTRIBUTE, operation);
+
+    return Mono.defer(
+        () -> {
+          long start = System.nanoTime();
+
+          return chain
+              .next(request)
+              .doOnNext(
+                  response -> {
+                    String outcome = response.getErrors().isEmpty() ? "success" : "graphql_error";
+                    metrics.recordOperation(operation, outcome, since(start));
+                  })
+              .doOnError(e -> metrics.recordOperation(operation, "error", since(start)));
+        });
+  }
+
+  private static Duration since(long start) {
+    return Duration.ofNanos(System.nanoTime() - start);
+  }
+}
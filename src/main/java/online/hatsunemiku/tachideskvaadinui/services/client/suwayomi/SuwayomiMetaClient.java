@@ -8,6 +8,7 @@ package online.hatsunemiku.tachideskvaadinui.services.client.suwayomi;
 
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.ServerVersion;
 import online.hatsunemiku.tachideskvaadinui.services.WebClientService;
+import online.hatsunemiku.tachideskvaadinui.services.client.metrics.ClientMetrics;
 import org.intellij.lang.annotations.Language;
 import org.springframework.stereotype.Component;
 
@@ -47,7 +48,11 @@ public class SuwayomiMetaClient {
             }
             """;
 
-    var response = client.reactiveExecuteQuery(query).block();
+    var response =
+        client
+            .reactiveExecuteQuery(query)
+            .contextWrite(ClientMetrics.operation(query))
+            .block();
 
     if (response == null) {
       throw new RuntimeException("Failed to retrieve server version");
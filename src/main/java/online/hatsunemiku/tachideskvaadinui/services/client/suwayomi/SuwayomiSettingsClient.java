@@ -14,6 +14,8 @@ import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 import online.hatsunemiku.tachideskvaadinui.data.settings.FlareSolverrSettings;
 import online.hatsunemiku.tachideskvaadinui.services.WebClientService;
+import online.hatsunemiku.tachideskvaadinui.services.client.metrics.ClientMetrics;
+import online.hatsunemiku.tachideskvaadinui.utils.GraphQLUtils;
 import org.intellij.lang.annotations.Language;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.MediaType;
@@ -133,7 +135,11 @@ public class SuwayomiSettingsClient {
 
     var graphClient = clientService.getDgsGraphQlClient();
 
-    var response = graphClient.reactiveExecuteQuery(query).block();
+    var response =
+        graphClient
+            .reactiveExecuteQuery(query)
+            .contextWrite(ClientMetrics.operation(query))
+            .block();
 
     if (response == null) {
       throw new RuntimeException("Error while getting FlareSolverrSettings - response is null");
@@ -165,7 +171,11 @@ public class SuwayomiSettingsClient {
 
     var graphClient = clientService.getDgsGraphQlClient();
 
-    var response = graphClient.reactiveExecuteQuery(query, variables).block();
+    var response =
+        graphClient
+            .reactiveExecuteQuery(query, variables)
+            .contextWrite(ClientMetrics.operation(query))
+            .block();
 
     if (response == null) {
       throw new RuntimeException("Error while updating FlareSolverr URL - response is null");
@@ -201,7 +211,11 @@ public class SuwayomiSettingsClient {
 
     var variables = Map.of("enabled", enabled);
 
-    var response = graphClient.reactiveExecuteQuery(query, variables).block();
+    var response =
+        graphClient
+            .reactiveExecuteQuery(query, variables)
+            .contextWrite(ClientMetrics.operation(query))
+            .block();
 
     if (response == null) {
       throw new RuntimeException(
@@ -296,6 +310,7 @@ public class SuwayomiSettingsClient {
         webClient
             .post()
             .uri("api/graphql")
+            .attribute(ClientMetrics.OPERATION_ATTRIBUTE, GraphQLUtils.getOperationName(query))
             .contentType(MediaType.MULTIPART_FORM_DATA)
             .body(BodyInserters.fromMultipartData(requestBody))
             .retrieve()
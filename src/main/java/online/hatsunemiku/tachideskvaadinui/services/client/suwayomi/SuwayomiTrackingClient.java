@@ -7,7 +7,10 @@
 package online.hatsunemiku.tachideskvaadinui.services.client.suwayomi;
 
 import com.jayway.jsonpath.TypeRef;
+import com.netflix.graphql.dgs.client.GraphQLResponse;
+import jakarta.annotation.PreDestroy;
 import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -15,32 +18,78 @@ import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Status;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.TrackRecord;
 import online.hatsunemiku.tachideskvaadinui.data.tracking.search.TrackerSearchResult;
 import online.hatsunemiku.tachideskvaadinui.services.WebClientService;
+import online.hatsunemiku.tachideskvaadinui.services.SuwayomiService;
+import online.hatsunemiku.tachideskvaadinui.services.client.metrics.ClientMetrics;
+import online.hatsunemiku.tachideskvaadinui.services.client.batch.BatchLoader;
+import online.hatsunemiku.tachideskvaadinui.utils.GraphQLUtils;
 import org.intellij.lang.annotations.Language;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
 /**
  * The SuwayomiTrackingClient class provides methods to interact with a Suwayomi tracker through
- * GraphQL API requests.
+ * GraphQL API requests. All methods are non-blocking and return a {@link Mono} that sends the
+ * request once subscribed to.
  */
 @Component
 public class SuwayomiTrackingClient {
 
   private static final Logger log = LoggerFactory.getLogger(SuwayomiTrackingClient.class);
+
+  private static final String TRACK_RECORDS_FIELD =
+      """
+      manga(id: %s) {
+          trackRecords {
+            nodes {
+              id
+              libraryId
+              mangaId
+              remoteId
+              trackerId
+              remoteUrl
+              title
+              lastChapterRead
+              totalChapters
+              displayScore
+              finishDate
+              startDate
+              score
+              status
+            }
+          }
+        }""";
+
   private final WebClientService clientService;
-  private final SuwayomiMetaClient suwayomiMetaClient;
+  private final SuwayomiService suwayomiService;
+  private final BatchLoader<Long, List<TrackRecord>> trackRecordLoader;
 
   /**
-   * Creates a new instance of the {@link SuwayomiTrackingClient} class.
+   * Creates a new instance of the {@link SuwayomiTrackingClient} class. Track record lookups for
+   * different manga are batched into a single request.
    *
    * @param clientService the {@link WebClientService} used for making API requests
+   * @param suwayomiService the {@link SuwayomiService} used for checking the cached server version
+   * @param batchWindow the maximum time to wait for more lookups before a batch is sent
+   * @param maxBatchSize the maximum number of lookups in one batch
    */
   public SuwayomiTrackingClient(
-      WebClientService clientService, SuwayomiMetaClient suwayomiMetaClient) {
+      WebClientService clientService,
+      SuwayomiService suwayomiService,
+      @Value("${vaaui.graphql.batch.window:10ms}") Duration batchWindow,
+      @Value("${vaaui.graphql.batch.max-size:50}") int maxBatchSize) {
     this.clientService = clientService;
-    this.suwayomiMetaClient = suwayomiMetaClient;
+    this.suwayomiService = suwayomiService;
+    this.trackRecordLoader =
+        new BatchLoader<>("trackRecords", maxBatchSize, batchWindow, this::loadTrackRecords);
+  }
+
+  @PreDestroy
+  public void destroy() {
+    trackRecordLoader.dispose();
   }
 
   /**
@@ -51,7 +100,7 @@ public class SuwayomiTrackingClient {
    * @see online.hatsunemiku.tachideskvaadinui.services.tracker.SuwayomiTrackingService.TrackerType
    */
   @SuppressWarnings("JavadocReference")
-  public boolean isTrackerLoggedIn(int id) {
+  public Mono<Boolean> isTrackerLoggedIn(int id) {
     @Language("graphql")
     String query =
         """
@@ -67,13 +116,12 @@ public class SuwayomiTrackingClient {
 
     var graphClient = clientService.getDgsGraphQlClient();
 
-    var response = graphClient.reactiveExecuteQuery(query, variables).block();
-
-    if (response == null) {
-      throw new RuntimeException("Error while checking if tracker is logged in");
-    }
-
-    return response.extractValueAsObject("tracker.isLoggedIn", Boolean.class);
+    return graphClient
+        .reactiveExecuteQuery(query, variables)
+        .contextWrite(ClientMetrics.operation(query))
+        .switchIfEmpty(
+            Mono.error(new RuntimeException("Error while checking if tracker is logged in")))
+        .map(response -> response.extractValueAsObject("tracker.isLoggedIn", Boolean.class));
   }
 
   /**
@@ -84,7 +132,7 @@ public class SuwayomiTrackingClient {
    * @see online.hatsunemiku.tachideskvaadinui.services.tracker.SuwayomiTrackingService.TrackerType
    */
   @SuppressWarnings("JavadocReference")
-  public String getTrackerAuthUrl(int id) {
+  public Mono<String> getTrackerAuthUrl(int id) {
     @Language("graphql")
     String query =
         """
@@ -99,13 +147,11 @@ public class SuwayomiTrackingClient {
 
     var graphClient = clientService.getDgsGraphQlClient();
 
-    var response = graphClient.reactiveExecuteQuery(query, variables).block();
-
-    if (response == null) {
-      throw new RuntimeException("Error while getting tracker auth url");
-    }
-
-    return response.extractValueAsObject("tracker.authUrl", String.class);
+    return graphClient
+        .reactiveExecuteQuery(query, variables)
+        .contextWrite(ClientMetrics.operation(query))
+        .switchIfEmpty(Mono.error(new RuntimeException("Error while getting tracker auth url")))
+        .map(response -> response.extractValueAsObject("tracker.authUrl", String.class));
   }
 
   /**
@@ -114,7 +160,7 @@ public class SuwayomiTrackingClient {
    * @param url the redirect URL to log in to the tracker
    * @param id the ID of the tracker to log in to
    */
-  public void loginTracker(String url, int id) {
+  public Mono<Void> loginTracker(String url, int id) {
     @Language("graphql")
     String query =
         """
@@ -129,15 +175,17 @@ public class SuwayomiTrackingClient {
 
     var graphClient = clientService.getDgsGraphQlClient();
 
-    var response = graphClient.reactiveExecuteQuery(query, variables).block();
-
-    if (response == null) {
-      throw new RuntimeException("Error while logging in tracker");
-    }
-
-    if (!response.extractValueAsObject("loginTrackerOAuth.isLoggedIn", Boolean.class)) {
-      log.error("Server returned false after logging in the tracker with id {}", id);
-    }
+    return graphClient
+        .reactiveExecuteQuery(query, variables)
+        .contextWrite(ClientMetrics.operation(query))
+        .switchIfEmpty(Mono.error(new RuntimeException("Error while logging in tracker")))
+        .doOnNext(
+            response -> {
+              if (!response.extractValueAsObject("loginTrackerOAuth.isLoggedIn", Boolean.class)) {
+                log.error("Server returned false after logging in the tracker with id {}", id);
+              }
+            })
+        .then();
   }
 
   /**
@@ -149,7 +197,7 @@ public class SuwayomiTrackingClient {
    * @see online.hatsunemiku.tachideskvaadinui.services.tracker.SuwayomiTrackingService.TrackerType
    */
   @SuppressWarnings("JavadocReference")
-  public List<TrackerSearchResult> searchTracker(String query, int id) {
+  public Mono<List<TrackerSearchResult>> searchTracker(String query, int id) {
     @Language("graphql")
     String graphQuery =
         """
@@ -175,21 +223,22 @@ public class SuwayomiTrackingClient {
 
     var graphClient = clientService.getDgsGraphQlClient();
 
-    var response = graphClient.reactiveExecuteQuery(graphQuery, variables).block();
-
-    if (response == null) {
-      throw new RuntimeException("Error while searching tracker");
-    }
-
-    if (response.hasErrors()) {
-      String errorText = "Error while searching tracker: " + response.getErrors();
-      log.error(errorText);
-      throw new RuntimeException(errorText);
-    }
+    return graphClient
+        .reactiveExecuteQuery(graphQuery, variables)
+        .contextWrite(ClientMetrics.operation(graphQuery))
+        .switchIfEmpty(Mono.error(new RuntimeException("Error while searching tracker")))
+        .map(
+            response -> {
+              if (response.hasErrors()) {
+                String errorText = "Error while searching tracker: " + response.getErrors();
+                log.error(errorText);
+                throw new RuntimeException(errorText);
+              }
 
-    TypeRef<List<TrackerSearchResult>> typeRef = new TypeRef<>() {};
+              TypeRef<List<TrackerSearchResult>> typeRef = new TypeRef<>() {};
 
-    return response.extractValueAsObject("searchTracker.trackSearches", typeRef);
+              return response.extractValueAsObject("searchTracker.trackSearches", typeRef);
+            });
   }
 
   /**
@@ -202,7 +251,7 @@ public class SuwayomiTrackingClient {
    * @see online.hatsunemiku.tachideskvaadinui.services.tracker.SuwayomiTrackingService.TrackerType
    */
   @SuppressWarnings("JavadocReference")
-  public void trackMangaOnTracker(int mangaId, long externalId, int trackerId) {
+  public Mono<Void> trackMangaOnTracker(int mangaId, long externalId, int trackerId) {
     @Language("graphql")
     var query =
         """
@@ -224,16 +273,21 @@ public class SuwayomiTrackingClient {
     var graphClient = clientService.getDgsGraphQlClient();
 
     Duration timeout = Duration.ofSeconds(60);
-    var optional = graphClient.reactiveExecuteQuery(query, variables).blockOptional(timeout);
-
-    if (optional.isEmpty()) {
-      throw new RuntimeException(
-          "Didn't receive a response from the server after trying to track the manga");
-    }
-
-    if (optional.get().hasErrors()) {
-      throw new RuntimeException("Error while tracking manga: " + optional.get().getErrors());
-    }
+    return graphClient
+        .reactiveExecuteQuery(query, variables)
+        .contextWrite(ClientMetrics.operation(query))
+        .timeout(timeout)
+        .switchIfEmpty(
+            Mono.error(
+                new RuntimeException(
+                    "Didn't receive a response from the server after trying to track the manga")))
+        .doOnNext(
+            response -> {
+              if (response.hasErrors()) {
+                throw new RuntimeException("Error while tracking manga: " + response.getErrors());
+              }
+            })
+        .then();
   }
 
   /**
@@ -241,7 +295,7 @@ public class SuwayomiTrackingClient {
    *
    * @param mangaId the ID of the manga to sync
    */
-  public void trackProgress(int mangaId) {
+  public Mono<Void> trackProgress(int mangaId) {
     @Language("graphql")
     var query =
         """
@@ -259,14 +313,16 @@ public class SuwayomiTrackingClient {
     var variables = Map.of("mangaId", mangaId);
 
     Duration timeout = Duration.ofSeconds(10);
-    var optional = graphClient.reactiveExecuteQuery(query, variables).blockOptional(timeout);
-
-    if (optional.isEmpty()) {
-      throw new RuntimeException(
-          "Didn't receive a response from the server after trying to track the manga");
-    }
-
-    log.info("Tracked progress on trackers");
+    return graphClient
+        .reactiveExecuteQuery(query, variables)
+        .contextWrite(ClientMetrics.operation(query))
+        .timeout(timeout)
+        .switchIfEmpty(
+            Mono.error(
+                new RuntimeException(
+                    "Didn't receive a response from the server after trying to track the manga")))
+        .doOnNext(response -> log.info("Tracked progress on trackers"))
+        .then();
   }
 
   /**
@@ -276,7 +332,7 @@ public class SuwayomiTrackingClient {
    * @param trackerId the ID of the tracker to check
    * @return {@code true} if the manga is tracked on the tracker, {@code false} otherwise
    */
-  public boolean isMangaTracked(int mangaId, int trackerId) {
+  public Mono<Boolean> isMangaTracked(int mangaId, int trackerId) {
     @Language("graphql")
     var query =
         """
@@ -295,17 +351,16 @@ public class SuwayomiTrackingClient {
 
     var graphClient = clientService.getDgsGraphQlClient();
 
-    var response = graphClient.reactiveExecuteQuery(query, variables).block();
-
-    if (response == null) {
-      throw new RuntimeException("Error while checking if manga is tracked");
-    }
-
     TypeRef<List<TrackRecord>> typeRef = new TypeRef<>() {};
 
-    var trackRecords = response.extractValueAsObject("manga.trackRecords.nodes", typeRef);
-
-    return trackRecords.stream().anyMatch(record -> record.getTrackerId() == trackerId);
+    return graphClient
+        .reactiveExecuteQuery(query, variables)
+        .contextWrite(ClientMetrics.operation(query))
+        .switchIfEmpty(Mono.error(new RuntimeException("Error while checking if manga is tracked")))
+        .map(response -> response.extractValueAsObject("manga.trackRecords.nodes", typeRef))
+        .map(
+            trackRecords ->
+                trackRecords.stream().anyMatch(record -> record.getTrackerId() == trackerId));
   }
 
   /**
@@ -314,63 +369,55 @@ public class SuwayomiTrackingClient {
    * @param mangaId the ID of the {@link online.hatsunemiku.tachideskvaadinui.data.tachidesk.Manga
    *     Manga} to get the track record for
    * @param trackerId the ID of the tracker to get the track record for
-   * @return the {@link TrackRecord} of the manga for the tracker or {@code null} if the manga is
-   *     not tracked on the tracker.
+   * @return a {@link Mono} emitting the {@link TrackRecord} of the manga for the tracker or an
+   *     empty {@link Mono} if the manga is not tracked on the tracker.
    */
-  public TrackRecord getTrackRecord(long mangaId, int trackerId) {
-    @Language("graphql")
-    var query =
-        """
-        query GetMangaTrackRecords($mangaId: Int!) {
-          manga(id: $mangaId) {
-            trackRecords {
-              nodes {
-            		id
-                libraryId
-                mangaId
-                remoteId
-                trackerId
-               \s
-                remoteUrl
-               \s
-                title
-                lastChapterRead
-                totalChapters
-                displayScore
-               \s
-                finishDate
-                startDate
-                score
-                status
-              }
-            }
-          }
-        }
-        """;
-
-    var variables = Map.of("mangaId", mangaId);
+  public Mono<TrackRecord> getTrackRecord(long mangaId, int trackerId) {
+    return trackRecordLoader
+        .load(mangaId)
+        .flatMap(
+            trackRecords ->
+                Mono.justOrEmpty(
+                    trackRecords.stream()
+                        .filter(record -> record.getTrackerId() == trackerId)
+                        .findFirst()));
+  }
 
-    var graphClient = clientService.getDgsGraphQlClient();
+  /**
+   * Loads the track records of multiple manga with one aliased request.
+   *
+   * @param mangaIds the IDs of the manga to load the track records for
+   * @return a {@link Mono} emitting the track records of every manga, mapped by the manga ID
+   */
+  private Mono<Map<Long, List<TrackRecord>>> loadTrackRecords(List<Long> mangaIds) {
+    String query =
+        GraphQLUtils.buildAliasedDocument(
+            "query", "GetMangaTrackRecords", "Int!", TRACK_RECORDS_FIELD, mangaIds.size());
 
-    var response = graphClient.reactiveExecuteQuery(query, variables).block();
+    var variables = GraphQLUtils.buildAliasedVariables(mangaIds);
 
-    if (response == null) {
-      throw new RuntimeException("Error while getting manga track records");
-    }
+    var graphClient = clientService.getDgsGraphQlClient();
 
-    if (response.hasErrors()) {
-      throw new RuntimeException(
-          "Error while getting manga track records: " + response.getErrors());
-    }
+    return graphClient
+        .reactiveExecuteQuery(query, variables)
+        .contextWrite(ClientMetrics.operation(query))
+        .map(
+            response -> {
+              if (response.hasErrors()) {
+                throw new RuntimeException(
+                    "Error while getting manga track records: " + response.getErrors());
+              }
 
-    TypeRef<List<TrackRecord>> typeRef = new TypeRef<>() {};
+              TypeRef<List<TrackRecord>> typeRef = new TypeRef<>() {};
+              Map<Long, List<TrackRecord>> trackRecords = new HashMap<>();
 
-    var trackRecords = response.extractValueAsObject("manga.trackRecords.nodes", typeRef);
+              for (int i = 0; i < mangaIds.size(); i++) {
+                String path = GraphQLUtils.alias(i) + ".trackRecords.nodes";
+                trackRecords.put(mangaIds.get(i), response.extractValueAsObject(path, typeRef));
+              }
 
-    return trackRecords.stream()
-        .filter(record -> record.getTrackerId() == trackerId)
-        .findFirst()
-        .orElse(null);
+              return trackRecords;
+            });
   }
 
   /**
@@ -380,7 +427,7 @@ public class SuwayomiTrackingClient {
    * @throws RuntimeException If an error occurs while updating the track record, if the response
    *     from the server contains errors, or if the updated data does not match the expected data.
    */
-  public void updateTrackerData(TrackRecord trackRecord) {
+  public Mono<Void> updateTrackerData(TrackRecord trackRecord) {
     @Language("graphql")
     var query =
         """
@@ -435,12 +482,22 @@ public class SuwayomiTrackingClient {
 
     var graphClient = clientService.getDgsGraphQlClient();
 
-    var response = graphClient.reactiveExecuteQuery(query, variables).block();
-
-    if (response == null) {
-      throw new RuntimeException("Error while updating track record");
-    }
+    return graphClient
+        .reactiveExecuteQuery(query, variables)
+        .contextWrite(ClientMetrics.operation(query))
+        .switchIfEmpty(Mono.error(new RuntimeException("Error while updating track record")))
+        .doOnNext(response -> verifyUpdatedTrackRecord(response, trackRecord))
+        .then();
+  }
 
+  /**
+   * Checks if the track record returned by the server matches the data that was sent.
+   *
+   * @param response the response of the update request
+   * @param trackRecord the {@link TrackRecord} containing the expected data
+   * @throws RuntimeException if the response contains errors or the data doesn't match
+   */
+  private void verifyUpdatedTrackRecord(GraphQLResponse response, TrackRecord trackRecord) {
     if (response.hasErrors()) {
       throw new RuntimeException("Error while updating track record: " + response.getErrors());
     }
@@ -476,7 +533,7 @@ public class SuwayomiTrackingClient {
    * @throws RuntimeException If an error occurs while retrieving the statuses or if the response
    *     from the server contains errors.
    */
-  public List<Status> getStatuses(int trackRecordId) {
+  public Mono<List<Status>> getStatuses(int trackRecordId) {
     @Language("graphql")
     var query =
         """
@@ -494,19 +551,21 @@ public class SuwayomiTrackingClient {
 
     var graphClient = clientService.getDgsGraphQlClient();
 
-    var response = graphClient.reactiveExecuteQuery(query, variables).block();
-
-    if (response == null) {
-      throw new RuntimeException("Error while getting track statuses");
-    }
-
-    if (response.hasErrors()) {
-      throw new RuntimeException("Error while getting track statuses: " + response.getErrors());
-    }
-
     TypeRef<List<Status>> typeRef = new TypeRef<>() {};
 
-    return response.extractValueAsObject("tracker.statuses", typeRef);
+    return graphClient
+        .reactiveExecuteQuery(query, variables)
+        .contextWrite(ClientMetrics.operation(query))
+        .switchIfEmpty(Mono.error(new RuntimeException("Error while getting track statuses")))
+        .map(
+            response -> {
+              if (response.hasErrors()) {
+                throw new RuntimeException(
+                    "Error while getting track statuses: " + response.getErrors());
+              }
+
+              return response.extractValueAsObject("tracker.statuses", typeRef);
+            });
   }
 
   /**
@@ -517,25 +576,28 @@ public class SuwayomiTrackingClient {
    * @throws RuntimeException If an error occurs while stopping tracking or if the response from the
    *     server contains errors.
    */
-  public void stopTracking(int recordId, boolean deleteRemote) {
-    @Language("graphql")
-    String query = getStopTrackingQuery();
-
+  public Mono<Void> stopTracking(int recordId, boolean deleteRemote) {
     var variables = Map.of("recordId", recordId, "deleteRemote", deleteRemote);
 
     var graphClient = clientService.getDgsGraphQlClient();
 
-    var response = graphClient.reactiveExecuteQuery(query, variables).block();
-
-    if (response == null) {
-      throw new RuntimeException("Error while stopping tracking");
-    }
-
-    if (response.hasErrors()) {
-      throw new RuntimeException("Error while stopping tracking: " + response.getErrors());
-    }
+    return Mono.fromCallable(this::getStopTrackingQuery)
+        .flatMap(
+            query ->
+                graphClient
+                    .reactiveExecuteQuery(query, variables)
+                    .contextWrite(ClientMetrics.operation(query)))
+        .switchIfEmpty(Mono.error(new RuntimeException("Error while stopping tracking")))
+        .doOnNext(
+            response -> {
+              if (response.hasErrors()) {
+                throw new RuntimeException(
+                    "Error while stopping tracking: " + response.getErrors());
+              }
 
-    log.info("Stopped tracking manga with ID {}", recordId);
+              log.info("Stopped tracking manga with ID {}", recordId);
+            })
+        .then();
   }
 
   /**
@@ -549,9 +611,12 @@ public class SuwayomiTrackingClient {
     @Language("graphql")
     String query;
 
-    var version = suwayomiMetaClient.getServerVersion();
+    var capabilities =
+        suwayomiService
+            .getCapabilities()
+            .orElseThrow(() -> new RuntimeException("Failed to get server version"));
 
-    if (version.getRevisionNumber() >= 1510) {
+    if (capabilities.supportsServerTracking()) {
       query =
           """
           mutation StopTracking($recordId: Int!, $deleteRemote: Boolean!) {
@@ -586,7 +651,7 @@ public class SuwayomiTrackingClient {
    * @throws RuntimeException If an error occurs while retrieving the tracking scores or if the
    *     response contains errors.
    */
-  public List<String> getTrackingScores(int recordId) {
+  public Mono<List<String>> getTrackingScores(int recordId) {
     @Language("graphql")
     var query =
         """
@@ -603,19 +668,21 @@ public class SuwayomiTrackingClient {
 
     var graphClient = clientService.getDgsGraphQlClient();
 
-    var response = graphClient.reactiveExecuteQuery(query, variables).block();
-
-    if (response == null) {
-      throw new RuntimeException("Error while getting tracking scores");
-    }
-
-    if (response.hasErrors()) {
-      throw new RuntimeException("Error while getting tracking scores: " + response.getErrors());
-    }
-
     TypeRef<List<String>> typeRef = new TypeRef<>() {};
 
-    return response.extractValueAsObject("trackRecord.tracker.scores", typeRef);
+    return graphClient
+        .reactiveExecuteQuery(query, variables)
+        .contextWrite(ClientMetrics.operation(query))
+        .switchIfEmpty(Mono.error(new RuntimeException("Error while getting tracking scores")))
+        .map(
+            response -> {
+              if (response.hasErrors()) {
+                throw new RuntimeException(
+                    "Error while getting tracking scores: " + response.getErrors());
+              }
+
+              return response.extractValueAsObject("trackRecord.tracker.scores", typeRef);
+            });
   }
 
   /**
@@ -626,7 +693,7 @@ public class SuwayomiTrackingClient {
    * @throws RuntimeException If an error occurs while updating the score or if the updated score
    *     does not match the expected value.
    */
-  public void updateScore(int recordId, String value) {
+  public Mono<Void> updateScore(int recordId, String value) {
     @Language("graphql")
     String query =
         """
@@ -643,22 +710,25 @@ public class SuwayomiTrackingClient {
 
     var graphClient = clientService.getDgsGraphQlClient();
 
-    var response = graphClient.reactiveExecuteQuery(query, variables).block();
-
-    if (response == null) {
-      throw new RuntimeException("Error while updating score");
-    }
-
-    if (response.hasErrors()) {
-      throw new RuntimeException("Error while updating score: " + response.getErrors());
-    }
+    return graphClient
+        .reactiveExecuteQuery(query, variables)
+        .contextWrite(ClientMetrics.operation(query))
+        .switchIfEmpty(Mono.error(new RuntimeException("Error while updating score")))
+        .doOnNext(
+            response -> {
+              if (response.hasErrors()) {
+                throw new RuntimeException("Error while updating score: " + response.getErrors());
+              }
 
-    float score = response.extractValueAsObject("updateTrack.trackRecord.score", Float.class);
+              float score =
+                  response.extractValueAsObject("updateTrack.trackRecord.score", Float.class);
 
-    if (score != Float.parseFloat(value)) {
-      throw new RuntimeException("Score was not updated correctly");
-    }
+              if (score != Float.parseFloat(value)) {
+                throw new RuntimeException("Score was not updated correctly");
+              }
 
-    log.info("Updated score for track record with ID {}", recordId);
+              log.info("Updated score for track record with ID {}", recordId);
+            })
+        .then();
   }
 }
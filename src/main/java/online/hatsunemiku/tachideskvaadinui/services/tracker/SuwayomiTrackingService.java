@@ -9,7 +9,7 @@ package online.hatsunemiku.tachideskvaadinui.services.tracker;
 import java.util.List;
 import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
-import online.hatsunemiku.tachideskvaadinui.data.tachidesk.ServerVersion;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.ServerCapabilities;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Status;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.TrackRecord;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.TrackerType;
@@ -20,6 +20,7 @@ import online.hatsunemiku.tachideskvaadinui.data.tracking.statistics.SuwayomiMan
 import online.hatsunemiku.tachideskvaadinui.services.SuwayomiService;
 import online.hatsunemiku.tachideskvaadinui.services.client.suwayomi.SuwayomiTrackingClient;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 /**
  * Represents a Service for handling tracking requests to the Suwayomi Server. This service is a
@@ -53,7 +54,7 @@ public class SuwayomiTrackingService {
    */
   public boolean isAniListAuthenticated() {
     int id = TrackerType.ANILIST.id;
-    return client.isTrackerLoggedIn(id);
+    return client.isTrackerLoggedIn(id).block();
   }
 
   /**
@@ -63,7 +64,7 @@ public class SuwayomiTrackingService {
    */
   public boolean isMALAuthenticated() {
     int id = TrackerType.MAL.id;
-    return client.isTrackerLoggedIn(id);
+    return client.isTrackerLoggedIn(id).block();
   }
 
   /**
@@ -74,7 +75,7 @@ public class SuwayomiTrackingService {
    */
   public String getAniListAuthUrl() {
     int id = TrackerType.ANILIST.id;
-    return client.getTrackerAuthUrl(id) + getStateAuthParam(id);
+    return client.getTrackerAuthUrl(id).block() + getStateAuthParam(id);
   }
 
   /**
@@ -85,7 +86,7 @@ public class SuwayomiTrackingService {
    */
   public String getMALAuthUrl() {
     int id = TrackerType.MAL.id;
-    return client.getTrackerAuthUrl(id) + getStateAuthParam(id);
+    return client.getTrackerAuthUrl(id).block() + getStateAuthParam(id);
   }
 
   /**
@@ -96,7 +97,7 @@ public class SuwayomiTrackingService {
    */
   public List<TrackerSearchResult> searchAniList(String query) {
     int id = TrackerType.ANILIST.id;
-    return client.searchTracker(query, id);
+    return client.searchTracker(query, id).block();
   }
 
   /**
@@ -107,7 +108,7 @@ public class SuwayomiTrackingService {
    */
   public List<TrackerSearchResult> searchMAL(String query) {
     int id = TrackerType.MAL.id;
-    return client.searchTracker(query, id);
+    return client.searchTracker(query, id).block();
   }
 
   /**
@@ -118,7 +119,7 @@ public class SuwayomiTrackingService {
    */
   public void trackOnAniList(int mangaId, int externalId) {
     int id = TrackerType.ANILIST.id;
-    client.trackMangaOnTracker(mangaId, externalId, id);
+    client.trackMangaOnTracker(mangaId, externalId, id).block();
   }
 
   /**
@@ -129,7 +130,7 @@ public class SuwayomiTrackingService {
    */
   public void trackOnMAL(int mangaId, int externalId) {
     int id = TrackerType.MAL.id;
-    client.trackMangaOnTracker(mangaId, externalId, id);
+    client.trackMangaOnTracker(mangaId, externalId, id).block();
   }
 
   /**
@@ -140,7 +141,7 @@ public class SuwayomiTrackingService {
    */
   public boolean isMangaTrackedOnAniList(int mangaId) {
     int id = TrackerType.ANILIST.id;
-    return client.isMangaTracked(mangaId, id);
+    return client.isMangaTracked(mangaId, id).block();
   }
 
   /**
@@ -151,7 +152,7 @@ public class SuwayomiTrackingService {
    */
   public boolean isMangaTrackedOnMAL(int mangaId) {
     int id = TrackerType.MAL.id;
-    return client.isMangaTracked(mangaId, id);
+    return client.isMangaTracked(mangaId, id).block();
   }
 
   /**
@@ -161,7 +162,7 @@ public class SuwayomiTrackingService {
    * @param trackerId the ID of the tracker to log in to
    */
   public void loginSuwayomi(String url, int trackerId) {
-    client.loginTracker(url, trackerId);
+    client.loginTracker(url, trackerId).block();
   }
 
   /**
@@ -203,18 +204,17 @@ public class SuwayomiTrackingService {
    * @param mangaId the ID of the manga to sync progress for
    */
   public void trackProgress(int mangaId) {
-    Optional<ServerVersion> version = suwayomiService.getServerVersion();
+    // the capabilities are cached, so marking chapters as read doesn't wait for a version query
+    Optional<ServerCapabilities> capabilities = suwayomiService.getCapabilities();
 
-    if (version.isEmpty()) {
+    if (capabilities.isEmpty()) {
       log.warn("Failed to get server version");
       return;
     }
 
-    int revision = version.get().getRevisionNumber();
-
-    if (revision > 1510) {
+    if (capabilities.get().supportsTrackProgress()) {
       log.info("Tracking progress manually");
-      client.trackProgress(mangaId);
+      client.trackProgress(mangaId).block();
     }
   }
 
@@ -225,6 +225,17 @@ public class SuwayomiTrackingService {
    * @return the track record for the manga or {@code null} if the manga is not tracked on AniList
    */
   public TrackRecord getTrackRecordAniList(long mangaId) {
+    return getTrackRecordAniListAsync(mangaId).block();
+  }
+
+  /**
+   * Retrieves the AniList track record for a manga from the Suwayomi server without blocking.
+   *
+   * @param mangaId the ID of the manga to get the track record for
+   * @return a {@link Mono} emitting the track record or an empty {@link Mono} if the manga is not
+   *     tracked on AniList
+   */
+  public Mono<TrackRecord> getTrackRecordAniListAsync(long mangaId) {
     return client.getTrackRecord(mangaId, TrackerType.ANILIST.id);
   }
 
@@ -235,6 +246,18 @@ public class SuwayomiTrackingService {
    * @return the track record for the manga or {@code null} if the manga is not tracked on MAL
    */
   public TrackRecord getTrackRecordMAL(long mangaId) {
+    return getTrackRecordMALAsync(mangaId).block();
+  }
+
+  /**
+   * Retrieves the MyAnimeList (MAL) track record for a manga from the Suwayomi server without
+   * blocking.
+   *
+   * @param mangaId the ID of the manga to get the track record for
+   * @return a {@link Mono} emitting the track record or an empty {@link Mono} if the manga is not
+   *     tracked on MAL
+   */
+  public Mono<TrackRecord> getTrackRecordMALAsync(long mangaId) {
     return client.getTrackRecord(mangaId, TrackerType.MAL.id);
   }
 
@@ -245,7 +268,7 @@ public class SuwayomiTrackingService {
    *     manga
    */
   public void updateTrackingData(TrackRecord record) {
-    client.updateTrackerData(record);
+    client.updateTrackerData(record).block();
   }
 
   /**
@@ -266,7 +289,7 @@ public class SuwayomiTrackingService {
    * @return A list of {@link Status} objects representing the available statuses for the tracker.
    */
   public List<Status> getStatuses(TrackRecord record) {
-    return client.getStatuses(record.getTrackerId());
+    return client.getStatuses(record.getTrackerId()).block();
   }
 
   /**
@@ -330,7 +353,7 @@ public class SuwayomiTrackingService {
   public void stopTracking(Tracker tracker, boolean deleteRemote) {
     var trackRecord = getTrackRecord(tracker);
 
-    client.stopTracking(trackRecord.getId(), deleteRemote);
+    client.stopTracking(trackRecord.getId(), deleteRemote).block();
   }
 
   /**
@@ -356,7 +379,7 @@ public class SuwayomiTrackingService {
   public void updateMangaScore(Tracker tracker, String value) {
     var record = getTrackRecord(tracker);
 
-    client.updateScore(record.getId(), value);
+    client.updateScore(record.getId(), value).block();
   }
 
   /**
@@ -368,6 +391,6 @@ public class SuwayomiTrackingService {
   public List<String> getTrackingScores(Tracker tracker) {
     var record = getTrackRecord(tracker);
 
-    return client.getTrackingScores(record.getId());
+    return client.getTrackingScores(record.getId()).block();
   }
 }
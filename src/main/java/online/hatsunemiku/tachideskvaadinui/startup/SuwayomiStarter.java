@@ -223,13 +223,14 @@ public class SuwayomiStarter {
     }
 
     try {
-      var optional = suwayomiApi.getServerVersion();
+      // probes the server, which also caches its capabilities once it's running
+      var optional = suwayomiApi.refreshCapabilities();
 
       if (optional.isEmpty()) {
         return false;
       }
 
-      var version = optional.get();
+      var version = optional.get().version();
 
       logger.info(
           "Server version: Major={},Minor={},Patch={} with Revision={}",
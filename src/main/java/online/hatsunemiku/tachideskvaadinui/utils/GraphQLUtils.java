@@ -8,13 +8,23 @@ package online.hatsunemiku.tachideskvaadinui.utils;
 
 import elemental.json.Json;
 import elemental.json.JsonObject;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import lombok.experimental.UtilityClass;
+import online.hatsunemiku.tachideskvaadinui.services.client.metrics.ClientMetrics;
 import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.client.WebClient;
 
 @UtilityClass
 public class GraphQLUtils {
 
+  /** Matches the operation name or, for anonymous operations, the first selected field. */
+  private static final Pattern OPERATION_NAME =
+      Pattern.compile("^\\s*(?:(?:query|mutation|subscription)\\s*(\\w+)?[^{]*)?\\{\\s*(\\w+)");
+
   public static String sendGraphQLRequest(String query, String variables, WebClient client) {
     JsonObject variablesJson = Json.parse(variables);
 
@@ -25,10 +35,95 @@ public class GraphQLUtils {
     return client
         .post()
         .uri("/api/graphql")
+        .attribute(ClientMetrics.OPERATION_ATTRIBUTE, getOperationName(query))
         .contentType(MediaType.APPLICATION_JSON)
         .bodyValue(json.toJson())
         .retrieve()
         .bodyToMono(String.class)
         .block();
   }
+
+  /**
+   * Builds a GraphQL document which selects the same field once for every key by using aliases.
+   * The field with index {@code i} is aliased as {@link #alias(int) alias(i)} and receives the
+   * variable {@code $id<i>}, so a single request can resolve many IDs at once.
+   *
+   * @param operation the operation type, either {@code query} or {@code mutation}
+   * @param operationName the name of the operation
+   * @param variableType the GraphQL type of each ID variable, e.g. {@code Int!}
+   * @param fieldTemplate the field selection with a {@code %s} placeholder for the variable, e.g.
+   *     {@code chapter(id: %s) { id name }}
+   * @param count the number of aliased fields to generate
+   * @return the aliased GraphQL document
+   */
+  public static String buildAliasedDocument(
+      String operation,
+      String operationName,
+      String variableType,
+      String fieldTemplate,
+      int count) {
+    StringBuilder document = new StringBuilder();
+    document.append(operation).append(' ').append(operationName).append('(');
+
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        document.append(", ");
+      }
+      document.append("$id").append(i).append(": ").append(variableType);
+    }
+
+    document.append(") {\n");
+
+    for (int i = 0; i < count; i++) {
+      String field = fieldTemplate.formatted("$id" + i);
+      document.append("  ").append(alias(i)).append(": ").append(field).append('\n');
+    }
+
+    return document.append('}').toString();
+  }
+
+  /**
+   * Creates the variables for a document built with {@link #buildAliasedDocument}.
+   *
+   * @param ids the IDs in the same order as the aliases
+   * @return a map of variable names to IDs
+   */
+  public static Map<String, Object> buildAliasedVariables(List<?> ids) {
+    Map<String, Object> variables = new LinkedHashMap<>();
+
+    for (int i = 0; i < ids.size(); i++) {
+      variables.put("id" + i, ids.get(i));
+    }
+
+    return variables;
+  }
+
+  /**
+   * Returns the alias used for the field with the given index in an aliased document.
+   *
+   * @param index the index of the field
+   * @return the alias of the field
+   */
+  public static String alias(int index) {
+    return "a" + index;
+  }
+
+  /**
+   * Extracts the name of the first operation in a GraphQL document. Anonymous operations are named
+   * after their first selected field, e.g. {@code query { aboutServer { version } }} is named
+   * {@code aboutServer}.
+   *
+   * @param document the GraphQL document
+   * @return the name of the operation or {@code unknown} if the document couldn't be matched
+   */
+  public static String getOperationName(String document) {
+    Matcher matcher = OPERATION_NAME.matcher(document);
+
+    if (!matcher.find()) {
+      return "unknown";
+    }
+
+    String name = matcher.group(1);
+    return name != null ? name : matcher.group(2);
+  }
 }
@@ -0,0 +1,181 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.utils;
+
+import java.awt.Dimension;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+public class ImageUtils {
+
+  /** The widths thumbnails are created in, so browsers can pick one matching the card size. */
+  public static final List<Integer> THUMBNAIL_WIDTHS = List.of(200, 300, 400, 600);
+
+  /** The paths of the images of the server by their template. */
+  private static final Map<String, Pattern> IMAGE_PATHS =
+      Map.of(
+          "/api/v1/manga/{id}/thumbnail",
+          Pattern.compile("/api/v1/manga/\\d+/thumbnail"),
+          "/api/v1/manga/{id}/chapter/{index}/page/{index}",
+          Pattern.compile("/api/v1/manga/\\d+/chapter/\\d+/page/\\d+"),
+          "/api/v1/extension/icon/{apkName}",
+          Pattern.compile("/api/v1/extension/icon/[^/?]+"));
+
+  /**
+   * Creates the URL of an image of the Suwayomi Server, which is served through the image cache of
+   * the application instead of the server.
+   *
+   * @param path the path of the image on the server, e.g. {@code /api/v1/manga/1/thumbnail}
+   * @return the URL of the image relative to the application
+   */
+  public String getImageUrl(String path) {
+    return "images?path=" + URLEncoder.encode(path, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Finds the template of the path of an image of the Suwayomi Server, i.e. manga thumbnails,
+   * chapter pages and extension icons, which sources use as well. A query of the path is ignored.
+   *
+   * @param path the path of the image on the server, e.g. {@code /api/v1/manga/1/thumbnail}
+   * @return the template of the path, e.g. {@code /api/v1/manga/{id}/thumbnail}, or {@code null}
+   *     if the path doesn't belong to an image
+   */
+  public String getImageTemplate(String path) {
+    if (path.contains("..")) {
+      return null;
+    }
+
+    int query = path.indexOf('?');
+    String withoutQuery = query == -1 ? path : path.substring(0, query);
+
+    for (var entry : IMAGE_PATHS.entrySet()) {
+      if (entry.getValue().matcher(withoutQuery).matches()) {
+        return entry.getKey();
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Creates the URL of a thumbnail of an image of the Suwayomi Server, which is downscaled to the
+   * given width by the application.
+   *
+   * @param path the path of the image on the server, e.g. {@code /api/v1/manga/1/thumbnail}
+   * @param width the width of the thumbnail, one of {@link #THUMBNAIL_WIDTHS}
+   * @return the URL of the thumbnail relative to the application
+   */
+  public String getThumbnailUrl(String path, int width) {
+    String encodedPath = URLEncoder.encode(path, StandardCharsets.UTF_8);
+    return "images/thumbnail?path=%s&width=%d".formatted(encodedPath, width);
+  }
+
+  /**
+   * Creates the {@code srcset} of an image of the Suwayomi Server, listing a thumbnail for each of
+   * the {@link #THUMBNAIL_WIDTHS}.
+   *
+   * @param path the path of the image on the server, e.g. {@code /api/v1/manga/1/thumbnail}
+   * @return the value of the {@code srcset} attribute
+   */
+  public String getThumbnailSrcset(String path) {
+    return THUMBNAIL_WIDTHS.stream()
+        .map(width -> getThumbnailUrl(path, width) + " " + width + "w")
+        .collect(Collectors.joining(", "));
+  }
+
+  /**
+   * Reads the size of an image from its header, without decoding the image. The header can be
+   * incomplete, e.g. the first bytes of a download.
+   *
+   * @param header the first bytes of the image
+   * @return the size of the image, or {@code null} if the header is incomplete or the format isn't
+   *     supported
+   */
+  public Dimension readSize(byte[] header) {
+    Dimension webpSize = readWebpSize(header);
+
+    if (webpSize != null) {
+      return webpSize;
+    }
+
+    // the memory cache keeps ImageIO from creating temporary files
+    try (ImageInputStream in = new MemoryCacheImageInputStream(new ByteArrayInputStream(header))) {
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+
+      if (!readers.hasNext()) {
+        return null;
+      }
+
+      ImageReader reader = readers.next();
+
+      try {
+        reader.setInput(in, true, true);
+        return new Dimension(reader.getWidth(0), reader.getHeight(0));
+      } finally {
+        reader.dispose();
+      }
+    } catch (IOException | IndexOutOfBoundsException e) {
+      // the header ends before the size
+      return null;
+    }
+  }
+
+  /** Reads the size of a WebP image, which isn't supported by ImageIO. */
+  private Dimension readWebpSize(byte[] header) {
+    if (header.length < 30) {
+      return null;
+    }
+
+    String riff = new String(header, 0, 4, StandardCharsets.ISO_8859_1);
+    String webp = new String(header, 8, 4, StandardCharsets.ISO_8859_1);
+
+    if (!riff.equals("RIFF") || !webp.equals("WEBP")) {
+      return null;
+    }
+
+    String chunk = new String(header, 12, 4, StandardCharsets.ISO_8859_1);
+
+    return switch (chunk) {
+      // lossy, 14 bit sizes after the frame tag and start code
+      case "VP8 " ->
+          new Dimension(
+              readLittleEndian(header, 26, 2) & 0x3FFF, readLittleEndian(header, 28, 2) & 0x3FFF);
+      // lossless, 14 bit sizes minus one after the signature
+      case "VP8L" -> {
+        int bits = readLittleEndian(header, 21, 4);
+        yield new Dimension((bits & 0x3FFF) + 1, ((bits >> 14) & 0x3FFF) + 1);
+      }
+      // extended, 24 bit sizes minus one after the flags
+      case "VP8X" ->
+          new Dimension(readLittleEndian(header, 24, 3) + 1, readLittleEndian(header, 27, 3) + 1);
+      default -> null;
+    };
+  }
+
+  private int readLittleEndian(byte[] bytes, int offset, int length) {
+    int value = 0;
+
+    for (int i = length - 1; i >= 0; i--) {
+      value = (value << 8) | (bytes[offset + i] & 0xFF);
+    }
+
+    return value;
+  }
+}
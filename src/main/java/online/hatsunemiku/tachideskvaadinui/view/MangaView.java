@@ -29,16 +29,17 @@ import java.util.List;
 import java.util.Optional;
 import online.hatsunemiku.tachideskvaadinui.component.dialog.tracking.TrackingDialog;
 import online.hatsunemiku.tachideskvaadinui.component.listbox.chapter.ChapterListBox;
-import online.hatsunemiku.tachideskvaadinui.data.settings.Settings;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Chapter;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Manga;
 import online.hatsunemiku.tachideskvaadinui.services.MangaService;
 import online.hatsunemiku.tachideskvaadinui.services.SettingsService;
 import online.hatsunemiku.tachideskvaadinui.services.SuwayomiService;
 import online.hatsunemiku.tachideskvaadinui.services.TrackingDataService;
+import online.hatsunemiku.tachideskvaadinui.services.client.ChapterProjection;
 import online.hatsunemiku.tachideskvaadinui.services.tracker.AniListAPIService;
 import online.hatsunemiku.tachideskvaadinui.services.tracker.MyAnimeListAPIService;
 import online.hatsunemiku.tachideskvaadinui.services.tracker.SuwayomiTrackingService;
+import online.hatsunemiku.tachideskvaadinui.utils.ImageUtils;
 import online.hatsunemiku.tachideskvaadinui.utils.RouteUtils;
 import online.hatsunemiku.tachideskvaadinui.view.layout.StandardLayout;
 import org.jetbrains.annotations.NotNull;
@@ -90,7 +91,6 @@ public class MangaView extends StandardLayout implements BeforeEnterObserver {
   @Override
   public void beforeEnter(BeforeEnterEvent event) {
     Optional<String> idParam = event.getRouteParameters().get("id");
-    Settings settings = settingsService.getSettings();
 
     if (idParam.isEmpty()) {
       event.rerouteToError(NotFoundException.class, "Manga not found");
@@ -114,7 +114,7 @@ public class MangaView extends StandardLayout implements BeforeEnterObserver {
 
     Image image = new Image();
 
-    String url = settings.getUrl() + manga.getThumbnailUrl();
+    String url = ImageUtils.getImageUrl(manga.getThumbnailUrl());
 
     Div imageContainer = new Div();
 
@@ -124,23 +124,46 @@ public class MangaView extends StandardLayout implements BeforeEnterObserver {
     imageContainer.addClassName("manga-image-container");
     imageContainer.add(image);
 
-    List<Chapter> chapters = mangaService.getChapterList(mangaId);
+    H1 mangaTitle = new H1(manga.getTitle());
+    mangaTitle.addClassName("manga-title");
 
-    if (chapters.isEmpty()) {
-      chapters = mangaService.fetchChapterList(mangaId);
-    }
+    container.add(mangaTitle, imageContainer);
+    setContent(container);
+
+    UI ui = event.getUI();
+
+    mangaService
+        .getChapterListAsync(mangaId, ChapterProjection.LIST_ROW)
+        .filter(chapters -> !chapters.isEmpty())
+        .switchIfEmpty(mangaService.fetchChapterListAsync(mangaId, ChapterProjection.LIST_ROW))
+        .subscribe(
+            chapters -> ui.access(() -> addChapters(container, manga, chapters)),
+            e -> ui.access(this::showChapterLoadError));
+  }
 
-    Collections.reverse(chapters);
+  /**
+   * Adds the buttons and the chapter list of a manga to the view once the chapters are loaded.
+   *
+   * @param container the container of the view to add the components to
+   * @param manga the {@link Manga} the chapters belong to
+   * @param chapters the immutable chapters of the manga, sorted in ascending order
+   */
+  private void addChapters(VerticalLayout container, Manga manga, List<Chapter> chapters) {
+    List<Chapter> descending = new ArrayList<>(chapters);
+    Collections.reverse(descending);
 
-    ListBox<Chapter> chapterListBox = new ChapterListBox(chapters, mangaService);
+    ListBox<Chapter> chapterListBox = new ChapterListBox(descending, mangaService);
 
-    Div buttons = getButtons(manga, chapters);
+    Div buttons = getButtons(manga, descending);
 
-    H1 mangaTitle = new H1(manga.getTitle());
-    mangaTitle.addClassName("manga-title");
+    container.add(buttons, chapterListBox);
+  }
 
-    container.add(mangaTitle, imageContainer, buttons, chapterListBox);
-    setContent(container);
+  private void showChapterLoadError() {
+    Notification notification = new Notification("Failed to load chapters", 3000);
+    notification.addThemeVariants(NotificationVariant.LUMO_ERROR);
+    notification.setPosition(Notification.Position.MIDDLE);
+    notification.open();
   }
 
   /**
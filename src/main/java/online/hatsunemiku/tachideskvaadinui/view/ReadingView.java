@@ -21,8 +21,10 @@ import lombok.extern.slf4j.Slf4j;
 import online.hatsunemiku.tachideskvaadinui.component.reader.MangaReader;
 import online.hatsunemiku.tachideskvaadinui.component.reader.ReaderChapterChangeEvent;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Chapter;
+import online.hatsunemiku.tachideskvaadinui.services.ChapterPrefetchService;
 import online.hatsunemiku.tachideskvaadinui.services.MangaService;
 import online.hatsunemiku.tachideskvaadinui.services.SettingsService;
+import online.hatsunemiku.tachideskvaadinui.services.client.ChapterProjection;
 import online.hatsunemiku.tachideskvaadinui.view.layout.StandardLayout;
 
 /** Represents a view for reading manga. */
@@ -34,18 +36,25 @@ public class ReadingView extends StandardLayout
 
   private final MangaService mangaService;
   private final SettingsService settingsService;
+  private final ChapterPrefetchService prefetchService;
 
   /**
    * Creates a new ReadingView and sets it to full screen.
    *
    * @param mangaService The {@link MangaService} to use for fetching manga.
    * @param settingsService The {@link SettingsService} to use for managing settings.
+   * @param prefetchService The {@link ChapterPrefetchService} to use for loading the next chapter
+   *     in advance.
    */
-  public ReadingView(MangaService mangaService, SettingsService settingsService) {
+  public ReadingView(
+      MangaService mangaService,
+      SettingsService settingsService,
+      ChapterPrefetchService prefetchService) {
     super("Reading");
 
     this.mangaService = mangaService;
     this.settingsService = settingsService;
+    this.prefetchService = prefetchService;
 
     fullScreen();
   }
@@ -72,10 +81,10 @@ public class ReadingView extends StandardLayout
 
     int chapterId = Integer.parseInt(chapter);
 
-    List<Chapter> chapters = mangaService.getChapterList(mangaId);
+    List<Chapter> chapters = mangaService.getChapterList(mangaId, ChapterProjection.NAVIGATION);
 
     if (chapters.isEmpty()) {
-      chapters = mangaService.fetchChapterList(mangaId);
+      chapters = mangaService.fetchChapterList(mangaId, ChapterProjection.NAVIGATION);
     }
 
     Chapter chapterObj = null;
@@ -92,7 +101,8 @@ public class ReadingView extends StandardLayout
       return;
     }
 
-    var reader = new MangaReader(chapterObj, settingsService, mangaService, chapters);
+    var reader =
+        new MangaReader(chapterObj, settingsService, mangaService, prefetchService, chapters);
 
     reader.addReaderChapterChangeEventListener(this::processReaderChapterChangeEvent);
 
@@ -109,10 +119,12 @@ public class ReadingView extends StandardLayout
     var nextChapterId = event.getChapterId();
     var nextMangaId = event.getMangaId();
 
+    // usually cached by the prefetching of the next chapter
     var nextChapter = mangaService.getChapter(nextChapterId);
     var chapters = event.getChapters();
 
-    var nextReader = new MangaReader(nextChapter, settingsService, mangaService, chapters);
+    var nextReader =
+        new MangaReader(nextChapter, settingsService, mangaService, prefetchService, chapters);
 
     nextReader.addReaderChapterChangeEventListener(this::processReaderChapterChangeEvent);
 
@@ -28,9 +28,11 @@ import online.hatsunemiku.tachideskvaadinui.component.dialog.category.CategoryDi
 import online.hatsunemiku.tachideskvaadinui.component.tab.CategoryTab;
 import online.hatsunemiku.tachideskvaadinui.data.settings.Settings;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Category;
+import online.hatsunemiku.tachideskvaadinui.data.tachidesk.LibrarySnapshot;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Manga;
 import online.hatsunemiku.tachideskvaadinui.services.CategoryService;
 import online.hatsunemiku.tachideskvaadinui.services.LibUpdateService;
+import online.hatsunemiku.tachideskvaadinui.services.LibraryService;
 import online.hatsunemiku.tachideskvaadinui.services.MangaService;
 import online.hatsunemiku.tachideskvaadinui.services.SettingsService;
 import online.hatsunemiku.tachideskvaadinui.view.layout.StandardLayout;
@@ -44,6 +46,7 @@ public class RootView extends StandardLayout implements BeforeEnterObserver {
   private final LibUpdateService libUpdateService;
   private final MangaService mangaService;
   private final CategoryService categoryService;
+  private final LibraryService libraryService;
   private final SettingsService settingsService;
   private final ExecutorService updateExecutor;
 
@@ -51,26 +54,28 @@ public class RootView extends StandardLayout implements BeforeEnterObserver {
       SettingsService settingsService,
       LibUpdateService libUpdateService,
       MangaService mangaService,
-      CategoryService categoryService) {
+      CategoryService categoryService,
+      LibraryService libraryService) {
     super("Library");
 
     this.libUpdateService = libUpdateService;
     this.categoryService = categoryService;
+    this.libraryService = libraryService;
     this.mangaService = mangaService;
     this.settingsService = settingsService;
     this.updateExecutor = Executors.newSingleThreadExecutor();
   }
 
-  private void addCategoryTabs(List<Category> categories, Settings settings) {
-    for (Category c : categories) {
-      addCategoryTab(settings, c);
+  private void addCategoryTabs(LibrarySnapshot library, Settings settings) {
+    for (Category c : library.categories()) {
+      addCategoryTab(settings, c, library.getManga(c.getId()));
     }
   }
 
-  private void addCategoryTab(Settings settings, Category c) {
+  private void addCategoryTab(Settings settings, Category c, List<Manga> manga) {
     CategoryTab tab = new CategoryTab(c, mangaService);
 
-    Div grid = createMangaGrid(settings, c);
+    Div grid = createMangaGrid(settings, c, manga);
     tab.setGrid(grid);
 
     if (c.getId() != 0) {
@@ -100,47 +105,47 @@ public class RootView extends StandardLayout implements BeforeEnterObserver {
     return deleteButton;
   }
 
+  /**
+   * Creates the grid for a category.
+   *
+   * @param settings the {@link Settings} used for creating the manga cards
+   * @param c the {@link Category} to create the grid for
+   * @param manga the manga of the category
+   * @return the grid containing a card for each manga
+   */
   @NotNull
-  private Div createMangaGrid(Settings settings, Category c) {
-    List<Manga> manga;
-    try {
-      manga = categoryService.getMangaFromCategory(c.getId());
-    } catch (Exception e) {
-      UI ui = UI.getCurrent();
-      ui.access(() -> ui.navigate(ServerStartView.class));
-      return new Div();
-    }
-
+  private static Div createMangaGrid(Settings settings, Category c, List<Manga> manga) {
     Div grid = new Div();
     grid.addClassName("library-grid");
 
-    fillMangaGrid(settings, manga, grid, c);
-    return grid;
-  }
-
-  private static void fillMangaGrid(Settings settings, List<Manga> manga, Div grid, Category c) {
     for (Manga m : manga) {
       MangaCard card = new DraggableMangaCard(settings, m, c);
       grid.add(card);
     }
+
+    return grid;
   }
 
   @Override
   public void beforeEnter(BeforeEnterEvent event) {
+    UI ui = event.getUI();
 
-    List<Category> categories;
-
-    try {
-      categories = categoryService.getCategories();
-    } catch (Exception e) {
-      UI ui = UI.getCurrent();
-      ui.access(() -> ui.navigate(ServerStartView.class));
-      return;
-    }
+    libraryService
+        .getLibraryAsync()
+        .subscribe(
+            library -> ui.access(() -> showLibrary(library)),
+            e -> ui.access(() -> ui.navigate(ServerStartView.class)));
+  }
 
+  /**
+   * Shows the library with a tab for each category.
+   *
+   * @param library the {@link LibrarySnapshot} to show
+   */
+  private void showLibrary(LibrarySnapshot library) {
     tabs = new TabSheet();
     tabs.addThemeVariants(TabSheetVariant.LUMO_BORDERED);
-    addCategoryTabs(categories, settingsService.getSettings());
+    addCategoryTabs(library, settingsService.getSettings());
 
     Div buttons = getTabSheetButtons();
     tabs.setSuffixComponent(buttons);
@@ -173,7 +178,8 @@ public class RootView extends StandardLayout implements BeforeEnterObserver {
 
                 Settings s = settingsService.getSettings();
 
-                addCategoryTab(s, c);
+                // a new category doesn't contain any manga yet
+                addCategoryTab(s, c, List.of());
               });
 
           dialog.open();
@@ -28,7 +28,6 @@ import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
-import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import online.hatsunemiku.tachideskvaadinui.component.card.MangaCard;
 import online.hatsunemiku.tachideskvaadinui.component.combo.LangComboBox;
@@ -39,13 +38,14 @@ import online.hatsunemiku.tachideskvaadinui.data.tachidesk.search.SourceSearchRe
 import online.hatsunemiku.tachideskvaadinui.services.SearchService;
 import online.hatsunemiku.tachideskvaadinui.services.SettingsService;
 import online.hatsunemiku.tachideskvaadinui.services.SourceService;
+import online.hatsunemiku.tachideskvaadinui.utils.ImageUtils;
 import online.hatsunemiku.tachideskvaadinui.view.layout.StandardLayout;
 import online.hatsunemiku.tachideskvaadinui.view.trackers.AniListView;
 import online.hatsunemiku.tachideskvaadinui.view.trackers.MALView;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
-import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 import org.vaadin.miki.shared.text.TextInputMode;
 import org.vaadin.miki.superfields.text.SuperTextField;
 
@@ -167,10 +167,10 @@ public class SearchView extends StandardLayout implements HasUrlParameter<String
     ComboBox<String> langFilter = new LangComboBox();
     langFilter.addClassName("search-lang-filter");
 
-    List<Source> sources;
+    List<String> langs;
     try {
-      sources = sourceService.getSources();
-    } catch (ResourceAccessException e) {
+      langs = sourceService.getCatalog().getLanguages();
+    } catch (WebClientRequestException e) {
       UI ui = getUI().orElse(UI.getCurrent());
 
       if (ui == null) {
@@ -180,7 +180,6 @@ public class SearchView extends StandardLayout implements HasUrlParameter<String
       ui.access(() -> ui.navigate(ServerStartView.class));
       return langFilter;
     }
-    var langs = sources.stream().map(Source::getLang).distinct().toList();
     if (!langs.isEmpty()) {
       langFilter.setItems(langs);
 
@@ -285,11 +284,7 @@ public class SearchView extends StandardLayout implements HasUrlParameter<String
   }
 
   public void search(String query) {
-    var sources = sourceService.getSources();
-    var langGroupedSources =
-        sources.stream()
-            .sorted((a, b) -> a.getDisplayName().compareToIgnoreCase(b.getDisplayName()))
-            .collect(Collectors.groupingBy(Source::getLang));
+    var langGroupedSources = sourceService.getCatalog().byLanguage();
 
     searchSources(query, langGroupedSources);
   }
@@ -334,7 +329,7 @@ public class SearchView extends StandardLayout implements HasUrlParameter<String
     Settings settings = settingsService.getSettings();
 
     Div titleContainer = new Div();
-    Image sourceIcon = new Image(settings.getUrl() + source.getIconUrl(), "Icon");
+    Image sourceIcon = new Image(ImageUtils.getImageUrl(source.getIconUrl()), "Icon");
     sourceIcon.setClassName("search-result-icon");
     titleContainer.add(sourceIcon);
 
@@ -384,7 +379,8 @@ public class SearchView extends StandardLayout implements HasUrlParameter<String
         searchTasks.add(runnable);
       }
 
-      try (var executor = Executors.newCachedThreadPool()) {
+      // requests are limited by the ServerLoadFilter, so waiting tasks only park a virtual thread
+      try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
         executor.invokeAll(searchTasks);
         executor.shutdown();
       } catch (InterruptedException e) {
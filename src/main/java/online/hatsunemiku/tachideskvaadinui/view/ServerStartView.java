@@ -25,12 +25,11 @@ import java.time.Instant;
 import java.util.Optional;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import online.hatsunemiku.tachideskvaadinui.services.SettingsService;
+import online.hatsunemiku.tachideskvaadinui.services.WebClientService;
 import online.hatsunemiku.tachideskvaadinui.startup.SuwayomiMaintainer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.web.client.ResourceAccessException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 
 /**
  * The {@code ServerStartView} class represents the UI displayed while waiting for the server to
@@ -42,9 +41,8 @@ import org.springframework.web.client.RestTemplate;
 public class ServerStartView extends VerticalLayout {
 
   private static final Logger logger = LoggerFactory.getLogger(ServerStartView.class);
-  private final RestTemplate client;
+  private final WebClientService clientService;
   private final SuwayomiMaintainer maintainer;
-  private final SettingsService settingsService;
   private final Div updateNotice;
   private final ProgressBar progress;
   private final Div downloadText;
@@ -52,11 +50,9 @@ public class ServerStartView extends VerticalLayout {
   private Instant countdown;
   private boolean hasSentNotification = false;
 
-  public ServerStartView(
-      RestTemplate client, SuwayomiMaintainer maintainer, SettingsService settingsService) {
+  public ServerStartView(WebClientService clientService, SuwayomiMaintainer maintainer) {
 
-    this.client = client;
-    this.settingsService = settingsService;
+    this.clientService = clientService;
     this.executor = Executors.newSingleThreadScheduledExecutor();
     this.maintainer = maintainer;
 
@@ -165,12 +161,13 @@ public class ServerStartView extends VerticalLayout {
   }
 
   private void checkConnection() {
-    String url = settingsService.getSettings().getUrl() + "/api/v1/settings/about";
+    var webClient = clientService.getWebClient();
 
     try {
-      var response = client.getForEntity(url, Void.class);
+      var response =
+          webClient.get().uri("/api/v1/settings/about").retrieve().toBodilessEntity().block();
 
-      if (response.getStatusCode().is2xxSuccessful()) {
+      if (response != null && response.getStatusCode().is2xxSuccessful()) {
 
         Optional<UI> optUi = getUI();
 
@@ -185,7 +182,7 @@ public class ServerStartView extends VerticalLayout {
 
         executor.shutdownNow();
       }
-    } catch (ResourceAccessException e) {
+    } catch (WebClientRequestException e) {
       logger.debug("No Connection to Server yet", e);
     }
   }
@@ -39,14 +39,12 @@ import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 import online.hatsunemiku.tachideskvaadinui.data.settings.FlareSolverrSettings;
 import online.hatsunemiku.tachideskvaadinui.data.settings.Settings;
 import online.hatsunemiku.tachideskvaadinui.data.settings.event.SettingsEventPublisher;
 import online.hatsunemiku.tachideskvaadinui.data.tachidesk.ExtensionRepo;
-import online.hatsunemiku.tachideskvaadinui.data.tachidesk.Source;
 import online.hatsunemiku.tachideskvaadinui.services.SettingsService;
 import online.hatsunemiku.tachideskvaadinui.services.SourceService;
 import online.hatsunemiku.tachideskvaadinui.services.SuwayomiSettingsService;
@@ -56,7 +54,7 @@ import org.apache.commons.validator.routines.UrlValidator;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 import org.vaadin.miki.superfields.checkbox.SuperCheckbox;
 import org.vaadin.miki.superfields.text.SuperTextField;
 
@@ -765,18 +763,16 @@ public class SettingsView extends StandardLayout {
 
     ComboBox<String> defaultLang = new ComboBox<>();
     defaultLang.setAllowCustomValue(false);
-    List<Source> sources;
+    List<String> langs;
     try {
-      sources = sourceService.getSources();
-    } catch (ResourceAccessException e) {
+      langs = sourceService.getCatalog().getLanguages();
+    } catch (WebClientRequestException e) {
       defaultLang.setReadOnly(true);
       defaultLang.setItems("Not available, because server is not running");
       defaultLang.setValue("Not available, because server is not running");
       return defaultLang;
     }
 
-    var langs = new ArrayList<>(sources.stream().map(Source::getLang).distinct().toList());
-
     defaultLang.setItems(langs);
 
     return defaultLang;
@@ -0,0 +1,197 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DiskCacheStoreTest {
+
+  private static final int SIZE = 4096;
+  private static final int VERSION = 1;
+
+  /** The position of the end of the log in the header of the file. */
+  private static final int END_POSITION = 12;
+
+  @TempDir private Path dir;
+
+  @Test
+  void keepsValuesAcrossRestarts() throws IOException {
+    Path file = dir.resolve("test.cache");
+
+    try (var store = DiskCacheStore.open(file, SIZE, VERSION)) {
+      store.put("a", bytes("first"));
+      store.put("b", bytes("second"));
+      store.put("a", bytes("third"));
+      store.remove("b");
+    }
+
+    try (var store = DiskCacheStore.open(file, SIZE, VERSION)) {
+      assertEquals(1, store.size());
+      assertArrayEquals(bytes("third"), store.get("a"));
+      assertNull(store.get("b"));
+    }
+  }
+
+  @Test
+  void discardsValuesOfOtherVersions() throws IOException {
+    Path file = dir.resolve("test.cache");
+
+    try (var store = DiskCacheStore.open(file, SIZE, VERSION)) {
+      store.put("a", bytes("first"));
+    }
+
+    try (var store = DiskCacheStore.open(file, SIZE, VERSION + 1)) {
+      assertEquals(0, store.size());
+      assertNull(store.get("a"));
+    }
+  }
+
+  @Test
+  void discardsRecordsAfterChecksumMismatch() throws IOException {
+    Path file = dir.resolve("test.cache");
+    int secondRecord;
+
+    try (var store = DiskCacheStore.open(file, SIZE, VERSION)) {
+      store.put("a", bytes("first"));
+      secondRecord = (int) (16 + store.getLiveBytes());
+      store.put("b", bytes("second"));
+      store.put("c", bytes("third"));
+    }
+
+    // flips the last byte of the value of "b"
+    int valueEnd = secondRecord + readInt(file, secondRecord) - 1;
+    writeByte(file, valueEnd, (byte) ~readByte(file, valueEnd));
+
+    try (var store = DiskCacheStore.open(file, SIZE, VERSION)) {
+      assertArrayEquals(bytes("first"), store.get("a"));
+      assertNull(store.get("b"));
+      assertNull(store.get("c"));
+
+      // the log continues after the last valid record
+      store.put("d", bytes("fourth"));
+    }
+
+    try (var store = DiskCacheStore.open(file, SIZE, VERSION)) {
+      assertEquals(2, store.size());
+      assertArrayEquals(bytes("fourth"), store.get("d"));
+    }
+  }
+
+  @Test
+  void ignoresPartiallyWrittenRecord() throws IOException {
+    Path file = dir.resolve("test.cache");
+    int secondRecord;
+
+    try (var store = DiskCacheStore.open(file, SIZE, VERSION)) {
+      store.put("a", bytes("first"));
+      secondRecord = (int) (16 + store.getLiveBytes());
+      store.put("b", bytes("second"));
+    }
+
+    // as if the application stopped while "b" was written
+    writeInt(file, END_POSITION, secondRecord + 5);
+
+    try (var store = DiskCacheStore.open(file, SIZE, VERSION)) {
+      assertEquals(1, store.size());
+      assertArrayEquals(bytes("first"), store.get("a"));
+      assertNull(store.get("b"));
+    }
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedValuesWhenFull() throws IOException {
+    Path file = dir.resolve("test.cache");
+    byte[] value = new byte[200];
+
+    try (var store = DiskCacheStore.open(file, SIZE, VERSION)) {
+      // fills the file up to the last record
+      for (int i = 0; i < 18; i++) {
+        store.put("key" + i, value);
+      }
+
+      // "key0" is now the most recently used entry
+      store.get("key0");
+
+      store.put("key18", value);
+      store.put("key19", value);
+
+      assertArrayEquals(value, store.get("key0"));
+      assertNull(store.get("key1"));
+      assertArrayEquals(value, store.get("key19"));
+      assertTrue(store.getLiveBytes() <= SIZE);
+    }
+
+    // the compacted log is still readable
+    try (var store = DiskCacheStore.open(file, SIZE, VERSION)) {
+      assertArrayEquals(value, store.get("key0"));
+      assertNull(store.get("key1"));
+      assertArrayEquals(value, store.get("key19"));
+    }
+  }
+
+  @Test
+  void skipsValuesOlderThanMaxAge() throws IOException, InterruptedException {
+    Path file = dir.resolve("test.cache");
+
+    try (var store = DiskCacheStore.open(file, SIZE, VERSION)) {
+      store.put("a", bytes("first"));
+    }
+
+    Thread.sleep(20);
+
+    try (var store = DiskCacheStore.open(file, SIZE, VERSION)) {
+      assertArrayEquals(bytes("first"), store.get("a", Duration.ofMinutes(1)));
+      assertNull(store.get("a", Duration.ofMillis(10)));
+      assertEquals(0, store.size());
+    }
+  }
+
+  private static byte[] bytes(String text) {
+    return text.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static int readInt(Path file, int position) throws IOException {
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer buffer = ByteBuffer.allocate(4);
+      channel.read(buffer, position);
+      return buffer.flip().getInt();
+    }
+  }
+
+  private static byte readByte(Path file, int position) throws IOException {
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer buffer = ByteBuffer.allocate(1);
+      channel.read(buffer, position);
+      return buffer.flip().get();
+    }
+  }
+
+  private static void writeInt(Path file, int position, int value) throws IOException {
+    try (var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.allocate(4).putInt(value).flip(), position);
+    }
+  }
+
+  private static void writeByte(Path file, int position, byte value) throws IOException {
+    try (var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[] {value}), position);
+    }
+  }
+}
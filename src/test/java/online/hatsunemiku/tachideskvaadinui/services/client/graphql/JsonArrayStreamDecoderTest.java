@@ -0,0 +1,122 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package online.hatsunemiku.tachideskvaadinui.services.client.graphql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import online.hatsunemiku.tachideskvaadinui.services.client.exception.InvalidResponseException;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+class JsonArrayStreamDecoderTest {
+
+  private static final String LIBRARY =
+      """
+      {"data": {
+        "categories": {"nodes": [
+          {"id": 0, "mangas": {"nodes": [{"id": 1, "title": "A"}, {"id": 2, "title": "B"}]}},
+          {"id": 1, "mangas": {"nodes": [{"id": 3, "title": "C", "tags": [{"id": 9}]}]}}
+        ]},
+        "mangas": {"nodes": [{"id": 4, "title": "D"}]}
+      }}
+      """;
+
+  private final ObjectMapper mapper =
+      new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+  private final JsonArrayStreamDecoder<Manga> decoder =
+      new JsonArrayStreamDecoder<>(mapper, "categories.nodes[].mangas.nodes[]", Manga.class);
+
+  @Test
+  void decodesOnlyElementsAtPath() {
+    List<Manga> manga = decoder.decode(body(LIBRARY, Integer.MAX_VALUE)).collectList().block();
+
+    assertEquals(List.of(new Manga(1, "A"), new Manga(2, "B"), new Manga(3, "C")), manga);
+  }
+
+  @Test
+  void decodesElementsSplitAcrossBuffers() {
+    List<Manga> manga = decoder.decode(body(LIBRARY, 1)).collectList().block();
+
+    assertEquals(List.of(new Manga(1, "A"), new Manga(2, "B"), new Manga(3, "C")), manga);
+  }
+
+  @Test
+  void skipsMissingArrays() {
+    String json = "{\"data\": {\"categories\": null}}";
+
+    List<Manga> manga = decoder.decode(body(json, 4)).collectList().block();
+
+    assertEquals(List.of(), manga);
+  }
+
+  @Test
+  void reportsErrorsAfterElements() {
+    String json =
+        """
+        {"data": {"categories": {"nodes": [{"mangas": {"nodes": [{"id": 1, "title": "A"}]}}]}},
+         "errors": [{"message": "Source unavailable"}]}
+        """;
+
+    List<Manga> manga = new ArrayList<>();
+    AtomicReference<Throwable> error = new AtomicReference<>();
+
+    decoder
+        .decode(body(json, 8))
+        .doOnNext(manga::add)
+        .onErrorResume(
+            e -> {
+              error.set(e);
+              return Flux.empty();
+            })
+        .blockLast();
+
+    assertEquals(List.of(new Manga(1, "A")), manga);
+    assertInstanceOf(InvalidResponseException.class, error.get());
+    assertTrue(error.get().getMessage().contains("Source unavailable"));
+  }
+
+  @Test
+  void rejectsTruncatedResponse() {
+    String json = LIBRARY.substring(0, LIBRARY.length() / 2);
+
+    Flux<Manga> manga = decoder.decode(body(json, 16));
+
+    assertThrows(InvalidResponseException.class, manga::blockLast);
+  }
+
+  private static Flux<DataBuffer> body(String json, int chunkSize) {
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    List<DataBuffer> buffers = new ArrayList<>();
+
+    for (int i = 0; i < bytes.length; i += chunkSize) {
+      int length = Math.min(chunkSize, bytes.length - i);
+      buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(copy(bytes, i, length)));
+    }
+
+    return Flux.fromIterable(buffers);
+  }
+
+  private static byte[] copy(byte[] bytes, int offset, int length) {
+    byte[] chunk = new byte[length];
+    System.arraycopy(bytes, offset, chunk, 0, length);
+    return chunk;
+  }
+
+  private record Manga(int id, String title) {}
+}